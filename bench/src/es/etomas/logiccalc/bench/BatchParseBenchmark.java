@@ -0,0 +1,75 @@
+package es.etomas.logiccalc.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import es.etomas.logiccalc.logicparsers.BatchParser;
+import es.etomas.logiccalc.logicparsers.PrecedenceParser;
+import es.etomas.logiccalc.logicparsers.PropLogic;
+
+/**
+ * Measures the parsing of a list of small expressions one after the other
+ * with a {@link PrecedenceParser} and in parallel with a {@link BatchParser}
+ * on a pool with a thread per processor.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchParseBenchmark {
+
+	private static final int CLAUSES = 4;
+
+	@Param({"10000", "100000"})
+	public int expressions;
+
+	private List<String> lines;
+	private BatchParser batchParser;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(expressions);
+		lines = new ArrayList<>(expressions);
+		for (int i = 0; i < expressions; i++) {
+			lines.add(Formulas.randomText(random, CLAUSES));
+		}
+		batchParser = new BatchParser(Runtime.getRuntime().availableProcessors());
+	}
+
+	@TearDown
+	public void tearDown() {
+		batchParser.close();
+	}
+
+	@Benchmark
+	public List<PropLogic> sequential() {
+		PrecedenceParser parser = new PrecedenceParser();
+		List<PropLogic> res = new ArrayList<>(lines.size());
+		for (String line : lines) {
+			res.add(parser.parse(line));
+		}
+		return res;
+	}
+
+	@Benchmark
+	public List<BatchParser.Result> batch() {
+		return batchParser.parse(lines.stream());
+	}
+}
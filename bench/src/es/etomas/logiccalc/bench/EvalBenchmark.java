@@ -0,0 +1,80 @@
+package es.etomas.logiccalc.bench;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import es.etomas.logiccalc.functions.CompiledPropLogic;
+import es.etomas.logiccalc.functions.PropLogicUtils;
+import es.etomas.logiccalc.functions.SolverContext;
+import es.etomas.logiccalc.functions.Tracer;
+import es.etomas.logiccalc.logicparsers.PropLogic;
+
+/**
+ * Measures the evaluation of a random 3-SAT expression under one assignment,
+ * and its whole truth table, both traced line by line and written as text.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EvalBenchmark {
+
+	@Param({"8", "12", "16"})
+	public int variables;
+
+	private PropLogic input;
+	private CompiledPropLogic compiled;
+	private Map<String, Boolean> values;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(variables);
+		int clauses = (int) (variables * Formulas.HARD_RATIO);
+		input = Formulas.conjunction(Formulas.random3Sat(random, variables, clauses), clauses);
+		compiled = CompiledPropLogic.compile(input);
+
+		values = new HashMap<>();
+		for (int i = 0; i < variables; i++) {
+			values.put(Formulas.label(i), random.nextBoolean());
+		}
+	}
+
+	@Benchmark
+	public boolean eval() {
+		return input.eval(values);
+	}
+
+	@Benchmark
+	public boolean evalCompiled() {
+		return compiled.eval(values);
+	}
+
+	@Benchmark
+	public void truthTable(Blackhole blackhole) {
+		PropLogicUtils.truthTable(input, new SolverContext(Tracer.of(blackhole::consume)));
+	}
+
+	@Benchmark
+	public void truthTableWritten() throws IOException {
+		PropLogicUtils.truthTable(input, Writer.nullWriter());
+	}
+}
@@ -0,0 +1,245 @@
+package es.etomas.logiccalc.bench;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import es.etomas.logiccalc.logicparsers.PropLogic;
+import es.etomas.logiccalc.logicparsers.PropLogic.LogicType;
+
+/**
+ * Inputs shared by the benchmarks. Random inputs take their own {@link Random},
+ * so the same seed always gives the same input.
+ */
+final class Formulas {
+
+	//Random 3-SAT is satisfiable about half of the time at this ratio of clauses to variables
+	static final double HARD_RATIO = 4.26;
+
+	private static final LogicType[] OPERATIONS = {LogicType.CONJUNCTION, LogicType.DISJUNCTION,
+			LogicType.IMPLICATION, LogicType.BICONDITIONAL};
+
+	private Formulas() {
+	}
+
+	/**
+	 * Gets the label of a variable.
+	 * @param index The index of the variable
+	 * @return A single letter for the first 52, or v followed by the index
+	 */
+	static String label(int index) {
+		String res;
+		if(index < 26) {
+			res = String.valueOf((char) ('a' + index));
+		} else if(index < 52) {
+			res = String.valueOf((char) ('A' + index - 26));
+		} else {
+			res = "v" + index;
+		}
+		return res;
+	}
+
+	/**
+	 * Builds distinct random clauses of 3 distinct literals.
+	 * @param random The source of the clauses
+	 * @param variables The number of variables
+	 * @param clauses The number of clauses
+	 * @return The clauses
+	 */
+	static Set<Set<PropLogic>> random3Sat(Random random, int variables, int clauses) {
+		return randomClauses(random, 3, variables, clauses);
+	}
+
+	/**
+	 * Builds distinct random clauses of k distinct literals, with a number of
+	 * clauses given by its ratio to the number of variables.
+	 * @param random The source of the clauses
+	 * @param k The number of literals of each clause
+	 * @param variables The number of variables
+	 * @param ratio The number of clauses per variable
+	 * @return The clauses
+	 * @throws IllegalArgumentException If there are not enough distinct clauses
+	 */
+	static Set<Set<PropLogic>> randomKSat(Random random, int k, int variables, double ratio) {
+		return randomClauses(random, k, variables, (int) Math.round(variables * ratio));
+	}
+
+	private static Set<Set<PropLogic>> randomClauses(Random random, int k, int variables, int clauses) {
+		//Ways of choosing k variables, times the signs of each choice
+		double distinct = Math.pow(2, k);
+		for (int i = 0; i < k; i++) {
+			distinct = distinct * (variables - i) / (i + 1);
+		}
+		if(k < 1 || clauses > distinct) {
+			throw new IllegalArgumentException("There are no " + clauses + " distinct clauses of " +
+					k + " literals over " + variables + " variables");
+		}
+
+		Set<Set<PropLogic>> res = new HashSet<>();
+		while(res.size() < clauses) {
+			Set<PropLogic> clause = new HashSet<>();
+			while(clause.size() < k) {
+				PropLogic literal = PropLogic.ofAtom(label(random.nextInt(variables)), random.nextBoolean());
+				//A variable appears once, so the clause is never a tautology
+				if(!clause.contains(literal.getComplementary())) {
+					clause.add(literal);
+				}
+			}
+			res.add(clause);
+		}
+		return res;
+	}
+
+	/**
+	 * Builds the pigeonhole principle for one more pigeon than holes, which is
+	 * unsatisfiable and needs exponentially long resolution proofs. The
+	 * variable pI_J means that pigeon I is in hole J.
+	 * @param holes The number of holes
+	 * @return The clauses
+	 */
+	static Set<Set<PropLogic>> pigeonhole(int holes) {
+		Set<Set<PropLogic>> res = new HashSet<>();
+		//Every pigeon is in a hole
+		for (int pigeon = 0; pigeon <= holes; pigeon++) {
+			Set<PropLogic> clause = new HashSet<>();
+			for (int hole = 0; hole < holes; hole++) {
+				clause.add(pigeon(pigeon, hole, false));
+			}
+			res.add(clause);
+		}
+		//No hole has two pigeons
+		for (int hole = 0; hole < holes; hole++) {
+			for (int first = 0; first <= holes; first++) {
+				for (int second = first + 1; second <= holes; second++) {
+					res.add(Set.of(pigeon(first, hole, true), pigeon(second, hole, true)));
+				}
+			}
+		}
+		return res;
+	}
+
+	private static PropLogic pigeon(int pigeon, int hole, boolean negated) {
+		return PropLogic.ofAtom("p" + pigeon + "_" + hole, negated);
+	}
+
+	/**
+	 * Builds the chain a xor b xor c..., true when an odd number of variables
+	 * are. Exclusive or is written as a negated biconditional, so its CNF
+	 * without auxiliary variables has a clause for each assignment that makes
+	 * it false, which is 2^(n-1) clauses for n variables.
+	 * @param variables The number of variables
+	 * @return The expression
+	 */
+	static PropLogic parity(int variables) {
+		PropLogic res = PropLogic.ofAtom(label(0), false);
+		for (int i = 1; i < variables; i++) {
+			res = PropLogic.ofOp(res, LogicType.BICONDITIONAL, PropLogic.ofAtom(label(i), false))
+					.getComplementary();
+		}
+		return res;
+	}
+
+	/**
+	 * Builds a random expression using every operator, whose deepest atom is at
+	 * the given depth. At each operation one side has the remaining depth and
+	 * the other a random depth up to it, and each side can be negated.
+	 * @param random The source of the expression
+	 * @param variables The number of variables
+	 * @param depth The depth of the expression, 0 for an atom
+	 * @return The expression
+	 */
+	static PropLogic randomTree(Random random, int variables, int depth) {
+		PropLogic res;
+		if(depth == 0) {
+			res = PropLogic.ofAtom(label(random.nextInt(variables)), random.nextBoolean());
+		} else {
+			PropLogic deep = randomTree(random, variables, depth - 1);
+			PropLogic other = randomTree(random, variables, random.nextInt(depth));
+			if(random.nextBoolean()) {
+				deep = deep.getComplementary();
+			}
+			if(random.nextBoolean()) {
+				other = other.getComplementary();
+			}
+			LogicType type = OPERATIONS[random.nextInt(OPERATIONS.length)];
+			res = random.nextBoolean()?
+					PropLogic.ofOp(deep, type, other):
+					PropLogic.ofOp(other, type, deep);
+		}
+		return res;
+	}
+
+	/**
+	 * Gets the conjunction of the first clauses of a set.
+	 * @param clauses The clauses
+	 * @param count The number of clauses to join
+	 * @return The expression
+	 */
+	static PropLogic conjunction(Set<Set<PropLogic>> clauses, int count) {
+		return clauses.stream()
+				.limit(count)
+				.map(clause->clause.stream()
+						.reduce((left, right)->PropLogic.ofOp(left, "or", right))
+						.orElseThrow())
+				.reduce((left, right)->PropLogic.ofOp(left, "and", right))
+				.orElseThrow();
+	}
+
+	/**
+	 * Builds a balanced conjunction of distinct clauses of 3 literals, each one
+	 * with its own variables.
+	 * @param clauses The number of clauses
+	 * @param implications Whether to write each clause (a or !b or c) as ((!a and b) -> c)
+	 * @return The expression
+	 */
+	static PropLogic balancedCnf(int clauses, boolean implications) {
+		PropLogic[] level = new PropLogic[clauses];
+		for (int i = 0; i < clauses; i++) {
+			PropLogic first = PropLogic.ofAtom(label(3 * i), false);
+			PropLogic second = PropLogic.ofAtom(label(3 * i + 1), false);
+			PropLogic third = PropLogic.ofAtom(label(3 * i + 2), false);
+			level[i] = implications?
+					PropLogic.ofOp(PropLogic.ofOp(first.getComplementary(), LogicType.CONJUNCTION, second),
+							LogicType.IMPLICATION, third):
+					PropLogic.ofOp(PropLogic.ofOp(first, LogicType.DISJUNCTION, second.getComplementary()),
+							LogicType.DISJUNCTION, third);
+		}
+
+		int size = clauses;
+		while(size > 1) {
+			int half = (size + 1) / 2;
+			for (int i = 0; i < size / 2; i++) {
+				level[i] = PropLogic.ofOp(level[2 * i], LogicType.CONJUNCTION, level[2 * i + 1]);
+			}
+			if(size % 2 == 1) {
+				level[half - 1] = level[size - 1];
+			}
+			size = half;
+		}
+		return level[0];
+	}
+
+	/**
+	 * Writes a conjunction of random implications such as (!a or b -> c),
+	 * using every operator of the grammar but biconditionals.
+	 * @param random The source of the text
+	 * @param clauses The number of implications
+	 * @return The text
+	 */
+	static String randomText(Random random, int clauses) {
+		StringBuilder res = new StringBuilder();
+		for (int i = 0; i < clauses; i++) {
+			if(i > 0) {
+				res.append(" and ");
+			}
+			res.append(random.nextBoolean()? "(!" : "(")
+					.append(label(random.nextInt(52)))
+					.append(" or ")
+					.append(label(random.nextInt(52)))
+					.append(" -> ")
+					.append(label(random.nextInt(52)))
+					.append(')');
+		}
+		return res.toString();
+	}
+}
@@ -0,0 +1,70 @@
+package es.etomas.logiccalc.bench;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import es.etomas.logiccalc.functions.ClauseDatabase;
+import es.etomas.logiccalc.functions.ClauseSink;
+import es.etomas.logiccalc.functions.PropLogicUtils;
+import es.etomas.logiccalc.logicparsers.PropLogic;
+
+/**
+ * Measures toCNF on clauses written as implications and on the same clauses
+ * already in CNF, and the extraction of the clauses of the latter as sets and
+ * into a {@link ClauseDatabase}. All of them should grow linearly with the
+ * number of clauses.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NormalFormBenchmark {
+
+	@Param({"256", "4096", "65536"})
+	public int clauses;
+
+	private PropLogic implications;
+	private PropLogic cnf;
+
+	@Setup
+	public void setup() {
+		implications = Formulas.balancedCnf(clauses, true);
+		cnf = Formulas.balancedCnf(clauses, false);
+	}
+
+	@Benchmark
+	public PropLogic toCNF() {
+		return PropLogicUtils.toCNF(implications);
+	}
+
+	@Benchmark
+	public PropLogic toCNFOfCnf() {
+		return PropLogicUtils.toCNF(cnf);
+	}
+
+	@Benchmark
+	public Set<Set<PropLogic>> getClauses() {
+		return PropLogicUtils.getClauses(cnf);
+	}
+
+	@Benchmark
+	public ClauseDatabase getClausesDatabase() {
+		ClauseDatabase res = new ClauseDatabase();
+		PropLogicUtils.getClauses(cnf, ClauseSink.of(res));
+		return res;
+	}
+}
@@ -0,0 +1,63 @@
+package es.etomas.logiccalc.bench;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import es.etomas.logiccalc.logicparsers.PrecedenceParser;
+import es.etomas.logiccalc.logicparsers.PropLogic;
+import es.etomas.logiccalc.logicparsers.StreamingParser;
+
+/**
+ * Measures the parsing of conjunctions of implications with ANTLR, with
+ * the hand-written {@link PrecedenceParser} and with the {@link StreamingParser}
+ * reading the text from a Reader. Conjunctions are right
+ * associative, so the ANTLR parser goes as deep as the number of clauses.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParseBenchmark {
+
+	@Param({"16", "64", "256", "1024"})
+	public int clauses;
+
+	private String text;
+	private final PrecedenceParser parser = new PrecedenceParser();
+
+	@Setup
+	public void setup() {
+		text = Formulas.randomText(new Random(clauses), clauses);
+	}
+
+	@Benchmark
+	public PropLogic parse() {
+		return PropLogic.parse(text);
+	}
+
+	@Benchmark
+	public PropLogic parsePrecedence() {
+		return parser.parse(text);
+	}
+
+	@Benchmark
+	public PropLogic parseStreaming() throws IOException {
+		return StreamingParser.parse(new StringReader(text));
+	}
+}
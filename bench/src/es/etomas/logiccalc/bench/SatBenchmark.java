@@ -0,0 +1,75 @@
+package es.etomas.logiccalc.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import es.etomas.logiccalc.functions.PropLogicUtils;
+import es.etomas.logiccalc.functions.SolverContext;
+import es.etomas.logiccalc.logicparsers.PropLogic;
+
+/**
+ * Measures resolution, DPLL and CDCL on the same random 3-SAT instances, with
+ * about half of them satisfiable. Each operation solves every instance, since
+ * the time of a single one depends too much on its luck.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SatBenchmark {
+
+	private static final int INSTANCES = 8;
+
+	@Param({"10", "20", "30"})
+	public int variables;
+
+	private List<Set<Set<PropLogic>>> instances;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(variables);
+		instances = new ArrayList<>();
+		for (int i = 0; i < INSTANCES; i++) {
+			instances.add(Formulas.random3Sat(random, variables, (int) (variables * Formulas.HARD_RATIO)));
+		}
+	}
+
+	@Benchmark
+	public void resolution(Blackhole blackhole) {
+		for (Set<Set<PropLogic>> clauses : instances) {
+			blackhole.consume(PropLogicUtils.resolution(clauses, SolverContext.untraced()));
+		}
+	}
+
+	@Benchmark
+	public void dpll(Blackhole blackhole) {
+		for (Set<Set<PropLogic>> clauses : instances) {
+			blackhole.consume(PropLogicUtils.dpll(clauses, SolverContext.untraced()));
+		}
+	}
+
+	@Benchmark
+	public void cdcl(Blackhole blackhole) {
+		for (Set<Set<PropLogic>> clauses : instances) {
+			blackhole.consume(PropLogicUtils.cdcl(clauses, SolverContext.untraced()));
+		}
+	}
+}
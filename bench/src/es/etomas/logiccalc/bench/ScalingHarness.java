@@ -0,0 +1,168 @@
+package es.etomas.logiccalc.bench;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.function.IntFunction;
+
+import es.etomas.logiccalc.functions.PropLogicUtils;
+import es.etomas.logiccalc.functions.SolverContext;
+import es.etomas.logiccalc.functions.TruthTable;
+import es.etomas.logiccalc.functions.Tracer;
+import es.etomas.logiccalc.logicparsers.PropLogic;
+
+/**
+ * Runs dpll, resolution, truth trees and truth tables on growing inputs of
+ * every kind in {@link Formulas}, and writes a CSV line per run with its time,
+ * the bytes it allocated and the peak heap. Algorithms that work on clauses
+ * get the equisatisfiable clauses of expressions. An algorithm stops growing
+ * on a kind of input after a run that reaches the time limit, runs out of
+ * memory or stack, or does not accept the input, so the last line of each
+ * curve shows where it stops being usable.
+ * <p>
+ * Run with the classes of the project and the ANTLR runtime in the classpath:
+ * {@code java es.etomas.logiccalc.bench.ScalingHarness [output.csv] [seconds] [seed]}
+ */
+public class ScalingHarness {
+
+	private static final int TREE_VARIABLES = 10;
+
+	private static final com.sun.management.ThreadMXBean THREADS =
+			(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+	private record Instance(PropLogic expression, Set<Set<PropLogic>> clauses) {
+
+		static Instance ofClauses(Set<Set<PropLogic>> clauses) {
+			return new Instance(Formulas.conjunction(clauses, clauses.size()), clauses);
+		}
+
+		static Instance ofExpression(PropLogic expression) {
+			return new Instance(expression, PropLogicUtils.getEquisatisfiableClauses(expression));
+		}
+	}
+
+	private record Workload(String name, int[] sizes, IntFunction<Instance> instance) {
+	}
+
+	private interface Algorithm {
+		String run(Instance instance, SolverContext context);
+	}
+
+	public static void main(String[] args) throws IOException {
+		Path output = Path.of(args.length > 0? args[0] : "scaling.csv");
+		Duration limit = Duration.ofSeconds(args.length > 1? Long.parseLong(args[1]) : 10);
+		long seed = args.length > 2? Long.parseLong(args[2]) : 1;
+
+		List<Workload> workloads = List.of(
+				new Workload("3-sat", new int[] {10, 20, 40, 80, 160},
+						size->Instance.ofClauses(Formulas.randomKSat(new Random(seed + size), 3, size,
+								Formulas.HARD_RATIO))),
+				new Workload("pigeonhole", new int[] {2, 3, 4, 5, 6, 7, 8},
+						size->Instance.ofClauses(Formulas.pigeonhole(size))),
+				new Workload("parity", new int[] {2, 4, 8, 16, 32, 64},
+						size->Instance.ofExpression(Formulas.parity(size))),
+				new Workload("tree", new int[] {2, 4, 6, 8, 10, 12, 14},
+						size->Instance.ofExpression(Formulas.randomTree(new Random(seed + size),
+								TREE_VARIABLES, size))));
+
+		Map<String, Algorithm> algorithms = new LinkedHashMap<>();
+		algorithms.put("dpll", (instance, context)->
+				result(PropLogicUtils.dpll(instance.clauses(), context)));
+		algorithms.put("resolution", (instance, context)->
+				result(PropLogicUtils.resolution(instance.clauses(), context)));
+		//Truth trees keep closed branches, which have complementary atoms
+		algorithms.put("truthTree", (instance, context)->
+				result(PropLogicUtils.truthTree(Set.of(instance.expression()), context).stream()
+						.anyMatch(branch->branch.stream()
+								.noneMatch(atom->branch.contains(atom.getComplementary())))));
+		algorithms.put("truthTable", ScalingHarness::truthTable);
+
+		try (PrintWriter csv = new PrintWriter(Files.newBufferedWriter(output))) {
+			line(csv, "algorithm,workload,size,variables,clauses,result,ms,allocated_bytes,peak_heap_bytes");
+			for (Workload workload : workloads) {
+				for (Map.Entry<String, Algorithm> algorithm : algorithms.entrySet()) {
+					curve(csv, workload, algorithm.getKey(), algorithm.getValue(), limit);
+				}
+			}
+		}
+	}
+
+	private static void curve(PrintWriter csv, Workload workload, String name, Algorithm algorithm,
+			Duration limit) {
+		boolean usable = true;
+		for (int i = 0; usable && i < workload.sizes().length; i++) {
+			int size = workload.sizes()[i];
+			Instance instance = workload.instance().apply(size);
+			long variables = PropLogicUtils.atomSet(instance.expression()).stream()
+					.map(PropLogic::getPositive)
+					.distinct()
+					.count();
+
+			System.gc();
+			List<MemoryPoolMXBean> heap = ManagementFactory.getMemoryPoolMXBeans().stream()
+					.filter(pool->pool.getType() == MemoryType.HEAP)
+					.toList();
+			heap.forEach(MemoryPoolMXBean::resetPeakUsage);
+			long allocated = THREADS.getCurrentThreadAllocatedBytes();
+			long start = System.nanoTime();
+
+			String result;
+			try {
+				result = algorithm.run(instance, new SolverContext(Tracer.OFF, Long.MAX_VALUE, limit));
+			} catch (CancellationException e) {
+				result = "timeout";
+			} catch (IllegalArgumentException e) {
+				result = "unsupported";
+			} catch (OutOfMemoryError e) {
+				result = "out of memory";
+			} catch (StackOverflowError e) {
+				result = "stack overflow";
+			}
+
+			long time = System.nanoTime() - start;
+			allocated = THREADS.getCurrentThreadAllocatedBytes() - allocated;
+			long peak = heap.stream()
+					.mapToLong(pool->pool.getPeakUsage().getUsed())
+					.sum();
+
+			line(csv, name + "," + workload.name() + "," + size + "," + variables + "," +
+					instance.clauses().size() + "," + result + "," + time / 1_000_000 + "," +
+					allocated + "," + peak);
+			usable = result.equals("sat") || result.equals("unsat");
+		}
+	}
+
+	/**
+	 * Calculates the truth table of the expression and gets whether it has any
+	 * true row. The table is not traced, and it cannot be stopped while it is
+	 * calculated, so the time limit of the context is checked once it is done.
+	 */
+	private static String truthTable(Instance instance, SolverContext limits) {
+		boolean satisfiable = TruthTable.of(instance.expression()).isSatisfiable();
+		if(limits.getElapsed().compareTo(limits.getTimeout()) > 0) {
+			throw new CancellationException("Time limit of " + limits.getTimeout() + " reached");
+		}
+		return result(satisfiable);
+	}
+
+	private static String result(Boolean satisfiable) {
+		return satisfiable? "sat" : "unsat";
+	}
+
+	private static void line(PrintWriter csv, String line) {
+		csv.println(line);
+		csv.flush();
+		System.out.println(line);
+	}
+}
@@ -0,0 +1,105 @@
+package es.etomas.logiccalc.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import es.etomas.logiccalc.functions.PropLogicUtils;
+import es.etomas.logiccalc.functions.SolverContext;
+import es.etomas.logiccalc.functions.Tracer;
+import es.etomas.logiccalc.logicparsers.PropLogic;
+
+/**
+ * Measures DPLL, resolution and truth trees on random 3-SAT clause sets with
+ * tracing off, with the events kept without rendering them, and with every
+ * event rendered as it happens, which is what eager explanations cost. The
+ * time with tracing off should match the time of the algorithm alone. Truth
+ * trees only use the first clauses of each set, since they never close
+ * branches.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TraceBenchmark {
+
+	private static final int INSTANCES = 8;
+	//Clauses of each instance in the truth tree, which never closes branches
+	private static final int TREE_CLAUSES = 4;
+
+	@Param({"10", "20"})
+	public int variables;
+
+	@Param({"off", "kept", "rendered"})
+	public String tracing;
+
+	private List<Set<Set<PropLogic>>> instances;
+	private List<PropLogic> trees;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(variables);
+		instances = new ArrayList<>();
+		trees = new ArrayList<>();
+		for (int i = 0; i < INSTANCES; i++) {
+			Set<Set<PropLogic>> clauses = Formulas.random3Sat(random, variables, (int) (variables * Formulas.HARD_RATIO));
+			instances.add(clauses);
+			trees.add(Formulas.conjunction(clauses, TREE_CLAUSES));
+		}
+	}
+
+	@Benchmark
+	public void dpll(Blackhole blackhole) {
+		SolverContext context = new SolverContext(tracer(blackhole));
+		for (Set<Set<PropLogic>> clauses : instances) {
+			blackhole.consume(PropLogicUtils.dpll(clauses, context));
+		}
+	}
+
+	@Benchmark
+	public void resolution(Blackhole blackhole) {
+		SolverContext context = new SolverContext(tracer(blackhole));
+		for (Set<Set<PropLogic>> clauses : instances) {
+			blackhole.consume(PropLogicUtils.resolution(clauses, context));
+		}
+	}
+
+	@Benchmark
+	public void truthTree(Blackhole blackhole) {
+		SolverContext context = new SolverContext(tracer(blackhole));
+		for (PropLogic tree : trees) {
+			blackhole.consume(PropLogicUtils.truthTree(Set.of(tree), context));
+		}
+	}
+
+	//Events go to the blackhole, so neither they nor their texts are left unused
+	private Tracer tracer(Blackhole blackhole) {
+		Tracer res;
+		switch (tracing) {
+		case "kept": res = Tracer.of(blackhole::consume);
+			break;
+		case "rendered": res = Tracer.of(event->blackhole.consume(event.render()));
+			break;
+		default: res = Tracer.OFF;
+			break;
+		}
+		return res;
+	}
+}
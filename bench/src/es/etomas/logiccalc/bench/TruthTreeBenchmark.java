@@ -0,0 +1,69 @@
+package es.etomas.logiccalc.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import es.etomas.logiccalc.functions.PropLogicUtils;
+import es.etomas.logiccalc.functions.SolverContext;
+import es.etomas.logiccalc.logicparsers.PropLogic;
+
+/**
+ * Measures truth trees and the depth-first tableau on conjunctions of a few
+ * random 3 literal clauses over 10 variables. Truth trees keep every branch,
+ * so they grow with 3 to the number of clauses.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TruthTreeBenchmark {
+
+	private static final int INSTANCES = 8;
+	private static final int VARIABLES = 10;
+
+	@Param({"2", "4", "6"})
+	public int clauses;
+
+	private List<PropLogic> instances;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(clauses);
+		instances = new ArrayList<>();
+		for (int i = 0; i < INSTANCES; i++) {
+			instances.add(Formulas.conjunction(Formulas.random3Sat(random, VARIABLES, clauses), clauses));
+		}
+	}
+
+	@Benchmark
+	public void truthTree(Blackhole blackhole) {
+		for (PropLogic input : instances) {
+			blackhole.consume(PropLogicUtils.truthTree(Set.of(input), SolverContext.untraced()));
+		}
+	}
+
+	@Benchmark
+	public void tableau(Blackhole blackhole) {
+		for (PropLogic input : instances) {
+			blackhole.consume(PropLogicUtils.tableau(input, SolverContext.untraced()));
+		}
+	}
+}
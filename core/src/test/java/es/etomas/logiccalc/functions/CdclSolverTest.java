@@ -0,0 +1,105 @@
+package es.etomas.logiccalc.functions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import es.etomas.logiccalc.functions.CdclSolver.RestartPolicy;
+import es.etomas.logiccalc.logicparsers.PropLogic;
+
+class CdclSolverTest {
+
+	@Test
+	void agreesWithTruthTables() {
+		Random random = new Random(6);
+		for (int i = 0; i < 300; i++) {
+			Set<Set<PropLogic>> clauses = RandomFormulas.clauses(random, 6, 10 + random.nextInt(20), 3);
+			Map<String, Boolean> model = CdclSolver.solve(clauses);
+			assertEquals(RandomFormulas.isSatisfiable(clauses), model != null, clauses::toString);
+			if(model != null) {
+				for (Set<PropLogic> clause : clauses) {
+					assertTrue(clause.stream().anyMatch(atom->model.get(atom.getLabel()) != atom.isNegated()),
+							()->"Unsatisfied clause " + clause);
+				}
+			}
+		}
+	}
+
+	@ParameterizedTest
+	@EnumSource(RestartPolicy.class)
+	void satisfiesRandom3Sat(RestartPolicy policy) {
+		Random random = new Random(3);
+		int variables = 200;
+		int[][] clauses = new int[3 * variables][];
+		for (int c = 0; c < clauses.length; c++) {
+			clauses[c] = new int[3];
+			for (int i = 0; i < 3; i++) {
+				clauses[c][i] = (1 + random.nextInt(variables)) * (random.nextBoolean()? 1 : -1);
+			}
+		}
+		CdclSolver solver = new CdclSolver(policy);
+		for (int[] clause : clauses) {
+			solver.addClause(clause);
+		}
+		assertTrue(solver.solve());
+		for (int[] clause : clauses) {
+			boolean satisfied = false;
+			for (int literal : clause) {
+				satisfied |= solver.modelValue(Math.abs(literal)) == literal > 0;
+			}
+			assertTrue(satisfied);
+		}
+	}
+
+	@ParameterizedTest
+	@EnumSource(RestartPolicy.class)
+	void provesPigeonholeInconsistent(RestartPolicy policy) {
+		CdclSolver solver = new CdclSolver(policy);
+		for (int[] clause : RandomFormulas.pigeonhole(6)) {
+			solver.addClause(clause);
+		}
+		assertFalse(solver.solve());
+		assertTrue(solver.getConflicts() > 0);
+	}
+
+	@Test
+	void keepsClausesBetweenCalls() {
+		CdclSolver solver = new CdclSolver();
+		solver.addClause(1, 2);
+		solver.addClause(-1, 2);
+		assertTrue(solver.solve());
+		assertTrue(solver.modelValue(2));
+		assertFalse(solver.addClause(-2));
+		assertFalse(solver.solve());
+		assertThrows(IllegalStateException.class, solver::getModel);
+	}
+
+	@Test
+	void handlesEmptyAndTautologicalClauses() {
+		assertNotNull(CdclSolver.solve(new int[][] {{1, -1}, {2}}));
+		assertNull(CdclSolver.solve(new int[][] {{1}, {}}));
+		assertThrows(IllegalArgumentException.class, ()->new CdclSolver().addClause(1, 0));
+	}
+
+	@Test
+	void stopsAtTheLimitOfTheContext() {
+		CdclSolver solver = new CdclSolver();
+		for (int[] clause : RandomFormulas.pigeonhole(8)) {
+			solver.addClause(clause);
+		}
+		assertThrows(CancellationException.class, ()->solver.solve(new SolverContext(Tracer.OFF, 10, null)));
+		assertFalse(solver.solve());
+	}
+}
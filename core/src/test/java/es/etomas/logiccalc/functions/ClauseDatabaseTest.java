@@ -0,0 +1,59 @@
+package es.etomas.logiccalc.functions;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import es.etomas.logiccalc.logicparsers.PropLogic;
+
+class ClauseDatabaseTest {
+
+	@Test
+	void keepsClausesOfAtoms() {
+		Set<Set<PropLogic>> clauses = RandomFormulas.clauses(new Random(7), 10, 50, 4);
+		ClauseDatabase database = ClauseDatabase.of(clauses);
+		assertEquals(clauses, database.toPropLogic());
+		assertEquals(clauses.stream().mapToInt(Set::size).sum(), database.getLiteralCount());
+	}
+
+	@Test
+	void addsRangesOfBuffers() {
+		ClauseDatabase database = new ClauseDatabase();
+		int[] buffer = {9, 1, -2, 3, 9};
+		database.addClauseRange(buffer, 1, 4);
+		assertArrayEquals(new int[] {1, -2, 3}, database.getClause(0));
+		assertEquals(3, database.getVariableCount());
+	}
+
+	@Test
+	void leavesNothingOfRejectedClauses() {
+		ClauseDatabase database = new ClauseDatabase();
+		database.addClause(1, 2);
+		assertThrows(IllegalArgumentException.class, ()->database.addClause(3, 0, 4));
+		database.addClause(5);
+
+		assertEquals(2, database.getClauseCount());
+		assertArrayEquals(new int[] {1, 2}, database.getClause(0));
+		assertArrayEquals(new int[] {5}, database.getClause(1));
+		assertEquals(3, database.getLiteralCount());
+		assertEquals(5, database.getVariableCount());
+		assertEquals(0, database.occurrenceCount(3));
+	}
+
+	@Test
+	void countsOccurrences() {
+		ClauseDatabase database = new ClauseDatabase();
+		database.addClause(1, -2);
+		database.addClause(-2, 3);
+		database.addClause(2);
+		assertEquals(2, database.occurrenceCount(-2));
+		assertEquals(0, database.occurrence(-2, 0));
+		assertEquals(1, database.occurrence(-2, 1));
+		assertEquals(1, database.occurrenceCount(2));
+	}
+}
@@ -0,0 +1,170 @@
+package es.etomas.logiccalc.functions;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DimacsCnfTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void readsBackWhatItWrites() throws IOException {
+		ClauseDatabase database = ClauseDatabase.of(RandomFormulas.clauses(new Random(8), 40, 300, 5));
+		Path file = directory.resolve("random.cnf");
+		DimacsCnf.write(database, file);
+
+		assertSameClauses(database, DimacsCnf.read(file));
+		assertSameClauses(database, DimacsCnf.read(Files.newInputStream(file)));
+	}
+
+	@Test
+	void readsCompressedFiles() throws IOException {
+		ClauseDatabase database = ClauseDatabase.of(RandomFormulas.clauses(new Random(9), 10, 30, 3));
+		Path file = directory.resolve("random.cnf.gz");
+		try(OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+			DimacsCnf.write(database, out);
+		}
+		assertSameClauses(database, DimacsCnf.read(file));
+	}
+
+	@Test
+	void writesOnlyExplicitLabels() throws IOException {
+		ClauseDatabase database = new ClauseDatabase();
+		int a = database.addVariable("a");
+		int auxiliary = database.addVariable(null);
+		database.addClause(a, -auxiliary);
+
+		ClauseDatabase read = read(write(database));
+		assertEquals("a", read.getLabel(a));
+		assertFalse(read.hasLabel(auxiliary));
+	}
+
+	@Test
+	void acceptsCommentsAndWhitespace() {
+		ClauseDatabase database = read("c first\n  c indented\np cnf 3 2\n\tc var 1 a\n 1 -2\n 0  \r\n  3 0\n");
+		assertEquals(3, database.getVariableCount());
+		assertEquals(2, database.getClauseCount());
+		assertEquals("a", database.getLabel(1));
+		assertEquals(2, database.clauseSize(0));
+	}
+
+	@Test
+	void rejectsLabelsOfUndeclaredVariables() {
+		for (String variable : new String[] {"0", "-2", "4"}) {
+			assertThrows(IllegalArgumentException.class, ()->read("p cnf 3 1\nc var " + variable + " a\n1 0\n"));
+		}
+		//Before the header they are only comments
+		assertFalse(read("c var 1 a\np cnf 3 1\n1 0\n").hasLabel(1));
+	}
+
+	@Test
+	void doesNotTrustHeaderCounts() throws IOException {
+		Path file = directory.resolve("header.cnf");
+		Files.writeString(file, "p cnf 3 2000000000\n1 0\n");
+		assertEquals(1, DimacsCnf.read(file).getClauseCount());
+		assertEquals(1, read("p cnf 3 2000000000\n1 0\n").getClauseCount());
+		assertEquals(2_000_000_000, read("p cnf 2000000000 1\n1 0\n").getVariableCount());
+	}
+
+	@Test
+	void rejectsInvalidText() {
+		for (String text : new String[] {"p cnf -3 1\n1 0\n", "p cnf 3\n1 0\n", "p cnf 3 1\n1 x 0\n",
+				"p cnf 3 1\n- 0\n", "p cnf 3 1\n99999999999 0\n"}) {
+			assertThrows(IllegalArgumentException.class, ()->read(text), text);
+		}
+	}
+
+	@Test
+	void fillsInTheHeaderOfChannels() throws IOException {
+		Locale locale = Locale.getDefault();
+		//Digits of the header must stay ASCII whatever the locale
+		Locale.setDefault(Locale.forLanguageTag("th-TH-u-nu-thai"));
+		Path file = directory.resolve("channel.cnf");
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+				DimacsWriter writer = new DimacsWriter(channel)) {
+			writer.label(1, "a");
+			writer.addClause(1, -2);
+			writer.addClause(7);
+		} finally {
+			Locale.setDefault(locale);
+		}
+
+		ClauseDatabase database = DimacsCnf.read(file);
+		assertEquals(7, database.getVariableCount());
+		assertEquals(2, database.getClauseCount());
+		assertEquals("a", database.getLabel(1));
+	}
+
+	@Test
+	void checksTheDeclaredCounts() throws IOException {
+		DimacsWriter writer = new DimacsWriter(new ByteArrayOutputStream(), 2, 2);
+		assertThrows(IllegalArgumentException.class, ()->writer.addClause(3));
+		writer.addClause(1, 2);
+		assertThrows(IllegalStateException.class, writer::close);
+	}
+
+	@Test
+	void leavesNothingOfRejectedClauses() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try(DimacsWriter writer = new DimacsWriter(out, 3, 2)) {
+			writer.addClause(1, 2);
+			assertThrows(IllegalArgumentException.class, ()->writer.addClause(3, 0, 1));
+			assertThrows(IllegalArgumentException.class, ()->writer.addClause(-1, 4));
+			writer.addClause(-3);
+		}
+		ClauseDatabase database = read(out.toString(StandardCharsets.UTF_8));
+		assertEquals(2, database.getClauseCount());
+		assertArrayEquals(new int[] {1, 2}, database.getClause(0));
+		assertArrayEquals(new int[] {-3}, database.getClause(1));
+
+		Path file = directory.resolve("rejected.cnf");
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+				DimacsWriter writer = new DimacsWriter(channel)) {
+			writer.addClause(1);
+			assertThrows(IllegalArgumentException.class, ()->writer.addClause(9, 0));
+		}
+		assertEquals(1, DimacsCnf.read(file).getVariableCount());
+	}
+
+	private static String write(ClauseDatabase database) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		DimacsCnf.write(database, out);
+		return out.toString(StandardCharsets.UTF_8);
+	}
+
+	private static ClauseDatabase read(String text) {
+		try {
+			return DimacsCnf.read(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)));
+		} catch (IOException e) {
+			throw new AssertionError(e);
+		}
+	}
+
+	private static void assertSameClauses(ClauseDatabase expected, ClauseDatabase actual) {
+		assertEquals(expected.getVariableCount(), actual.getVariableCount());
+		assertEquals(expected.getClauseCount(), actual.getClauseCount());
+		for (int c = 0; c < expected.getClauseCount(); c++) {
+			assertArrayEquals(expected.getClause(c), actual.getClause(c), "Clause " + c);
+		}
+		assertEquals(expected.toPropLogic(), actual.toPropLogic());
+	}
+}
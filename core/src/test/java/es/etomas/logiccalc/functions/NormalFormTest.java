@@ -0,0 +1,128 @@
+package es.etomas.logiccalc.functions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import es.etomas.logiccalc.logicparsers.PropLogic;
+import es.etomas.logiccalc.logicparsers.PropLogic.LogicType;
+
+/**
+ * Tests of the conversions of {@link PropLogicUtils} into clauses: the CNF
+ * by the distribution law and the equisatisfiable clauses.
+ */
+class NormalFormTest {
+
+	@Test
+	void convertsToEquivalentCnf() {
+		Random random = new Random(10);
+		for (int i = 0; i < 300; i++) {
+			PropLogic expression = RandomFormulas.expression(random, 5, 4);
+			PropLogic cnf = PropLogicUtils.toCNF(expression);
+			assertTrue(PropLogicUtils.isCNF(cnf), cnf::toString);
+
+			TruthTable table = TruthTable.of(expression);
+			for (long row = 0; row < table.getRowCount(); row++) {
+				Map<String, Boolean> values = new HashMap<>();
+				boolean[] assignment = table.getAssignment(row);
+				for (int j = 0; j < assignment.length; j++) {
+					values.put(table.getVariables().get(j), assignment[j]);
+				}
+				assertEquals(table.get(row), cnf.eval(values), ()->expression + " and " + cnf);
+			}
+			assertSame(cnf, PropLogicUtils.toCNF(cnf));
+		}
+	}
+
+	/**
+	 * Expressions know whether they are in CNF since they are built, which must
+	 * agree with checking their whole shape.
+	 */
+	@Test
+	void knowsTheShapeOfExpressions() {
+		Random random = new Random(100);
+		for (int i = 0; i < 300; i++) {
+			PropLogic expression = RandomFormulas.expression(random, 4, 4);
+			for (PropLogic part : expression) {
+				assertEquals(isClause(part), part.isClause(), part::toString);
+				assertEquals(isCnf(part), PropLogicUtils.isCNF(part), part::toString);
+			}
+		}
+
+		PropLogic a = RandomFormulas.atom(0, false);
+		PropLogic b = RandomFormulas.atom(1, true);
+		PropLogic clause = PropLogic.ofOp(a, LogicType.DISJUNCTION, b);
+		PropLogic conjunction = PropLogic.ofOp(clause, LogicType.CONJUNCTION, a);
+		assertTrue(conjunction.isCNF());
+		assertFalse(conjunction.getComplementary().isCNF());
+		assertFalse(PropLogic.ofOp(conjunction, LogicType.DISJUNCTION, b).isCNF());
+		assertFalse(PropLogic.ofOp(a, LogicType.IMPLICATION, b).isCNF());
+		assertTrue(clause.isClause());
+		assertFalse(clause.getComplementary().isCNF());
+	}
+
+	@Test
+	void getsTheClausesOfTheCnf() {
+		Random random = new Random(11);
+		for (int i = 0; i < 100; i++) {
+			PropLogic expression = RandomFormulas.expression(random, 5, 4);
+			Set<Set<PropLogic>> clauses = PropLogicUtils.getClauses(expression);
+			assertEquals(TruthTable.of(expression).isSatisfiable(), RandomFormulas.isSatisfiable(clauses),
+					expression::toString);
+		}
+	}
+
+	/**
+	 * The clauses have auxiliary variables, so they are only compared by
+	 * satisfiability, even for atoms named like those variables.
+	 */
+	@Test
+	void getsEquisatisfiableClauses() {
+		Random random = new Random(12);
+		PropLogic t1 = PropLogic.ofAtom("_t1", false);
+		for (int i = 0; i < 300; i++) {
+			PropLogic expression = RandomFormulas.expression(random, 5, 5);
+			if(i % 3 == 0) {
+				expression = PropLogic.ofOp(expression, LogicType.BICONDITIONAL, t1);
+			}
+			PropLogic input = expression;
+			Set<Set<PropLogic>> clauses = PropLogicUtils.getEquisatisfiableClauses(input);
+			Map<String, Boolean> solution = CdclSolver.solve(clauses);
+			assertEquals(TruthTable.of(input).isSatisfiable(), solution != null, input::toString);
+			if(solution != null) {
+				Map<String, Boolean> model = new HashMap<>(solution);
+				for (PropLogic atom : PropLogicUtils.atomSet(input)) {
+					model.putIfAbsent(atom.getLabel(), false);
+				}
+				assertTrue(input.eval(model), input::toString);
+			}
+		}
+	}
+
+	@Test
+	void keepsExpressionsAlreadyInCnf() {
+		Set<Set<PropLogic>> clauses = RandomFormulas.clauses(new Random(13), 6, 20, 3);
+		PropLogic conjunction = RandomFormulas.conjunction(clauses);
+		assertSame(conjunction, PropLogicUtils.toCNF(conjunction));
+		assertEquals(clauses, PropLogicUtils.getClauses(conjunction));
+	}
+
+	//Reference definitions of the shapes, checking the whole expression
+	private static boolean isClause(PropLogic expression) {
+		return expression.isAtom() || (expression.getType() == LogicType.DISJUNCTION && !expression.isNegated() &&
+				isClause(expression.getLeft()) && isClause(expression.getRight()));
+	}
+
+	private static boolean isCnf(PropLogic expression) {
+		return isClause(expression) || (expression.getType() == LogicType.CONJUNCTION && !expression.isNegated() &&
+				isCnf(expression.getLeft()) && isCnf(expression.getRight()));
+	}
+}
@@ -0,0 +1,130 @@
+package es.etomas.logiccalc.functions;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.Set;
+
+import es.etomas.logiccalc.logicparsers.PropLogic;
+import es.etomas.logiccalc.logicparsers.PropLogic.LogicType;
+
+/**
+ * Small random inputs for the tests of the algorithms, with few enough
+ * variables for a truth table to be the reference. The same {@link Random}
+ * always gives the same inputs.
+ */
+final class RandomFormulas {
+
+	private static final LogicType[] OPERATIONS = {LogicType.CONJUNCTION, LogicType.DISJUNCTION,
+			LogicType.IMPLICATION, LogicType.BICONDITIONAL};
+
+	private RandomFormulas() {
+	}
+
+	static PropLogic atom(int variable, boolean negated) {
+		return PropLogic.ofAtom("v" + variable, negated);
+	}
+
+	/**
+	 * Builds a random expression.
+	 * @param random The source of the expression
+	 * @param variables The number of variables, named v0, v1...
+	 * @param depth The maximum depth of the operations
+	 * @return The expression
+	 */
+	static PropLogic expression(Random random, int variables, int depth) {
+		PropLogic res;
+		if(depth == 0 || random.nextInt(4) == 0) {
+			res = atom(random.nextInt(variables), random.nextBoolean());
+		} else {
+			res = PropLogic.ofOp(expression(random, variables, depth - 1),
+					OPERATIONS[random.nextInt(OPERATIONS.length)],
+					expression(random, variables, depth - 1));
+			if(random.nextInt(4) == 0) {
+				res = res.getComplementary();
+			}
+		}
+		return res;
+	}
+
+	/**
+	 * Builds random clauses of up to a number of literals, with distinct
+	 * variables in each one.
+	 * @param random The source of the clauses
+	 * @param variables The number of variables, named v0, v1...
+	 * @param clauses The number of clauses, fewer if some come out the same
+	 * @param width The maximum number of literals of a clause
+	 * @return The clauses
+	 */
+	static Set<Set<PropLogic>> clauses(Random random, int variables, int clauses, int width) {
+		Set<Set<PropLogic>> res = new HashSet<>();
+		for (int i = 0; i < clauses; i++) {
+			Set<Integer> chosen = new HashSet<>();
+			int size = 1 + random.nextInt(width);
+			while(chosen.size() < size) {
+				chosen.add(random.nextInt(variables));
+			}
+			Set<PropLogic> clause = new HashSet<>();
+			for (int variable : chosen) {
+				clause.add(atom(variable, random.nextBoolean()));
+			}
+			res.add(clause);
+		}
+		return res;
+	}
+
+	/**
+	 * Joins clauses into an expression in CNF.
+	 * @param clauses The clauses, none of them empty
+	 * @return The conjunction of the disjunctions of the clauses
+	 */
+	static PropLogic conjunction(Set<Set<PropLogic>> clauses) {
+		PropLogic res = null;
+		for (Set<PropLogic> clause : clauses) {
+			Iterator<PropLogic> atoms = clause.iterator();
+			PropLogic disjunction = atoms.next();
+			while(atoms.hasNext()) {
+				disjunction = PropLogic.ofOp(disjunction, LogicType.DISJUNCTION, atoms.next());
+			}
+			res = res == null? disjunction : PropLogic.ofOp(res, LogicType.CONJUNCTION, disjunction);
+		}
+		return res;
+	}
+
+	/**
+	 * Checks whether clauses are satisfiable with a truth table.
+	 * @param clauses The clauses, none of them empty
+	 * @return Whether some assignment satisfies every clause
+	 */
+	static boolean isSatisfiable(Set<Set<PropLogic>> clauses) {
+		return clauses.isEmpty() || TruthTable.of(conjunction(clauses)).isSatisfiable();
+	}
+
+	/**
+	 * Builds the clauses of the pigeonhole principle, which are inconsistent
+	 * and hard for resolution.
+	 * @param holes The number of holes, with one more pigeon
+	 * @return The clauses with DIMACS literals, variable p * holes + h + 1
+	 * meaning that pigeon p is in hole h
+	 */
+	static int[][] pigeonhole(int holes) {
+		int pigeons = holes + 1;
+		int[][] res = new int[pigeons + holes * pigeons * (pigeons - 1) / 2][];
+		int count = 0;
+		for (int p = 0; p < pigeons; p++) {
+			res[count] = new int[holes];
+			for (int h = 0; h < holes; h++) {
+				res[count][h] = p * holes + h + 1;
+			}
+			count++;
+		}
+		for (int h = 0; h < holes; h++) {
+			for (int p = 0; p < pigeons; p++) {
+				for (int q = p + 1; q < pigeons; q++) {
+					res[count++] = new int[] {-(p * holes + h + 1), -(q * holes + h + 1)};
+				}
+			}
+		}
+		return res;
+	}
+}
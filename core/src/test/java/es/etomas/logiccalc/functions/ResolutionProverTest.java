@@ -0,0 +1,133 @@
+package es.etomas.logiccalc.functions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import es.etomas.logiccalc.logicparsers.PropLogic;
+
+class ResolutionProverTest {
+
+	@Test
+	void agreesWithTruthTables() {
+		Random random = new Random(12);
+		for (int i = 0; i < 200; i++) {
+			Set<Set<PropLogic>> clauses = RandomFormulas.clauses(random, 5, 8 + random.nextInt(12), 3);
+			assertEquals(RandomFormulas.isSatisfiable(clauses),
+					ResolutionProver.isSatisfiable(ClauseDatabase.of(clauses)), clauses::toString);
+		}
+	}
+
+	@Test
+	void provesPigeonholeInconsistent() {
+		ResolutionProver prover = new ResolutionProver(database(RandomFormulas.pigeonhole(3)), SolverContext.untraced());
+		assertFalse(prover.prove());
+		assertTrue(prover.getResolventCount() > 0);
+	}
+
+	@Test
+	void handlesEmptySets() {
+		assertTrue(ResolutionProver.isSatisfiable(new ClauseDatabase()));
+		assertFalse(ResolutionProver.isSatisfiable(database(new int[][] {{1, 2}, {}})));
+	}
+
+	@Test
+	void tracesTheResult() {
+		List<TraceEvent> events = new ArrayList<>();
+		SolverContext context = new SolverContext(Tracer.of(events::add));
+		assertFalse(new ResolutionProver(database(new int[][] {{1}, {-1}}), context).prove());
+		assertEquals(new TraceEvent.Message("Encountered empty clause. Clause set is inconsistent"),
+				events.get(events.size() - 1));
+	}
+
+	/**
+	 * Resolvents built in a pool are queued in the same order as in the
+	 * calling thread, so the proof must be the same step by step.
+	 */
+	@Test
+	void provesTheSameInParallel() {
+		AtomicInteger threads = new AtomicInteger();
+		ForkJoinPool pool = new ForkJoinPool(4, p->{
+			threads.incrementAndGet();
+			return ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+		}, null, false);
+		try {
+			Random random = new Random(14);
+			List<ClauseDatabase> databases = new ArrayList<>();
+			for (int i = 0; i < 10; i++) {
+				databases.add(random3Sat(random, 20, 85));
+			}
+			//Large enough for some given clauses to have their resolvents built in the pool
+			databases.add(database(RandomFormulas.pigeonhole(4)));
+
+			for (ClauseDatabase database : databases) {
+				List<String> sequentialSteps = new ArrayList<>();
+				List<String> parallelSteps = new ArrayList<>();
+				ResolutionProver sequential = new ResolutionProver(database,
+						new SolverContext(Tracer.of(event->sequentialSteps.add(event.render()))));
+				ResolutionProver parallel = new ResolutionProver(database,
+						new SolverContext(Tracer.of(event->parallelSteps.add(event.render()))), pool);
+
+				assertEquals(sequential.prove(), parallel.prove());
+				assertEquals(sequential.getResolventCount(), parallel.getResolventCount());
+				assertEquals(sequential.getSubsumedCount(), parallel.getSubsumedCount());
+				assertEquals(sequential.getProcessedCount(), parallel.getProcessedCount());
+				assertEquals(sequentialSteps, parallelSteps);
+			}
+			assertTrue(threads.get() > 0, "The pool was not used");
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	void stopsAtTheLimitOfTheContext() {
+		SolverContext context = new SolverContext(Tracer.OFF, 5, null);
+		ResolutionProver prover = new ResolutionProver(database(RandomFormulas.pigeonhole(4)), context);
+		assertThrows(CancellationException.class, prover::prove);
+	}
+
+	private static ClauseDatabase database(int[][] clauses) {
+		ClauseDatabase res = new ClauseDatabase();
+		for (int[] clause : clauses) {
+			res.addClause(clause);
+		}
+		return res;
+	}
+
+	//Clauses of 3 distinct variables
+	private static ClauseDatabase random3Sat(Random random, int variables, int clauses) {
+		ClauseDatabase res = new ClauseDatabase();
+		for (int c = 0; c < clauses; c++) {
+			int[] clause = new int[3];
+			for (int i = 0; i < 3; i++) {
+				int variable;
+				do {
+					variable = 1 + random.nextInt(variables);
+				} while(contains(clause, i, variable));
+				clause[i] = random.nextBoolean()? variable : -variable;
+			}
+			res.addClause(clause);
+		}
+		return res;
+	}
+
+	private static boolean contains(int[] clause, int size, int variable) {
+		boolean res = false;
+		for (int i = 0; i < size && !res; i++) {
+			res = Math.abs(clause[i]) == variable;
+		}
+		return res;
+	}
+}
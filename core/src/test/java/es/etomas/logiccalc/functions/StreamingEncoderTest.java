@@ -0,0 +1,115 @@
+package es.etomas.logiccalc.functions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import es.etomas.logiccalc.logicparsers.PropLogic;
+import es.etomas.logiccalc.logicparsers.StreamingParser;
+
+class StreamingEncoderTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void givesTheClausesOfCnfTexts() throws IOException {
+		Random random = new Random(24);
+		for (int i = 0; i < 50; i++) {
+			Set<Set<PropLogic>> clauses = RandomFormulas.clauses(random, 8, 30, 4);
+			String text = RandomFormulas.conjunction(clauses).toString();
+
+			Set<Set<PropLogic>> given = new HashSet<>();
+			int count = StreamingParser.parse(new StringReader(text), StreamingEncoder.clauses(ClauseSink.of(given::add)));
+			assertEquals(clauses.size(), count);
+			assertEquals(clauses, given);
+		}
+	}
+
+	@Test
+	void removesRepeatedAtomsOfClauses() throws IOException {
+		ClauseDatabase database = new ClauseDatabase();
+		StreamingParser.parse(new StringReader("(a or !b or a) and ((c))"),
+				StreamingEncoder.clauses(ClauseSink.of(database)));
+		assertEquals(2, database.getClauseCount());
+		assertEquals(3, database.getLiteralCount());
+	}
+
+	@Test
+	void givesClausesInTheOrderOfTheText() throws IOException {
+		List<String> given = new ArrayList<>();
+		StreamingParser.parse(new StringReader("(a or b) and c and (d and (e or !f)) and g"),
+				StreamingEncoder.clauses(clause->given.add(clause.toString())));
+		assertEquals(List.of("[a, b]", "[c]", "[d]", "[e, !f]", "[g]"), given);
+	}
+
+	@Test
+	void rejectsTextsNotInCnf() {
+		for (String text : new String[] {"a -> b", "!(a or b)", "a or (b and c)", "(a <-> b) and c"}) {
+			assertEquals("The expression is not in CNF", assertThrows(IllegalArgumentException.class,
+					()->StreamingParser.parse(new StringReader(text), StreamingEncoder.clauses(clause->{}))).getMessage());
+		}
+	}
+
+	/**
+	 * Every operation gets a variable defined by both implications, so the
+	 * clauses are satisfiable exactly when the expression is, and the atoms of
+	 * any model satisfy it.
+	 */
+	@Test
+	void encodesEquisatisfiableClauses() throws IOException {
+		Random random = new Random(42);
+		for (int i = 0; i < 300; i++) {
+			PropLogic expression = RandomFormulas.expression(random, 5, 5);
+			ClauseDatabase database = new ClauseDatabase();
+			int root = StreamingParser.parse(new StringReader(expression.toString()), StreamingEncoder.tseitin(database));
+
+			int[] model = CdclSolver.solve(database);
+			assertEquals(TruthTable.of(expression).isSatisfiable(), model != null, expression::toString);
+			if(model != null) {
+				assertTrue(model[Math.abs(root) - 1] == root);
+				Map<String, Boolean> values = new HashMap<>();
+				for (PropLogic atom : PropLogicUtils.atomSet(expression)) {
+					values.put(atom.getLabel(), model[database.variable(atom.getLabel()) - 1] > 0);
+				}
+				assertTrue(expression.eval(values), expression::toString);
+			}
+		}
+	}
+
+	@Test
+	void writesDimacs() throws IOException {
+		Random random = new Random(7);
+		for (int i = 0; i < 20; i++) {
+			PropLogic expression = RandomFormulas.expression(random, 5, 5);
+			Path file = directory.resolve("tseitin" + i + ".cnf");
+			try(FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+					DimacsWriter writer = new DimacsWriter(channel)) {
+				StreamingParser.parse(new StringReader(expression.toString()), StreamingEncoder.tseitin(writer));
+			}
+
+			ClauseDatabase database = DimacsCnf.read(file);
+			assertEquals(TruthTable.of(expression).isSatisfiable(), CdclSolver.solve(database) != null,
+					expression::toString);
+			for (PropLogic atom : PropLogicUtils.atomSet(expression)) {
+				assertTrue(database.containsLabel(atom.getLabel()), atom::toString);
+			}
+		}
+	}
+}
@@ -0,0 +1,95 @@
+package es.etomas.logiccalc.functions;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import es.etomas.logiccalc.logicparsers.PropLogic;
+
+class SubsumptionIndexTest {
+
+	@Test
+	void checksContainment() {
+		assertTrue(SubsumptionIndex.subsumes(new int[] {-3, 1}, new int[] {-3, 1, 2}));
+		assertTrue(SubsumptionIndex.subsumes(new int[] {}, new int[] {1}));
+		assertFalse(SubsumptionIndex.subsumes(new int[] {-1, 2}, new int[] {1, 2, 3}));
+		assertFalse(SubsumptionIndex.subsumes(new int[] {1, 2}, new int[] {2}));
+	}
+
+	@Test
+	void agreesWithComparingEveryPair() {
+		Random random = new Random(13);
+		SubsumptionIndex index = new SubsumptionIndex();
+		List<int[]> stored = new ArrayList<>();
+		for (int i = 0; i < 400; i++) {
+			int[] clause = randomClause(random);
+			stored.add(clause);
+			index.add(clause);
+			if(random.nextInt(5) == 0) {
+				int removed = random.nextInt(stored.size());
+				if(stored.get(removed) != null) {
+					index.remove(removed);
+					stored.set(removed, null);
+					assertNull(index.get(removed));
+				}
+			}
+		}
+		assertEquals(stored.stream().filter(clause->clause != null).count(), index.size());
+
+		for (int i = 0; i < 400; i++) {
+			int[] query = randomClause(random);
+			List<Integer> subsumers = new ArrayList<>();
+			List<Integer> subsumed = new ArrayList<>();
+			for (int id = 0; id < stored.size(); id++) {
+				int[] clause = stored.get(id);
+				if(clause != null && SubsumptionIndex.subsumes(clause, query)) {
+					subsumers.add(id);
+				}
+				if(clause != null && SubsumptionIndex.subsumes(query, clause)) {
+					subsumed.add(id);
+				}
+			}
+			int subsumer = index.findSubsumer(query);
+			assertEquals(subsumers.isEmpty(), subsumer < 0, Arrays.toString(query));
+			assertTrue(subsumer < 0 || subsumers.contains(subsumer));
+			assertArrayEquals(subsumed.stream().mapToInt(Integer::intValue).toArray(), index.findSubsumed(query),
+					Arrays.toString(query));
+		}
+	}
+
+	@Test
+	void removesSubsumedClauses() {
+		Random random = new Random(31);
+		for (int i = 0; i < 50; i++) {
+			Set<Set<PropLogic>> clauses = RandomFormulas.clauses(random, 6, 30, 4);
+			Set<Set<PropLogic>> expected = new HashSet<>();
+			for (Set<PropLogic> clause : clauses) {
+				if(clauses.stream().noneMatch(other->other != clause && clause.containsAll(other))) {
+					expected.add(clause);
+				}
+			}
+			assertEquals(expected, SubsumptionIndex.removeSubsumed(clauses));
+		}
+	}
+
+	//Sorted clause of up to 4 distinct variables out of 8
+	private static int[] randomClause(Random random) {
+		Set<Integer> variables = new HashSet<>();
+		int size = random.nextInt(5);
+		while(variables.size() < size) {
+			variables.add(1 + random.nextInt(8));
+		}
+		return variables.stream().mapToInt(v->random.nextBoolean()? v : -v).sorted().toArray();
+	}
+}
@@ -0,0 +1,146 @@
+package es.etomas.logiccalc.functions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TraceStoreTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void spillsTheOldestEvents() {
+		try(TraceStore store = new TraceStore(4, directory)) {
+			List<String> texts = add(store, 10, i->"Step " + i);
+			assertEquals(10, store.size());
+			assertEquals(6, store.getSpilledCount());
+			assertEquals(texts, store.page(0, 10));
+		}
+	}
+
+	@Test
+	void spillsWhenTextsAreTooLong() {
+		try(TraceStore store = new TraceStore(1000, 50, directory)) {
+			List<String> texts = add(store, 100, i->"Event number " + i);
+			assertTrue(store.getSpilledCount() > 90, ()->store.getSpilledCount() + " events spilled");
+			assertEquals(texts, store.page(0, 100));
+		}
+	}
+
+	/**
+	 * Texts are written as UTF-8, so characters of several bytes, line breaks
+	 * and texts larger than the write buffer must be read back unchanged.
+	 */
+	@Test
+	void keepsMultiLineAndNonAsciiTexts() {
+		String large = "xé→".repeat(40_000);
+		try(TraceStore store = new TraceStore(2, directory)) {
+			List<String> texts = add(store, 50, i->switch (i % 4) {
+				case 0 -> "Line " + i + "\nsecond line\r\n";
+				case 1 -> "¬(p ∧ q) ↔ ¬p ∨ ¬q, ñandú " + i;
+				case 2 -> i == 2? large : "𝔸 " + i;
+				default -> "";
+			});
+			assertEquals(48, store.getSpilledCount());
+			assertEquals(texts, store.page(0, 50));
+			assertEquals(large, store.get(2));
+		}
+	}
+
+	@Test
+	void readsRandomPositions() {
+		Random random = new Random(18);
+		try(TraceStore store = new TraceStore(100, directory)) {
+			List<String> texts = add(store, 5000, i->"Event " + i + " ".repeat(random.nextInt(20)));
+			for (int i = 0; i < 500; i++) {
+				int position = random.nextInt(texts.size());
+				assertEquals(texts.get(position), store.get(position));
+			}
+			//Pages that take events from the files and from memory
+			long spilled = store.getSpilledCount();
+			assertEquals(texts.subList((int) spilled - 3, (int) spilled + 3), store.page(spilled - 3, 6));
+			for (int i = 0; i < 100; i++) {
+				int from = random.nextInt(texts.size());
+				int length = random.nextInt(300);
+				assertEquals(texts.subList(from, Math.min(texts.size(), from + length)), store.page(from, length));
+			}
+		}
+	}
+
+	@Test
+	void clampsPagesToTheEnd() {
+		try(TraceStore store = new TraceStore(3, directory)) {
+			List<String> texts = add(store, 10, i->"Step " + i);
+			assertEquals(texts.subList(8, 10), store.page(8, 100));
+			assertEquals(List.of(), store.page(10, 5));
+			assertEquals(List.of(), store.page(0, 0));
+			assertThrows(IndexOutOfBoundsException.class, ()->store.page(11, 1));
+			assertThrows(IndexOutOfBoundsException.class, ()->store.page(-1, 1));
+			assertThrows(IndexOutOfBoundsException.class, ()->store.page(0, -1));
+			assertThrows(IndexOutOfBoundsException.class, ()->store.get(10));
+		}
+	}
+
+	@Test
+	void deletesItsFilesWhenClosed() throws IOException {
+		TraceStore store = new TraceStore(2, directory);
+		add(store, 10, i->"Step " + i);
+		assertEquals(2, fileCount());
+
+		store.close();
+		assertEquals(0, fileCount());
+		assertThrows(IllegalStateException.class, ()->store.get(0));
+		//Events added afterwards are ignored
+		store.accept(new TraceEvent.Message("Late step"));
+		store.close();
+	}
+
+	@Test
+	void keepsOldStepsAfterReset() {
+		OpStepsSingleton steps = OpStepsSingleton.getInstance();
+		steps.reset();
+		try {
+			steps.addStep("First");
+			steps.addExplanation("Explained");
+			List<String> old = steps.getSteps();
+			TraceStore oldStore = steps.getStepStore();
+
+			steps.reset();
+			steps.addStep("Second");
+			assertEquals(List.of("First"), old);
+			assertEquals(List.of("First"), oldStore.page(0, 10));
+			assertEquals(List.of("Second"), steps.getSteps());
+			assertEquals(0, steps.getExplainedStore().size());
+		} finally {
+			steps.reset();
+		}
+	}
+
+	private long fileCount() throws IOException {
+		try(Stream<Path> files = Files.list(directory)) {
+			return files.count();
+		}
+	}
+
+	private static List<String> add(TraceStore store, int count, IntFunction<String> text) {
+		List<String> res = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			res.add(text.apply(i));
+			store.accept(new TraceEvent.Message(res.get(i)));
+		}
+		return res;
+	}
+}
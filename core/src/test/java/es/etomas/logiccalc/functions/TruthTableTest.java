@@ -0,0 +1,112 @@
+package es.etomas.logiccalc.functions;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import es.etomas.logiccalc.logicparsers.PropLogic;
+import es.etomas.logiccalc.logicparsers.PropLogic.LogicType;
+
+class TruthTableTest {
+
+	/**
+	 * Evaluates the expression on every row, with the variables in alphabetical
+	 * order and the first one as the most significant digit. Tables of less and
+	 * more than 6 variables fill their words differently, so both are checked.
+	 */
+	@Test
+	void agreesWithEvaluation() {
+		Random random = new Random(3);
+		for (int i = 0; i < 200; i++) {
+			PropLogic expression = RandomFormulas.expression(random, 1 + i % 9, 5);
+			TruthTable table = TruthTable.of(expression);
+			List<String> variables = PropLogicUtils.atomSet(expression).stream()
+					.map(PropLogic::getLabel)
+					.distinct()
+					.sorted()
+					.toList();
+			assertEquals(variables, table.getVariables());
+			assertEquals(1L << variables.size(), table.getRowCount());
+			assertEquals(String.join(" ", variables) + "\t" + expression, table.header());
+
+			long count = 0;
+			long first = -1;
+			for (long row = 0; row < table.getRowCount(); row++) {
+				Map<String, Boolean> values = new HashMap<>();
+				boolean[] assignment = new boolean[variables.size()];
+				for (int j = 0; j < variables.size(); j++) {
+					assignment[j] = (row >>> (variables.size() - 1 - j) & 1L) != 0;
+					values.put(variables.get(j), assignment[j]);
+				}
+				boolean value = expression.eval(values);
+				assertEquals(value, table.get(row), ()->expression + " in row " + values);
+				assertArrayEquals(assignment, table.getAssignment(row));
+				if(value) {
+					count++;
+					first = first < 0? row : first;
+				}
+			}
+			assertEquals(count, table.countTrue());
+			assertEquals(first, table.firstTrue());
+			assertEquals(count > 0, table.isSatisfiable());
+			assertEquals(count == table.getRowCount(), table.isValid());
+		}
+	}
+
+	@Test
+	void givesTheVectorAsBitSet() {
+		Random random = new Random(30);
+		for (int i = 0; i < 50; i++) {
+			TruthTable table = TruthTable.of(RandomFormulas.expression(random, 2 + i % 8, 5));
+			BitSet bits = table.toBitSet();
+			assertEquals(table.countTrue(), bits.cardinality());
+			for (long row = 0; row < table.getRowCount(); row++) {
+				assertEquals(table.get(row), bits.get((int) row));
+			}
+			assertEquals(BitSet.valueOf(table.toLongArray()), bits);
+		}
+	}
+
+	@Test
+	void writesARowPerLine() {
+		PropLogic a = RandomFormulas.atom(0, false);
+		PropLogic b = RandomFormulas.atom(1, false);
+		TruthTable table = TruthTable.of(PropLogic.ofOp(a, LogicType.IMPLICATION, b));
+		List<String> lines = new ArrayList<>();
+		table.forEachLine(lines::add);
+		assertEquals(List.of("v0 v1\t(v0 -> v1)", "0 0\t    1", "0 1\t    1", "1 0\t    0", "1 1\t    1"), lines);
+	}
+
+	@Test
+	void findsTautologiesAndContradictions() {
+		PropLogic a = RandomFormulas.atom(0, false);
+		assertTrue(TruthTable.of(PropLogic.ofOp(a, LogicType.DISJUNCTION, a.getComplementary())).isValid());
+		TruthTable contradiction = TruthTable.of(PropLogic.ofOp(a, LogicType.BICONDITIONAL, a.getComplementary()));
+		assertFalse(contradiction.isSatisfiable());
+		assertEquals(-1, contradiction.firstTrue());
+		assertThrows(IndexOutOfBoundsException.class, ()->contradiction.get(2));
+		assertThrows(IndexOutOfBoundsException.class, ()->contradiction.get(-1));
+	}
+
+	@Test
+	void rejectsTooManyVariables() {
+		PropLogic expression = RandomFormulas.atom(0, false);
+		for (int v = 1; v <= TruthTable.MAX_VARIABLES; v++) {
+			expression = PropLogic.ofOp(expression, LogicType.DISJUNCTION, RandomFormulas.atom(v, false));
+		}
+		PropLogic tooLarge = expression;
+		assertEquals("Expression has 37 variables, truth tables are limited to 36",
+				assertThrows(IllegalArgumentException.class, ()->TruthTable.of(tooLarge)).getMessage());
+	}
+}
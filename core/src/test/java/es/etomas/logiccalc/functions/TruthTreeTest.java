@@ -0,0 +1,154 @@
+package es.etomas.logiccalc.functions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import es.etomas.logiccalc.logicparsers.PropLogic;
+import es.etomas.logiccalc.logicparsers.PropLogic.LogicType;
+
+class TruthTreeTest {
+
+	private static final int VARIABLES = 5;
+
+	@Test
+	void agreesWithTruthTables() {
+		Random random = new Random(15);
+		for (int i = 0; i < 300; i++) {
+			PropLogic expression = RandomFormulas.expression(random, VARIABLES, 4);
+			Set<PropLogic> branch = new TruthTree(expression).findOpenBranch();
+			assertEquals(TruthTable.of(expression).isSatisfiable(), branch != null, expression::toString);
+			if(branch != null) {
+				assertTrue(expression.eval(assignment(branch)), ()->expression + " is false in " + branch);
+			}
+		}
+	}
+
+	@Test
+	void opensTheBranchesOfTheFullTree() {
+		Random random = new Random(51);
+		for (int i = 0; i < 50; i++) {
+			PropLogic expression = RandomFormulas.expression(random, VARIABLES, 3);
+			Set<Set<PropLogic>> expected = PropLogicUtils.truthTree(Set.of(expression), SolverContext.untraced())
+					.stream()
+					.filter(branch->branch.stream().noneMatch(atom->branch.contains(atom.getComplementary())))
+					.collect(Collectors.toSet());
+			TruthTree tree = new TruthTree(expression);
+			assertEquals(expected, tree.openBranches(), expression::toString);
+
+			//Different branches can end with the same atoms, but each one is counted
+			List<Set<PropLogic>> branches = new ArrayList<>();
+			tree.forEachOpenBranch(branches::add);
+			assertEquals(branches.size(), tree.getOpenBranchCount());
+			assertEquals(expected, Set.copyOf(branches));
+		}
+	}
+
+	/**
+	 * Forked branches are explored once whichever thread takes them, so the
+	 * whole tree has the same branches as in the calling thread.
+	 */
+	@Test
+	void exploresTheSameInParallel() {
+		AtomicInteger threads = new AtomicInteger();
+		ForkJoinPool pool = new ForkJoinPool(4, p->{
+			threads.incrementAndGet();
+			return ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+		}, null, false);
+		try {
+			Random random = new Random(16);
+			for (int i = 0; i < 100; i++) {
+				PropLogic expression = RandomFormulas.expression(random, 6, 6);
+				TruthTree sequential = new TruthTree(List.of(expression));
+				TruthTree parallel = new TruthTree(List.of(expression), pool);
+				assertEquals(sequential.openBranches(), parallel.openBranches(), expression::toString);
+				assertEquals(sequential.getOpenBranchCount(), parallel.getOpenBranchCount());
+				assertEquals(sequential.getClosedBranchCount(), parallel.getClosedBranchCount());
+
+				Set<PropLogic> branch = parallel.findOpenBranch();
+				assertEquals(TruthTable.of(expression).isSatisfiable(), branch != null);
+				assertTrue(branch == null || sequential.openBranches().contains(branch));
+			}
+			assertTrue(threads.get() > 0, "The pool was not used");
+
+			assertNull(new TruthTree(List.of(pigeonhole(3)), pool).findOpenBranch());
+			assertThrows(CancellationException.class, ()->new TruthTree(List.of(pigeonhole(4)), pool,
+					new SolverContext(Tracer.OFF, 10, null)).findOpenBranch());
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	void closesBranchesEarly() {
+		PropLogic a = RandomFormulas.atom(0, false);
+		PropLogic rest = RandomFormulas.expression(new Random(5), VARIABLES, 6);
+		TruthTree tree = new TruthTree(PropLogic.ofOp(PropLogic.ofOp(a, LogicType.CONJUNCTION, a.getComplementary()),
+				LogicType.CONJUNCTION, rest));
+		assertNull(tree.findOpenBranch());
+		assertEquals(1, tree.getClosedBranchCount());
+		assertEquals(0, tree.getOpenBranchCount());
+	}
+
+	@Test
+	void tracesTheResult() {
+		List<TraceEvent> events = new ArrayList<>();
+		PropLogic a = RandomFormulas.atom(0, false);
+		assertFalse(PropLogicUtils.tableau(PropLogic.ofOp(a, LogicType.BICONDITIONAL, a.getComplementary()),
+				new SolverContext(Tracer.of(events::add))));
+		assertEquals(new TraceEvent.Message("Every branch is closed. Expression is inconsistent"),
+				events.get(events.size() - 1));
+	}
+
+	@Test
+	void stopsAtTheLimitOfTheContext() {
+		TruthTree tree = new TruthTree(List.of(pigeonhole(4)), null, new SolverContext(Tracer.OFF, 10, null));
+		assertThrows(CancellationException.class, tree::findOpenBranch);
+	}
+
+	/**
+	 * Builds the pigeonhole principle as a single expression, whose tree has
+	 * many branches and no open one.
+	 * @param holes The number of holes
+	 * @return The conjunction of its clauses
+	 */
+	private static PropLogic pigeonhole(int holes) {
+		PropLogic res = null;
+		for (int[] clause : RandomFormulas.pigeonhole(holes)) {
+			PropLogic disjunction = null;
+			for (int literal : clause) {
+				PropLogic atom = RandomFormulas.atom(Math.abs(literal), literal < 0);
+				disjunction = disjunction == null? atom : PropLogic.ofOp(disjunction, LogicType.DISJUNCTION, atom);
+			}
+			res = res == null? disjunction : PropLogic.ofOp(res, LogicType.CONJUNCTION, disjunction);
+		}
+		return res;
+	}
+
+	//Values of the atoms of a branch, and false for the other variables
+	private static Map<String, Boolean> assignment(Set<PropLogic> branch) {
+		Map<String, Boolean> res = new HashMap<>();
+		for (int v = 0; v < VARIABLES; v++) {
+			res.put(RandomFormulas.atom(v, false).getLabel(), false);
+		}
+		for (PropLogic atom : branch) {
+			res.put(atom.getLabel(), !atom.isNegated());
+		}
+		return res;
+	}
+}
@@ -0,0 +1,133 @@
+package es.etomas.logiccalc.functions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import es.etomas.logiccalc.functions.TseitinEncoder.Mode;
+import es.etomas.logiccalc.logicparsers.PropLogic;
+import es.etomas.logiccalc.logicparsers.PropLogic.LogicType;
+
+class TseitinEncoderTest {
+
+	/**
+	 * The clauses of both modes are satisfiable exactly when the expression is,
+	 * and the atoms of the expression in any model satisfy it.
+	 */
+	@Test
+	void encodesEquisatisfiableClauses() {
+		Random random = new Random(9);
+		for (int i = 0; i < 300; i++) {
+			PropLogic expression = RandomFormulas.expression(random, 5, 5);
+			boolean satisfiable = TruthTable.of(expression).isSatisfiable();
+			for (Mode mode : Mode.values()) {
+				ClauseDatabase database = TseitinEncoder.encode(expression, mode);
+				int[] model = CdclSolver.solve(database);
+				assertEquals(satisfiable, model != null, ()->mode + " " + expression);
+				if(model != null) {
+					assertTrue(expression.eval(values(expression, database, model)), ()->mode + " " + expression);
+				}
+			}
+		}
+	}
+
+	/**
+	 * With both implications, every auxiliary variable has the value of the
+	 * subexpression it stands for in any model, while Plaisted-Greenbaum
+	 * definitions leave out the polarity that is not needed.
+	 */
+	@Test
+	void definesAuxiliaryVariables() {
+		Random random = new Random(90);
+		for (int i = 0; i < 200; i++) {
+			PropLogic expression = RandomFormulas.expression(random, 5, 5);
+			TseitinEncoder tseitin = new TseitinEncoder(Mode.TSEITIN);
+			tseitin.assertExpression(expression);
+			TseitinEncoder polarity = new TseitinEncoder(Mode.PLAISTED_GREENBAUM);
+			polarity.assertExpression(expression);
+			assertTrue(polarity.getDatabase().getClauseCount() <= tseitin.getDatabase().getClauseCount());
+			assertEquals(tseitin.getAuxiliaryCount(), polarity.getAuxiliaryCount());
+
+			int[] model = CdclSolver.solve(tseitin.getDatabase());
+			if(model != null) {
+				Map<String, Boolean> values = values(expression, tseitin.getDatabase(), model);
+				tseitin.getDefinitions().forEach((variable, definition)->
+						assertEquals(definition.eval(values), model[variable - 1] > 0, definition::toString));
+			}
+		}
+
+		PropLogic a = RandomFormulas.atom(0, false);
+		PropLogic b = RandomFormulas.atom(1, false);
+		PropLogic implication = PropLogic.ofOp(PropLogic.ofOp(a, LogicType.CONJUNCTION, b),
+				LogicType.IMPLICATION, PropLogic.ofOp(a, LogicType.DISJUNCTION, b));
+		assertEquals(10, TseitinEncoder.encode(implication, Mode.TSEITIN).getClauseCount());
+		assertEquals(4, TseitinEncoder.encode(implication, Mode.PLAISTED_GREENBAUM).getClauseCount());
+	}
+
+	@Test
+	void definesSharedSubexpressionsOnce() {
+		PropLogic a = RandomFormulas.atom(0, false);
+		PropLogic b = RandomFormulas.atom(1, false);
+		PropLogic shared = PropLogic.ofOp(a, LogicType.CONJUNCTION, b);
+		PropLogic expression = PropLogic.ofOp(shared, LogicType.DISJUNCTION,
+				PropLogic.ofOp(shared.getComplementary(), LogicType.IMPLICATION, RandomFormulas.atom(2, false)));
+
+		TseitinEncoder encoder = new TseitinEncoder(Mode.PLAISTED_GREENBAUM);
+		int literal = encoder.literal(expression);
+		assertEquals(3, encoder.getAuxiliaryCount());
+		assertEquals(expression, encoder.getDefinition(literal));
+		assertEquals(Set.of(shared, expression, expression.getRight()), Set.copyOf(encoder.getDefinitions().values()));
+		assertNull(encoder.getDefinition(encoder.getDatabase().variable(a.getLabel())));
+	}
+
+	/**
+	 * Atoms named like auxiliary variables keep their own variable, even when
+	 * they are found after the operation above them got its variable.
+	 */
+	@Test
+	void keepsAtomsWithAuxiliaryLabels() {
+		PropLogic t1 = PropLogic.ofAtom("_t1", false);
+		PropLogic t2 = PropLogic.ofAtom("_t2", false);
+		PropLogic c = RandomFormulas.atom(2, false);
+		PropLogic[] expressions = {
+				PropLogic.ofOp(PropLogic.ofOp(t1, LogicType.CONJUNCTION, t2.getComplementary()), LogicType.DISJUNCTION, c),
+				PropLogic.ofOp(PropLogic.ofOp(t1, LogicType.IMPLICATION, t2), LogicType.CONJUNCTION,
+						PropLogic.ofOp(t1, LogicType.CONJUNCTION, t2.getComplementary())),
+				PropLogic.ofOp(PropLogic.ofOp(t2, LogicType.BICONDITIONAL, c), LogicType.IMPLICATION,
+						PropLogic.ofOp(t1, LogicType.DISJUNCTION, t2).getComplementary())
+		};
+		for (PropLogic expression : expressions) {
+			for (Mode mode : Mode.values()) {
+				TseitinEncoder encoder = new TseitinEncoder(mode);
+				encoder.assertExpression(expression);
+				ClauseDatabase database = encoder.getDatabase();
+				for (String label : new String[] {"_t1", "_t2"}) {
+					assertNull(encoder.getDefinition(database.variable(label)), label);
+				}
+				for (int variable : encoder.getDefinitions().keySet()) {
+					String label = database.getLabel(variable);
+					assertFalse(label.equals("_t1") || label.equals("_t2"), label);
+				}
+				assertEquals(TruthTable.of(expression).isSatisfiable(), CdclSolver.solve(database) != null,
+						expression::toString);
+			}
+		}
+	}
+
+	//Values of the atoms of the expression in a model of the clauses
+	private static Map<String, Boolean> values(PropLogic expression, ClauseDatabase database, int[] model) {
+		Map<String, Boolean> res = new HashMap<>();
+		for (PropLogic atom : PropLogicUtils.atomSet(expression)) {
+			res.put(atom.getLabel(), model[database.variable(atom.getLabel()) - 1] > 0);
+		}
+		return res;
+	}
+}
@@ -0,0 +1,150 @@
+package es.etomas.logiccalc.logicparsers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import es.etomas.logiccalc.logicparsers.BatchParser.Result;
+
+class BatchParserTest {
+
+	//Several blocks of lines, so that results of different tasks are collected
+	private static final int LINES = 5000;
+
+	@TempDir
+	Path directory;
+
+	/**
+	 * Each line must get the same expression or error as with a single parser,
+	 * with the number of its line, whichever task parses it.
+	 */
+	@Test
+	void agreesWithSequentialParsing() {
+		List<String> lines = lines(25);
+		try(BatchParser parser = new BatchParser(4)) {
+			List<Result> results = parser.parse(lines.stream());
+			assertEquals(sequential(lines), results);
+			assertTrue(results.stream().anyMatch(Result::isValid));
+			assertTrue(results.stream().anyMatch(result->!result.isValid()));
+			assertTrue(results.size() < lines.size(), "Blank lines were not skipped");
+		}
+	}
+
+	@Test
+	void readsFiles() throws IOException {
+		List<String> lines = new ArrayList<>();
+		for (String line : lines(26)) {
+			lines.add(line.replace('\r', ' ').replace('\n', ' '));
+		}
+		Path file = directory.resolve("expressions.txt");
+		Files.write(file, lines);
+		try(BatchParser parser = new BatchParser(3)) {
+			assertEquals(sequential(lines), parser.parse(file));
+		}
+	}
+
+	@Test
+	void numbersLinesFromOne() {
+		try(BatchParser parser = new BatchParser(2)) {
+			List<Result> results = parser.parse(Stream.of("a and b", "", "  ", "a and", "!c"));
+			assertEquals(List.of(1, 4, 5), results.stream().map(Result::line).toList());
+			assertTrue(results.get(0).isValid());
+			assertEquals("Expected a name, '!' or '(' at position 5", results.get(1).error());
+			assertNull(results.get(1).expression());
+			assertEquals(List.of(), parser.parse(Stream.empty()));
+		}
+	}
+
+	/**
+	 * Names are interned by every task at the same time, so each one must
+	 * still get a single id of the shared table.
+	 */
+	@Test
+	void internsNamesInTheSharedTable() {
+		List<String> lines = new ArrayList<>();
+		for (int i = 0; i < LINES; i++) {
+			lines.add("batch_x" + i + " or !batch_y" + i % 100);
+		}
+		List<Result> results;
+		try(BatchParser parser = new BatchParser(4)) {
+			results = parser.parse(lines.stream());
+		}
+
+		Map<Integer, String> names = new HashMap<>();
+		SymbolTable table = SymbolTable.shared();
+		for (Result result : results) {
+			for (PropLogic operand : List.of(result.expression().getLeft(), result.expression().getRight())) {
+				PropLogic atom = operand.getPositive();
+				assertEquals(table.id(atom.getLabel()), atom.getId());
+				assertEquals(atom.getLabel(), table.name(atom.getId()));
+				String previous = names.putIfAbsent(atom.getId(), atom.getLabel());
+				assertTrue(previous == null || previous.equals(atom.getLabel()), atom::toString);
+			}
+		}
+		assertEquals(LINES + 100, names.size());
+	}
+
+	@Test
+	void shutsDownOnlyItsOwnPool() {
+		BatchParser owner = new BatchParser(2);
+		assertEquals(2, owner.getParallelism());
+		owner.close();
+		assertThrows(RejectedExecutionException.class, ()->owner.parse(Stream.of("a")));
+
+		ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			new BatchParser(pool).close();
+			assertFalse(pool.isShutdown());
+			try(BatchParser parser = new BatchParser(pool)) {
+				assertEquals(1, parser.parse(Stream.of("a")).size());
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	//Valid and wrong texts, with blank lines between them
+	private static List<String> lines(long seed) {
+		RandomTexts texts = new RandomTexts(seed);
+		List<String> res = new ArrayList<>();
+		for (int i = 0; i < LINES; i++) {
+			if(i % 7 == 3) {
+				res.add(i % 2 == 0? "" : " \t ");
+			} else {
+				res.add(texts.next(i % 3 == 0));
+			}
+		}
+		return res;
+	}
+
+	private static List<Result> sequential(List<String> lines) {
+		PrecedenceParser parser = new PrecedenceParser();
+		List<Result> res = new ArrayList<>();
+		for (int i = 0; i < lines.size(); i++) {
+			if(!lines.get(i).isBlank()) {
+				try {
+					res.add(new Result(i + 1, parser.parse(lines.get(i)), null));
+				} catch (IllegalArgumentException e) {
+					res.add(new Result(i + 1, null, e.getMessage()));
+				}
+			}
+		}
+		return res;
+	}
+}
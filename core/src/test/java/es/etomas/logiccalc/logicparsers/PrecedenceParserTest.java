@@ -0,0 +1,83 @@
+package es.etomas.logiccalc.logicparsers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class PrecedenceParserTest {
+
+	private static final int TEXTS = 20_000;
+
+	private final PrecedenceParser parser = new PrecedenceParser();
+
+	/**
+	 * Texts ANTLR reads whole without errors must give the same expression,
+	 * and every other text must be rejected.
+	 */
+	@Test
+	void agreesWithAntlr() {
+		RandomTexts texts = new RandomTexts(23);
+		List<String> mismatches = new ArrayList<>();
+		int valid = 0;
+		for (int i = 0; i < TEXTS; i++) {
+			String text = texts.next(i % 2 == 1);
+			PropLogic expected = RandomTexts.parseReference(text);
+			PropLogic actual;
+			try {
+				actual = parser.parse(text);
+			} catch (IllegalArgumentException e) {
+				actual = null;
+			}
+			if(expected != null) {
+				valid++;
+			}
+			if(expected != actual) {
+				mismatches.add(text);
+			}
+		}
+		assertTrue(valid > TEXTS / 2, "Too few valid texts: " + valid);
+		assertEquals(List.of(), mismatches);
+	}
+
+	@Test
+	void followsPrecedence() {
+		assertEquals("(a -> (b -> c))", parser.parse("a -> b -> c").toString());
+		assertEquals("(a or (b and c))", parser.parse("a or b and c").toString());
+		assertEquals("((!a and b) <-> c)", parser.parse("!a and b <-> c").toString());
+		assertSame(parser.parse("(a or b) -> c"), parser.parse("a or b -> c"));
+	}
+
+	@Test
+	void parsesRange() {
+		assertSame(parser.parse("a or b"), parser.parse("xx a or b yy", 3, 9));
+	}
+
+	@Test
+	void parsesLongChains() {
+		StringBuilder text = new StringBuilder("x0");
+		for (int i = 1; i < 100_000; i++) {
+			text.append(" and x").append(i % 100);
+		}
+		assertEquals(PropLogic.LogicType.CONJUNCTION, parser.parse(text).getType());
+	}
+
+	@Test
+	void reportsPositionOfErrors() {
+		assertMessage("Expected an operator but found 'b' at position 2", "a b");
+		assertMessage("Expected a name, '!' or '(' at position 5", "a and");
+		assertMessage("Expected a name, '!' or '(' at position 0", "");
+		assertMessage("Missing ')' at position 2", "(a");
+		assertMessage("Unexpected ')' at position 1", "a)");
+		assertMessage("Expected an operator or ')' at position 2", "a & b");
+	}
+
+	private void assertMessage(String message, String text) {
+		assertEquals(message, assertThrows(IllegalArgumentException.class, ()->parser.parse(text)).getMessage());
+	}
+}
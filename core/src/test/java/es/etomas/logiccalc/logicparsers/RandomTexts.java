@@ -0,0 +1,129 @@
+package es.etomas.logiccalc.logicparsers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.tree.ParseTree;
+
+/**
+ * Random texts of the grammar for the tests of the hand-written parsers, and
+ * copies of them with a token removed, repeated, added or swapped with the
+ * next one, which are usually wrong. The same seed always gives the same texts.
+ */
+final class RandomTexts {
+
+	private static final int MAX_DEPTH = 6;
+
+	//Names that look like keywords, to check that the lexers split them the same
+	private static final String[] NAMES = {"a", "b", "Z", "x1", "x_2", "A_b9", "andy", "or_", "and1", "orb"};
+	private static final String[] OPERATORS = {"and", "or", "->", "<->"};
+	private static final String[] SPACES = {" ", " ", "  ", "\t", "\n", "\r\n", ""};
+	private static final String[] TOKENS = {"a", "b", "and", "or", "->", "<->", "!", "(", ")"};
+
+	private final Random random;
+
+	RandomTexts(long seed) {
+		random = new Random(seed);
+	}
+
+	/**
+	 * Builds a text of the grammar.
+	 * @param mutated Whether to change a token of the text
+	 * @return The text, with random whitespace between tokens, which can be none at all
+	 */
+	String next(boolean mutated) {
+		List<String> tokens = new ArrayList<>();
+		generate(tokens, MAX_DEPTH);
+		if(mutated) {
+			mutate(tokens);
+		}
+		StringBuilder res = new StringBuilder();
+		for (String token : tokens) {
+			res.append(SPACES[random.nextInt(SPACES.length)]).append(token);
+		}
+		return res.append(SPACES[random.nextInt(SPACES.length)]).toString();
+	}
+
+	/**
+	 * Parses a text with ANTLR, which is the reference.
+	 * @param text The text
+	 * @return The expression, or null if there were errors or part of the text was not read
+	 */
+	static PropLogic parseReference(String text) {
+		ErrorCounter errors = new ErrorCounter();
+		PropLogicLexer lexer = new PropLogicLexer(CharStreams.fromString(text));
+		lexer.removeErrorListeners();
+		lexer.addErrorListener(errors);
+		CommonTokenStream tokens = new CommonTokenStream(lexer);
+		PropLogicParser parser = new PropLogicParser(tokens);
+		parser.removeErrorListeners();
+		parser.addErrorListener(errors);
+
+		ParseTree tree = parser.expr();
+		return errors.count == 0 && tokens.LA(1) == Token.EOF?
+				tree.accept(new PropLogicVisitorC()):
+				null;
+	}
+
+	//Random derivation of the grammar, as a list of tokens
+	private void generate(List<String> tokens, int depth) {
+		int choice = depth == 0? 0 : random.nextInt(6);
+		switch (choice) {
+		case 0, 1:
+			tokens.add(NAMES[random.nextInt(NAMES.length)]);
+			break;
+		case 2:
+			tokens.add("!");
+			generate(tokens, depth - 1);
+			break;
+		case 3:
+			tokens.add("(");
+			generate(tokens, depth - 1);
+			tokens.add(")");
+			break;
+		default:
+			generate(tokens, depth - 1);
+			tokens.add(OPERATORS[random.nextInt(OPERATORS.length)]);
+			generate(tokens, depth - 1);
+			break;
+		}
+	}
+
+	private void mutate(List<String> tokens) {
+		int index = random.nextInt(tokens.size());
+		switch (random.nextInt(4)) {
+		case 0:
+			tokens.remove(index);
+			break;
+		case 1:
+			tokens.add(index, tokens.get(index));
+			break;
+		case 2:
+			tokens.add(index, TOKENS[random.nextInt(TOKENS.length)]);
+			break;
+		default:
+			if(index + 1 < tokens.size()) {
+				tokens.add(index + 1, tokens.remove(index));
+			}
+			break;
+		}
+	}
+
+	private static final class ErrorCounter extends BaseErrorListener {
+
+		private int count = 0;
+
+		@Override
+		public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line,
+				int charPositionInLine, String msg, RecognitionException e) {
+			count++;
+		}
+	}
+}
@@ -0,0 +1,133 @@
+package es.etomas.logiccalc.logicparsers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import es.etomas.logiccalc.logicparsers.PropLogic.LogicType;
+
+class StreamingParserTest {
+
+	private static final int TEXTS = 20_000;
+
+	@TempDir
+	Path directory;
+
+	/**
+	 * Both parsers follow the same grammar, so they must give the same
+	 * expression or the same error for every text.
+	 */
+	@Test
+	void agreesWithPrecedenceParser() throws IOException {
+		PrecedenceParser parser = new PrecedenceParser();
+		RandomTexts texts = new RandomTexts(24);
+		List<String> mismatches = new ArrayList<>();
+		for (int i = 0; i < TEXTS; i++) {
+			String text = texts.next(i % 2 == 1);
+			Object expected;
+			try {
+				expected = parser.parse(text);
+			} catch (IllegalArgumentException e) {
+				expected = e.getMessage();
+			}
+			Object actual;
+			try {
+				actual = StreamingParser.parse(new StringReader(text));
+			} catch (IllegalArgumentException e) {
+				actual = e.getMessage();
+			}
+			if(!Objects.equals(expected, actual)) {
+				mismatches.add(text);
+			}
+		}
+		assertEquals(List.of(), mismatches);
+	}
+
+	@Test
+	void readsChannelsAndMappedFiles() throws IOException {
+		RandomTexts texts = new RandomTexts(42);
+		StringBuilder text = new StringBuilder("a");
+		//Long enough to take several buffers
+		while(text.length() < 200_000) {
+			String piece = texts.next(false);
+			if(RandomTexts.parseReference(piece) != null) {
+				text.append(" <-> (").append(piece).append(")");
+			}
+		}
+		PropLogic expected = new PrecedenceParser().parse(text);
+
+		Path file = directory.resolve("expression.txt");
+		Files.writeString(file, text);
+		assertSame(expected, StreamingParser.parse(file));
+		try(FileChannel channel = FileChannel.open(file)) {
+			assertSame(expected, StreamingParser.parse(channel, StandardCharsets.UTF_8));
+		}
+	}
+
+	@Test
+	void reportsErrorsOfFiles() throws IOException {
+		Path file = directory.resolve("wrong.txt");
+		Files.writeString(file, "a and (b or");
+		assertEquals("Expected a name, '!' or '(' at position 11",
+				assertThrows(IllegalArgumentException.class, ()->StreamingParser.parse(file)).getMessage());
+	}
+
+	@Test
+	void regroupsOnlyWhenAllowed() throws IOException {
+		String text = "a and b and c -> d -> e";
+		assertEquals("(((a and b) and c) -> (d -> e))", StreamingParser.parse(new StringReader(text), new Texts(true)));
+		assertEquals("((a and (b and c)) -> (d -> e))", StreamingParser.parse(new StringReader(text), new Texts(false)));
+	}
+
+	@Test
+	void parsesLongChains() throws IOException {
+		StringBuilder text = new StringBuilder("x0");
+		for (int i = 1; i < 100_000; i++) {
+			text.append(" or !x").append(i % 100);
+		}
+		assertEquals(LogicType.DISJUNCTION, StreamingParser.parse(new StringReader(text.toString())).getType());
+	}
+
+	//Builds the text of the expression with every operation in parentheses
+	private static final class Texts implements StreamingParser.Builder<String> {
+
+		private final boolean regroups;
+
+		Texts(boolean regroups) {
+			this.regroups = regroups;
+		}
+
+		@Override
+		public String atom(String name) {
+			return name;
+		}
+
+		@Override
+		public String negation(String operand) {
+			return "!" + operand;
+		}
+
+		@Override
+		public String operation(String left, LogicType type, String right) {
+			return "(" + left + " " + PropLogic.opLabel(type) + " " + right + ")";
+		}
+
+		@Override
+		public boolean regroups() {
+			return regroups;
+		}
+	}
+}
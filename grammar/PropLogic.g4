@@ -10,13 +10,14 @@ expr 	: NOT expr											#negated
 		;
    
  // lexer   
-ELEMENT : [a-zA-Z];
-
 BICONDITIONAL : '<->' ;
 IMPLICATION : '->' ;
 AND : 'and' ;
 OR : 'or' ;
 NOT : '!';
 
+// after the operators, so that they are not read as names
+ELEMENT : [a-zA-Z][a-zA-Z0-9_]*;
+
 
 WS : [ \r\n\t] + -> skip ;
\ No newline at end of file
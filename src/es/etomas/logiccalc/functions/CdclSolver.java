@@ -0,0 +1,883 @@
+package es.etomas.logiccalc.functions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+
+import es.etomas.logiccalc.logicparsers.PropLogic;
+
+/**
+ * Conflict driven clause learning SAT solver.
+ * <p>
+ * Clauses are given with DIMACS literals: variable v is the literal v and its
+ * negation is -v, starting at 1. The solver uses two watched literals per clause
+ * for unit propagation, learns 1-UIP clauses from conflicts and backjumps to the
+ * level where they become unit, picks decisions by VSIDS activity with phase
+ * saving, restarts following the Luby sequence or the glucose LBD average, and
+ * periodically removes the least useful learnt clauses.
+ * <p>
+ * Clauses can be added again after a call to {@link #solve()}, keeping
+ * everything learnt so far. A solver must not be shared between threads.
+ */
+public final class CdclSolver {
+
+	public enum RestartPolicy {LUBY, GLUCOSE}
+
+	//Internal literals: 2 * variable for the positive one, 2 * variable + 1
+	//for the negative one, with variables starting at 0
+	private static final int UNDEF = -1;
+
+	private static final byte TRUE = 1;
+	private static final byte FALSE = -1;
+	private static final byte UNASSIGNED = 0;
+
+	private static final int LUBY_UNIT = 100;
+	private static final int GLUCOSE_WINDOW = 50;
+	private static final double GLUCOSE_FACTOR = 0.8;
+	private static final int FIRST_REDUCE = 2000;
+	private static final int REDUCE_INCREMENT = 300;
+	private static final double VAR_DECAY = 0.95;
+	private static final double CLAUSE_DECAY = 0.999;
+
+	private final RestartPolicy restartPolicy;
+
+	private int variables = 0;
+	//Whether the clauses are still satisfiable as far as the solver knows
+	private boolean ok = true;
+
+	private final List<Clause> clauses = new ArrayList<>();
+	private final List<Clause> learnts = new ArrayList<>();
+	private WatchList[] watches = new WatchList[0];
+
+	//Assignment
+	private byte[] assigns = new byte[0];
+	private int[] levels = new int[0];
+	private Clause[] reasons = new Clause[0];
+	private boolean[] phases = new boolean[0];
+	private int[] trail = new int[0];
+	private int trailSize = 0;
+	private int[] trailLimits = new int[0];
+	private int decisionLevel = 0;
+	private int propagationHead = 0;
+
+	//Decision heuristic
+	private double[] activity = new double[0];
+	private double varIncrement = 1;
+	private double clauseIncrement = 1;
+	private final VarHeap heap = new VarHeap();
+
+	//Conflict analysis
+	private boolean[] seen = new boolean[0];
+	private int[] levelStamps = new int[1];
+	private int stamp = 0;
+	private final IntList learnt = new IntList();
+	private final IntList toClear = new IntList();
+
+	//Restarts and clause database reduction
+	private int lubyIndex = 0;
+	private long conflictsUntilRestart;
+	private final int[] recentLbds = new int[GLUCOSE_WINDOW];
+	private int recentLbdCount = 0;
+	private long recentLbdSum = 0;
+	private long lbdSum = 0;
+	private long nextReduce = FIRST_REDUCE;
+	private int reductions = 0;
+
+	private byte[] model = null;
+
+	//Statistics
+	private long conflicts = 0;
+	private long decisions = 0;
+	private long propagations = 0;
+	private long restarts = 0;
+
+	/**
+	 * Creates a solver with Luby restarts.
+	 */
+	public CdclSolver() {
+		this(RestartPolicy.LUBY);
+	}
+
+	/**
+	 * Creates a solver.
+	 * @param restartPolicy The policy used to decide when to restart
+	 */
+	public CdclSolver(RestartPolicy restartPolicy) {
+		this.restartPolicy = restartPolicy;
+		this.conflictsUntilRestart = nextLubyLimit();
+	}
+
+	/**
+	 * Finds a model of a set of clauses of logic expressions.
+	 * @param clauses The clauses, as sets of atoms
+	 * @return A value for every variable that satisfies the clauses, null if they are inconsistent
+	 */
+	public static Map<String, Boolean> solve(Set<Set<PropLogic>> clauses) {
+		return solve(clauses, SolverContext.untraced());
+	}
+
+	/**
+	 * Finds a model of a set of clauses of logic expressions within the limits
+	 * of a context.
+	 * @param clauses The clauses, as sets of atoms
+	 * @param context The context of the search, with a step per conflict
+	 * @return A value for every variable that satisfies the clauses, null if they are inconsistent
+	 * @throws java.util.concurrent.CancellationException If a limit of the context was reached
+	 */
+	public static Map<String, Boolean> solve(Set<Set<PropLogic>> clauses, SolverContext context) {
+		ClauseDatabase database = ClauseDatabase.of(clauses);
+		CdclSolver solver = new CdclSolver();
+		solver.addClauses(database);
+
+		Map<String, Boolean> res = null;
+		if(solver.solve(context)) {
+			res = new HashMap<>();
+			for (int v = 1; v <= database.getVariableCount(); v++) {
+				res.put(database.getLabel(v), solver.modelValue(v));
+			}
+		}
+		return res;
+	}
+
+	/**
+	 * Finds a model of the clauses of a database.
+	 * @param database The clauses
+	 * @return The model as a literal per variable, starting with variable 1,
+	 * null if the clauses are inconsistent
+	 */
+	public static int[] solve(ClauseDatabase database) {
+		CdclSolver solver = new CdclSolver();
+		solver.addClauses(database);
+		return solver.solve()? solver.getModel() : null;
+	}
+
+	/**
+	 * Finds a model of a set of clauses of DIMACS literals.
+	 * @param clauses The clauses
+	 * @return The model as a literal per variable, starting with variable 1,
+	 * null if the clauses are inconsistent
+	 */
+	public static int[] solve(int[][] clauses) {
+		CdclSolver solver = new CdclSolver();
+		for (int[] clause : clauses) {
+			solver.addClause(clause);
+		}
+		return solver.solve()? solver.getModel() : null;
+	}
+
+	/**
+	 * Adds a new variable to the solver.
+	 * @return The new variable
+	 */
+	public int newVariable() {
+		ensureVariables(variables + 1);
+		return variables;
+	}
+
+	public int getVariableCount() {
+		return this.variables;
+	}
+
+	/**
+	 * Adds every clause of a database to the solver, keeping the numbers of
+	 * its variables.
+	 * @param database The clauses to add
+	 * @return False if the solver already knows the clauses are inconsistent
+	 */
+	public boolean addClauses(ClauseDatabase database) {
+		ensureVariables(database.getVariableCount());
+		for (int c = 0; c < database.getClauseCount() && ok; c++) {
+			addClause(database.getClause(c));
+		}
+		return ok;
+	}
+
+	/**
+	 * Adds a clause to the solver. Variables that do not exist yet are created.
+	 * @param literals The literals of the clause
+	 * @return False if the solver already knows the clauses are inconsistent
+	 * @throws IllegalArgumentException If a literal is 0
+	 */
+	public boolean addClause(int... literals) {
+		cancelUntil(0);
+
+		int[] lits = new int[literals.length];
+		for (int i = 0; i < literals.length; i++) {
+			if(literals[i] == 0) {
+				throw new IllegalArgumentException("0 is not a valid literal");
+			}
+			ensureVariables(Math.abs(literals[i]));
+			lits[i] = toInternal(literals[i]);
+		}
+
+		//Remove repeated and false literals, skip tautologies and satisfied clauses
+		Arrays.sort(lits);
+		int size = 0;
+		boolean satisfied = false;
+		for (int i = 0; i < lits.length && !satisfied; i++) {
+			int lit = lits[i];
+			if(value(lit) == TRUE || (size > 0 && lits[size - 1] == (lit ^ 1))) {
+				satisfied = true;
+			} else if(value(lit) != FALSE && (size == 0 || lits[size - 1] != lit)) {
+				lits[size++] = lit;
+			}
+		}
+
+		if(ok && !satisfied) {
+			if(size == 0) {
+				ok = false;
+			} else if(size == 1) {
+				enqueue(lits[0], null);
+				ok = propagate() == null;
+			} else {
+				Clause clause = new Clause(Arrays.copyOf(lits, size), false);
+				clauses.add(clause);
+				attach(clause);
+			}
+		}
+		return ok;
+	}
+
+	/**
+	 * Checks whether the clauses added so far are satisfiable.
+	 * @return True if a model was found, false if the clauses are inconsistent
+	 */
+	public boolean solve() {
+		return solve(SolverContext.untraced());
+	}
+
+	/**
+	 * Checks whether the clauses added so far are satisfiable within the limits
+	 * of a context. If a limit is reached, the solver backtracks to the root
+	 * and can be used again.
+	 * @param context The context of the search, with a step per conflict
+	 * @return True if a model was found, false if the clauses are inconsistent
+	 * @throws java.util.concurrent.CancellationException If a limit of the context was reached
+	 */
+	public boolean solve(SolverContext context) {
+		model = null;
+		boolean finished = !ok;
+
+		if(ok && propagate() != null) {
+			ok = false;
+			finished = true;
+		}
+
+		while(!finished) {
+			Clause conflict = propagate();
+
+			if(conflict != null) {
+				conflicts++;
+				try {
+					context.step();
+				} catch (CancellationException e) {
+					cancelUntil(0);
+					throw e;
+				}
+				if(decisionLevel == 0) {
+					ok = false;
+					finished = true;
+				} else {
+					learnFrom(conflict);
+				}
+			} else if(shouldRestart()) {
+				restarts++;
+				cancelUntil(0);
+			} else {
+				if(conflicts >= nextReduce) {
+					reduceLearnts();
+				}
+
+				int next = pickBranchLiteral();
+				if(next == UNDEF) {
+					//Every variable is assigned without conflicts
+					model = assigns.clone();
+					finished = true;
+				} else {
+					decisions++;
+					newDecisionLevel();
+					enqueue(next, null);
+				}
+			}
+		}
+
+		cancelUntil(0);
+		return model != null;
+	}
+
+	/**
+	 * Gets the value of a variable in the model found by the last call to {@link #solve()}.
+	 * @param variable The variable
+	 * @return Its value
+	 * @throws IllegalStateException If no model was found
+	 */
+	public boolean modelValue(int variable) {
+		if(model == null) {
+			throw new IllegalStateException("No model has been found");
+		}
+		return model[variable - 1] == TRUE;
+	}
+
+	/**
+	 * Gets the model found by the last call to {@link #solve()}.
+	 * @return A literal per variable, starting with variable 1
+	 * @throws IllegalStateException If no model was found
+	 */
+	public int[] getModel() {
+		int[] res = new int[variables];
+		for (int v = 1; v <= variables; v++) {
+			res[v - 1] = modelValue(v)? v : -v;
+		}
+		return res;
+	}
+
+	public long getConflicts() {
+		return this.conflicts;
+	}
+
+	public long getDecisions() {
+		return this.decisions;
+	}
+
+	public long getPropagations() {
+		return this.propagations;
+	}
+
+	public long getRestarts() {
+		return this.restarts;
+	}
+
+	public int getLearntCount() {
+		return this.learnts.size();
+	}
+
+	private static int toInternal(int literal) {
+		return literal > 0? 2 * (literal - 1) : 2 * (-literal - 1) + 1;
+	}
+
+	private static int var(int lit) {
+		return lit >> 1;
+	}
+
+	private byte value(int lit) {
+		byte res = assigns[lit >> 1];
+		return (lit & 1) == 0? res : (byte) -res;
+	}
+
+	private void ensureVariables(int count) {
+		if(count > variables) {
+			int capacity = assigns.length;
+			if(count > capacity) {
+				capacity = Math.max(count, capacity * 2);
+				assigns = Arrays.copyOf(assigns, capacity);
+				levels = Arrays.copyOf(levels, capacity);
+				reasons = Arrays.copyOf(reasons, capacity);
+				phases = Arrays.copyOf(phases, capacity);
+				trail = Arrays.copyOf(trail, capacity);
+				trailLimits = Arrays.copyOf(trailLimits, capacity + 1);
+				activity = Arrays.copyOf(activity, capacity);
+				seen = Arrays.copyOf(seen, capacity);
+				levelStamps = Arrays.copyOf(levelStamps, capacity + 1);
+				int oldWatches = watches.length;
+				watches = Arrays.copyOf(watches, 2 * capacity);
+				for (int i = oldWatches; i < watches.length; i++) {
+					watches[i] = new WatchList();
+				}
+				heap.grow(capacity);
+			}
+			for (int v = variables; v < count; v++) {
+				heap.insert(v);
+			}
+			variables = count;
+		}
+	}
+
+	private void attach(Clause clause) {
+		watches[clause.lits[0]].add(clause, clause.lits[1]);
+		watches[clause.lits[1]].add(clause, clause.lits[0]);
+	}
+
+	private void enqueue(int lit, Clause reason) {
+		int v = var(lit);
+		assigns[v] = (lit & 1) == 0? TRUE : FALSE;
+		levels[v] = decisionLevel;
+		reasons[v] = reason;
+		trail[trailSize++] = lit;
+	}
+
+	private void newDecisionLevel() {
+		trailLimits[decisionLevel++] = trailSize;
+	}
+
+	//Undoes every assignment made after the given level, saving their phases
+	private void cancelUntil(int level) {
+		if(decisionLevel > level) {
+			for (int i = trailSize - 1; i >= trailLimits[level]; i--) {
+				int v = var(trail[i]);
+				phases[v] = assigns[v] == TRUE;
+				assigns[v] = UNASSIGNED;
+				reasons[v] = null;
+				if(!heap.contains(v)) {
+					heap.insert(v);
+				}
+			}
+			trailSize = trailLimits[level];
+			propagationHead = trailSize;
+			decisionLevel = level;
+		}
+	}
+
+	/**
+	 * Propagates every assignment in the trail. Clauses are visited when one of
+	 * their two watched literals becomes false, and either watch another literal
+	 * that is not false, propagate their other watched literal, or are a conflict.
+	 * @return The conflicting clause, null if there is no conflict
+	 */
+	private Clause propagate() {
+		Clause conflict = null;
+
+		while(propagationHead < trailSize && conflict == null) {
+			int falseLit = trail[propagationHead++] ^ 1;
+			WatchList list = watches[falseLit];
+			Clause[] watching = list.clauses;
+			int[] blockers = list.blockers;
+			int size = list.size;
+			int i = 0;
+			int j = 0;
+			propagations++;
+
+			while(i < size) {
+				Clause clause = watching[i];
+				int blocker = blockers[i];
+				i++;
+
+				if(clause.deleted) {
+					continue;
+				}
+				//Satisfied by a literal seen before, no need to look at the clause
+				if(value(blocker) == TRUE) {
+					watching[j] = clause;
+					blockers[j++] = blocker;
+					continue;
+				}
+
+				//The false literal is kept in the second position
+				int[] lits = clause.lits;
+				if(lits[0] == falseLit) {
+					lits[0] = lits[1];
+					lits[1] = falseLit;
+				}
+				int first = lits[0];
+				if(first != blocker && value(first) == TRUE) {
+					watching[j] = clause;
+					blockers[j++] = first;
+					continue;
+				}
+
+				//Look for a new literal to watch
+				boolean moved = false;
+				for (int k = 2; k < lits.length && !moved; k++) {
+					if(value(lits[k]) != FALSE) {
+						lits[1] = lits[k];
+						lits[k] = falseLit;
+						watches[lits[1]].add(clause, first);
+						moved = true;
+					}
+				}
+
+				if(!moved) {
+					watching[j] = clause;
+					blockers[j++] = first;
+					if(value(first) == FALSE) {
+						//Every literal is false: conflict. Keep the remaining watches
+						conflict = clause;
+						propagationHead = trailSize;
+						while(i < size) {
+							watching[j] = watching[i];
+							blockers[j++] = blockers[i++];
+						}
+					} else {
+						enqueue(first, clause);
+					}
+				}
+			}
+			list.size = j;
+		}
+		return conflict;
+	}
+
+	//Learns the 1-UIP clause of a conflict and backjumps to the level where it is unit
+	private void learnFrom(Clause conflict) {
+		int lbd = analyze(conflict);
+
+		//The literal with the highest level after the asserting one goes second,
+		//as it is the last one to become false
+		int backjumpLevel = 0;
+		if(learnt.size > 1) {
+			int maxIndex = 1;
+			for (int i = 2; i < learnt.size; i++) {
+				if(levels[var(learnt.data[i])] > levels[var(learnt.data[maxIndex])]) {
+					maxIndex = i;
+				}
+			}
+			int swap = learnt.data[1];
+			learnt.data[1] = learnt.data[maxIndex];
+			learnt.data[maxIndex] = swap;
+			backjumpLevel = levels[var(learnt.data[1])];
+		}
+
+		cancelUntil(backjumpLevel);
+
+		if(learnt.size == 1) {
+			enqueue(learnt.data[0], null);
+		} else {
+			Clause clause = new Clause(learnt.toArray(), true);
+			clause.lbd = lbd;
+			learnts.add(clause);
+			attach(clause);
+			bumpClause(clause);
+			enqueue(learnt.data[0], clause);
+		}
+
+		varIncrement /= VAR_DECAY;
+		clauseIncrement /= CLAUSE_DECAY;
+		recordLbd(lbd);
+	}
+
+	/**
+	 * Builds the 1-UIP learnt clause of a conflict into {@link #learnt}, with the
+	 * asserting literal first.
+	 * @return The literal block distance of the learnt clause
+	 */
+	private int analyze(Clause conflict) {
+		learnt.clear();
+		learnt.add(UNDEF);
+
+		int pathCount = 0;
+		int lit = UNDEF;
+		int index = trailSize - 1;
+		Clause clause = conflict;
+
+		do {
+			if(clause.learnt) {
+				bumpClause(clause);
+			}
+
+			//The first literal of a reason is the one it implied
+			for (int k = lit == UNDEF? 0 : 1; k < clause.lits.length; k++) {
+				int q = clause.lits[k];
+				int v = var(q);
+				if(!seen[v] && levels[v] > 0) {
+					bumpVariable(v);
+					seen[v] = true;
+					if(levels[v] >= decisionLevel) {
+						pathCount++;
+					} else {
+						learnt.add(q);
+					}
+				}
+			}
+
+			//Next literal of the current level to look at
+			while(!seen[var(trail[index])]) {
+				index--;
+			}
+			lit = trail[index--];
+			clause = reasons[var(lit)];
+			seen[var(lit)] = false;
+			pathCount--;
+		} while(pathCount > 0);
+
+		learnt.data[0] = lit ^ 1;
+
+		//Remove literals implied by other literals of the clause
+		toClear.clear();
+		for (int i = 1; i < learnt.size; i++) {
+			toClear.add(var(learnt.data[i]));
+		}
+		int size = 1;
+		for (int i = 1; i < learnt.size; i++) {
+			if(!isRedundant(learnt.data[i])) {
+				learnt.data[size++] = learnt.data[i];
+			}
+		}
+		learnt.size = size;
+		for (int i = 0; i < toClear.size; i++) {
+			seen[toClear.data[i]] = false;
+		}
+
+		//Number of different decision levels in the clause
+		stamp++;
+		int lbd = 0;
+		for (int i = 0; i < learnt.size; i++) {
+			int level = levels[var(learnt.data[i])];
+			if(levelStamps[level] != stamp) {
+				levelStamps[level] = stamp;
+				lbd++;
+			}
+		}
+		return lbd;
+	}
+
+	//A literal is redundant if its reason only has literals already in the clause
+	private boolean isRedundant(int lit) {
+		Clause reason = reasons[var(lit)];
+		boolean res = reason != null;
+		for (int k = 1; reason != null && k < reason.lits.length && res; k++) {
+			int v = var(reason.lits[k]);
+			res = seen[v] || levels[v] == 0;
+		}
+		return res;
+	}
+
+	private void bumpVariable(int v) {
+		activity[v] += varIncrement;
+		if(activity[v] > 1e100) {
+			for (int i = 0; i < variables; i++) {
+				activity[i] *= 1e-100;
+			}
+			varIncrement *= 1e-100;
+		}
+		if(heap.contains(v)) {
+			heap.increased(v);
+		}
+	}
+
+	private void bumpClause(Clause clause) {
+		clause.activity += clauseIncrement;
+		if(clause.activity > 1e20) {
+			for (Clause c : learnts) {
+				c.activity *= 1e-20;
+			}
+			clauseIncrement *= 1e-20;
+		}
+	}
+
+	//Unassigned variable with the highest activity, with its saved phase
+	private int pickBranchLiteral() {
+		int res = UNDEF;
+		while(res == UNDEF && !heap.isEmpty()) {
+			int v = heap.removeMax();
+			if(assigns[v] == UNASSIGNED) {
+				res = phases[v]? 2 * v : 2 * v + 1;
+			}
+		}
+		return res;
+	}
+
+	private void recordLbd(int lbd) {
+		lbdSum += lbd;
+		int slot = (int) (conflicts % GLUCOSE_WINDOW);
+		if(recentLbdCount == GLUCOSE_WINDOW) {
+			recentLbdSum -= recentLbds[slot];
+		} else {
+			recentLbdCount++;
+		}
+		recentLbds[slot] = lbd;
+		recentLbdSum += lbd;
+		conflictsUntilRestart--;
+	}
+
+	private boolean shouldRestart() {
+		boolean res;
+		if(restartPolicy == RestartPolicy.LUBY) {
+			res = conflictsUntilRestart <= 0;
+			if(res) {
+				conflictsUntilRestart = nextLubyLimit();
+			}
+		} else {
+			//Restart when recent clauses are much worse than the average
+			res = recentLbdCount == GLUCOSE_WINDOW &&
+					recentLbdSum * GLUCOSE_FACTOR / GLUCOSE_WINDOW > (double) lbdSum / conflicts;
+			if(res) {
+				recentLbdCount = 0;
+				recentLbdSum = 0;
+			}
+		}
+		return res;
+	}
+
+	private long nextLubyLimit() {
+		return luby(lubyIndex++) * LUBY_UNIT;
+	}
+
+	//i-th element of the Luby sequence: 1 1 2 1 1 2 4 1 1 2 ...
+	private static long luby(int i) {
+		int size = 1;
+		int sequence = 0;
+		while(size < i + 1) {
+			sequence++;
+			size = 2 * size + 1;
+		}
+		int x = i;
+		while(size - 1 != x) {
+			size = (size - 1) >> 1;
+			sequence--;
+			x = x % size;
+		}
+		return 1L << sequence;
+	}
+
+	/**
+	 * Deletes half of the learnt clauses, keeping the ones with the lowest literal
+	 * block distance and highest activity, the ones with a distance of 2 or less,
+	 * and the ones that are the reason of an assignment.
+	 */
+	private void reduceLearnts() {
+		reductions++;
+		nextReduce = conflicts + FIRST_REDUCE + (long) REDUCE_INCREMENT * reductions;
+
+		learnts.sort(Comparator.<Clause>comparingInt(c->-c.lbd)
+				.thenComparingDouble(c->c.activity));
+
+		int limit = learnts.size() / 2;
+		int kept = 0;
+		for (int i = 0; i < learnts.size(); i++) {
+			Clause clause = learnts.get(i);
+			if(i < limit && clause.lbd > 2 && !isLocked(clause)) {
+				clause.deleted = true;
+			} else {
+				learnts.set(kept++, clause);
+			}
+		}
+		learnts.subList(kept, learnts.size()).clear();
+	}
+
+	private boolean isLocked(Clause clause) {
+		int first = clause.lits[0];
+		return value(first) == TRUE && reasons[var(first)] == clause;
+	}
+
+	private static final class Clause {
+		private final int[] lits;
+		private final boolean learnt;
+		private double activity = 0;
+		private int lbd = 0;
+		private boolean deleted = false;
+
+		private Clause(int[] lits, boolean learnt) {
+			this.lits = lits;
+			this.learnt = learnt;
+		}
+	}
+
+	//Clauses watching a literal, each one with a literal that, if true,
+	//satisfies the clause
+	private static final class WatchList {
+		private Clause[] clauses = new Clause[4];
+		private int[] blockers = new int[4];
+		private int size = 0;
+
+		private void add(Clause clause, int blocker) {
+			if(size == clauses.length) {
+				clauses = Arrays.copyOf(clauses, size * 2);
+				blockers = Arrays.copyOf(blockers, size * 2);
+			}
+			clauses[size] = clause;
+			blockers[size++] = blocker;
+		}
+	}
+
+	private static final class IntList {
+		private int[] data = new int[16];
+		private int size = 0;
+
+		private void add(int value) {
+			if(size == data.length) {
+				data = Arrays.copyOf(data, size * 2);
+			}
+			data[size++] = value;
+		}
+
+		private void clear() {
+			size = 0;
+		}
+
+		private int[] toArray() {
+			return Arrays.copyOf(data, size);
+		}
+	}
+
+	//Binary max-heap of variables ordered by activity
+	private final class VarHeap {
+		private int[] heap = new int[0];
+		private int[] positions = new int[0];
+		private int size = 0;
+
+		private void grow(int capacity) {
+			int old = positions.length;
+			heap = Arrays.copyOf(heap, capacity);
+			positions = Arrays.copyOf(positions, capacity);
+			Arrays.fill(positions, old, capacity, -1);
+		}
+
+		private boolean isEmpty() {
+			return size == 0;
+		}
+
+		private boolean contains(int v) {
+			return positions[v] >= 0;
+		}
+
+		private void insert(int v) {
+			heap[size] = v;
+			positions[v] = size;
+			siftUp(size++);
+		}
+
+		private void increased(int v) {
+			siftUp(positions[v]);
+		}
+
+		private int removeMax() {
+			int res = heap[0];
+			positions[res] = -1;
+			size--;
+			if(size > 0) {
+				heap[0] = heap[size];
+				positions[heap[0]] = 0;
+				siftDown(0);
+			}
+			return res;
+		}
+
+		private void siftUp(int index) {
+			int v = heap[index];
+			int i = index;
+			while(i > 0 && activity[heap[(i - 1) >> 1]] < activity[v]) {
+				int parent = (i - 1) >> 1;
+				heap[i] = heap[parent];
+				positions[heap[i]] = i;
+				i = parent;
+			}
+			heap[i] = v;
+			positions[v] = i;
+		}
+
+		private void siftDown(int index) {
+			int v = heap[index];
+			int i = index;
+			boolean finished = false;
+			while(!finished) {
+				int child = 2 * i + 1;
+				if(child + 1 < size && activity[heap[child + 1]] > activity[heap[child]]) {
+					child++;
+				}
+				if(child < size && activity[heap[child]] > activity[v]) {
+					heap[i] = heap[child];
+					positions[heap[i]] = i;
+					i = child;
+				} else {
+					finished = true;
+				}
+			}
+			heap[i] = v;
+			positions[v] = i;
+		}
+	}
+}
@@ -0,0 +1,413 @@
+package es.etomas.logiccalc.functions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntConsumer;
+
+import es.etomas.logiccalc.logicparsers.PropLogic;
+import es.etomas.logiccalc.logicparsers.SymbolTable;
+
+/**
+ * Compact set of clauses over int literals.
+ * <p>
+ * Variables are dense ints starting at 1, each one optionally linked to the
+ * label of an atom. Literals use the DIMACS convention: v for the variable and
+ * -v for its negation. The literals of every clause are stored one after the
+ * other in a single int array, and each clause is identified by its index,
+ * so every literal takes 4 bytes.
+ * <p>
+ * The clauses containing each literal are indexed on demand, and the index is
+ * rebuilt whenever clauses were added after it was last used.
+ */
+public final class ClauseDatabase {
+
+	private static final String DEFAULT_PREFIX = "_x";
+
+	private int[] literals = new int[64];
+	private int literalCount = 0;
+	//Start of each clause in the literal array, plus the end of the last one
+	private int[] offsets = new int[17];
+	private int clauseCount = 0;
+
+	//Variable of each label, by its id in the shared symbol table
+	private final SymbolMap variableIds = new SymbolMap();
+	//Labels up to the last labelled variable, so unlabelled ones take no memory
+	private final List<String> variableNames = new ArrayList<>();
+	private int variableCount = 0;
+
+	//Occurrence lists: clauses of literal index l are occurrences[occurrenceStarts[l]]
+	//to occurrences[occurrenceStarts[l + 1]], null if they need to be rebuilt
+	private int[] occurrenceStarts = null;
+	private int[] occurrences = null;
+
+	/**
+	 * Builds a database from a set of clauses of logic expressions.
+	 * @param clauses The clauses, as sets of atoms
+	 * @return The new database
+	 */
+	public static ClauseDatabase of(Set<Set<PropLogic>> clauses) {
+		ClauseDatabase res = new ClauseDatabase();
+		for (Set<PropLogic> clause : clauses) {
+			res.addClause(clause);
+		}
+		return res;
+	}
+
+	/**
+	 * Gets the index of a literal in arrays with an entry per literal: 2(v-1) for
+	 * the variable v and 2(v-1)+1 for its negation.
+	 * @param literal The literal
+	 * @return Its index
+	 */
+	public static int index(int literal) {
+		return literal > 0? 2 * (literal - 1) : 2 * (-literal - 1) + 1;
+	}
+
+	/**
+	 * Gets the variable of an atom, creating it if it does not exist.
+	 * @param label The label of the atom
+	 * @return The variable
+	 */
+	public int variable(String label) {
+		int res = variableIds.get(SymbolTable.shared().intern(label));
+		if(res == 0) {
+			res = addVariable(label);
+		}
+		return res;
+	}
+
+	/**
+	 * Checks whether an atom already has a variable.
+	 * @param label The label of the atom
+	 * @return True if there is a variable with that label
+	 */
+	public boolean containsLabel(String label) {
+		int id = SymbolTable.shared().id(label);
+		return id >= 0 && variableIds.get(id) != 0;
+	}
+
+	/**
+	 * Creates a new variable.
+	 * @param label The label of its atom, null to give it the default label
+	 * @return The variable
+	 * @throws IllegalArgumentException If the label already belongs to a variable
+	 */
+	public int addVariable(String label) {
+		if(label != null && containsLabel(label)) {
+			throw new IllegalArgumentException("Variable " + label + " already exists");
+		}
+		int res = ++variableCount;
+		if(label != null) {
+			while(res > variableNames.size()) {
+				variableNames.add(null);
+			}
+			variableNames.set(res - 1, label);
+			variableIds.put(SymbolTable.shared().intern(label), res);
+		}
+		occurrenceStarts = null;
+		return res;
+	}
+
+	/**
+	 * Links a variable to the label of an atom, creating the variable if it does
+	 * not exist.
+	 * @param variable The variable
+	 * @param label The label
+	 * @throws IllegalArgumentException If the variable is not positive or the label
+	 * already belongs to another variable
+	 */
+	public void setLabel(int variable, String label) {
+		if(variable < 1) {
+			throw new IllegalArgumentException("Invalid variable " + variable);
+		}
+		int id = SymbolTable.shared().intern(label);
+		int current = variableIds.get(id);
+		if(current != 0 && current != variable) {
+			throw new IllegalArgumentException("Variable " + label + " already exists");
+		}
+		while(variable > variableNames.size()) {
+			variableNames.add(null);
+		}
+		String old = variableNames.set(variable - 1, label);
+		if(old != null) {
+			variableIds.remove(SymbolTable.shared().id(old));
+		}
+		variableIds.put(id, variable);
+		variableCount = Math.max(variableCount, variable);
+		occurrenceStarts = null;
+	}
+
+	/**
+	 * Creates variables without labels until there is a number of them.
+	 * @param count The number of variables
+	 */
+	public void ensureVariables(int count) {
+		if(count > variableCount) {
+			variableCount = count;
+			occurrenceStarts = null;
+		}
+	}
+
+	/**
+	 * Gets the label of a variable. Variables created without a label, or only
+	 * through the literals of a clause, are labelled "_x" followed by their
+	 * number, which cannot be the name of an atom of the grammar.
+	 * @param variable The variable
+	 * @return Its label
+	 */
+	public String getLabel(int variable) {
+		return hasLabel(variable)? variableNames.get(variable - 1) : DEFAULT_PREFIX + variable;
+	}
+
+	/**
+	 * Checks whether a variable was given a label, instead of having the default one.
+	 * @param variable The variable
+	 * @return True if it has a label of its own
+	 */
+	public boolean hasLabel(int variable) {
+		return variable >= 1 && variable <= variableNames.size() && variableNames.get(variable - 1) != null;
+	}
+
+	/**
+	 * Gets the literal of an atom.
+	 * @param atom The atom, negated or not
+	 * @return The literal, creating its variable if it does not exist
+	 * @throws IllegalArgumentException If the expression is not an atom
+	 */
+	public int literal(PropLogic atom) {
+		if(!atom.isAtom()) {
+			throw new IllegalArgumentException(atom + " is not an atom");
+		}
+		int variable = variableIds.get(atom.getId());
+		if(variable == 0) {
+			variable = addVariable(atom.getLabel());
+		}
+		return atom.isNegated()? -variable : variable;
+	}
+
+	/**
+	 * Gets the atom of a literal.
+	 * @param literal The literal
+	 * @return The atom, negated if the literal is negative
+	 */
+	public PropLogic atom(int literal) {
+		return PropLogic.ofAtom(getLabel(Math.abs(literal)), literal < 0);
+	}
+
+	/**
+	 * Adds a clause of int literals. Variables that do not exist yet are created.
+	 * @param clause The literals of the clause
+	 * @return The index of the clause
+	 * @throws IllegalArgumentException If a literal is 0
+	 */
+	public int addClause(int... clause) {
+		return addClauseRange(clause, 0, clause.length);
+	}
+
+	/**
+	 * Adds a clause whose literals are part of an array, so that a buffer can be
+	 * reused for every clause. Variables that do not exist yet are created.
+	 * @param buffer The array with the literals
+	 * @param from The position of the first literal
+	 * @param to The position after the last literal
+	 * @return The index of the clause
+	 * @throws IllegalArgumentException If a literal is 0
+	 */
+	public int addClauseRange(int[] buffer, int from, int to) {
+		//Checked before anything is stored, so a rejected clause leaves no literals behind
+		int maxVariable = variableCount;
+		for (int i = from; i < to; i++) {
+			if(buffer[i] == 0) {
+				throw new IllegalArgumentException("0 is not a valid literal");
+			}
+			maxVariable = Math.max(maxVariable, Math.abs(buffer[i]));
+		}
+
+		ensureCapacity(clauseCount + 1, literalCount + to - from);
+		System.arraycopy(buffer, from, literals, literalCount, to - from);
+		literalCount += to - from;
+		variableCount = maxVariable;
+		offsets[++clauseCount] = literalCount;
+		occurrenceStarts = null;
+		return clauseCount - 1;
+	}
+
+	/**
+	 * Makes room for a number of clauses and literals, to avoid growing the
+	 * database several times when its size is known beforehand.
+	 * @param clauses The total number of clauses
+	 * @param literals The total number of literals
+	 */
+	public void ensureCapacity(int clauses, int literals) {
+		if(literals > this.literals.length) {
+			this.literals = Arrays.copyOf(this.literals, Math.max(this.literals.length * 2, literals));
+		}
+		if(clauses + 1 > offsets.length) {
+			offsets = Arrays.copyOf(offsets, Math.max(offsets.length * 2, clauses + 1));
+		}
+	}
+
+	/**
+	 * Adds a clause of atoms.
+	 * @param clause The atoms of the clause
+	 * @return The index of the clause
+	 */
+	public int addClause(Collection<PropLogic> clause) {
+		int[] res = new int[clause.size()];
+		int i = 0;
+		for (PropLogic atom : clause) {
+			res[i++] = literal(atom);
+		}
+		return addClause(res);
+	}
+
+	public int getVariableCount() {
+		return this.variableCount;
+	}
+
+	public int getClauseCount() {
+		return this.clauseCount;
+	}
+
+	public int getLiteralCount() {
+		return this.literalCount;
+	}
+
+	public int clauseSize(int clause) {
+		return offsets[clause + 1] - offsets[clause];
+	}
+
+	/**
+	 * Gets a literal of a clause.
+	 * @param clause The index of the clause
+	 * @param position The position of the literal in the clause
+	 * @return The literal
+	 */
+	public int literal(int clause, int position) {
+		return literals[offsets[clause] + position];
+	}
+
+	/**
+	 * Gets a copy of the literals of a clause.
+	 * @param clause The index of the clause
+	 * @return Its literals
+	 */
+	public int[] getClause(int clause) {
+		return Arrays.copyOfRange(literals, offsets[clause], offsets[clause + 1]);
+	}
+
+	/**
+	 * Gets every clause as an array of literals.
+	 * @return The clauses
+	 */
+	public int[][] toArrays() {
+		int[][] res = new int[clauseCount][];
+		for (int c = 0; c < clauseCount; c++) {
+			res[c] = getClause(c);
+		}
+		return res;
+	}
+
+	/**
+	 * Gets a clause as a set of atoms.
+	 * @param clause The index of the clause
+	 * @return The clause
+	 */
+	public Set<PropLogic> toPropLogic(int clause) {
+		Set<PropLogic> res = new HashSet<>();
+		for (int i = offsets[clause]; i < offsets[clause + 1]; i++) {
+			res.add(atom(literals[i]));
+		}
+		return res;
+	}
+
+	/**
+	 * Gets every clause as a set of atoms.
+	 * @return The set of clauses
+	 */
+	public Set<Set<PropLogic>> toPropLogic() {
+		Set<Set<PropLogic>> res = new HashSet<>();
+		for (int c = 0; c < clauseCount; c++) {
+			res.add(toPropLogic(c));
+		}
+		return res;
+	}
+
+	/**
+	 * Counts the clauses that contain a literal.
+	 * @param literal The literal
+	 * @return The number of clauses
+	 */
+	public int occurrenceCount(int literal) {
+		indexOccurrences();
+		int index = index(literal);
+		return index + 1 < occurrenceStarts.length?
+				occurrenceStarts[index + 1] - occurrenceStarts[index]:
+				0;
+	}
+
+	/**
+	 * Gets one of the clauses that contain a literal.
+	 * @param literal The literal
+	 * @param position The position of the clause in the occurrence list
+	 * @return The index of the clause
+	 */
+	public int occurrence(int literal, int position) {
+		indexOccurrences();
+		return occurrences[occurrenceStarts[index(literal)] + position];
+	}
+
+	/**
+	 * Gives the index of every clause that contains a literal to a consumer.
+	 * @param literal The literal
+	 * @param action The consumer of the indexes
+	 */
+	public void forEachOccurrence(int literal, IntConsumer action) {
+		int count = occurrenceCount(literal);
+		int start = count == 0? 0 : occurrenceStarts[index(literal)];
+		for (int i = start; i < start + count; i++) {
+			action.accept(occurrences[i]);
+		}
+	}
+
+	//Builds the occurrence lists by counting the literals and placing each clause
+	private void indexOccurrences() {
+		if(occurrenceStarts == null) {
+			int[] starts = new int[2 * variableCount + 1];
+			for (int i = 0; i < literalCount; i++) {
+				starts[index(literals[i]) + 1]++;
+			}
+			for (int l = 1; l < starts.length; l++) {
+				starts[l] += starts[l - 1];
+			}
+
+			int[] positions = Arrays.copyOf(starts, starts.length);
+			int[] res = new int[literalCount];
+			for (int c = 0; c < clauseCount; c++) {
+				for (int i = offsets[c]; i < offsets[c + 1]; i++) {
+					res[positions[index(literals[i])]++] = c;
+				}
+			}
+
+			occurrences = res;
+			occurrenceStarts = starts;
+		}
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder res = new StringBuilder("[");
+		for (int c = 0; c < clauseCount; c++) {
+			res.append(c == 0? "[" : ", [");
+			for (int i = offsets[c]; i < offsets[c + 1]; i++) {
+				res.append(i == offsets[c]? "" : ", ").append(atom(literals[i]));
+			}
+			res.append(']');
+		}
+		return res.append(']').toString();
+	}
+}
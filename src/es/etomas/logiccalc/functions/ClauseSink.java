@@ -0,0 +1,76 @@
+package es.etomas.logiccalc.functions;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import es.etomas.logiccalc.logicparsers.PropLogic;
+
+/**
+ * Receives clauses one at a time as they are produced, so that they can be
+ * stored or written without building a set of clauses first.
+ * <p>
+ * The list given to {@link #accept} is only valid during the call, as
+ * producers may reuse it for the next clause.
+ */
+@FunctionalInterface
+public interface ClauseSink {
+
+	/**
+	 * Receives a clause.
+	 * @param clause The atoms of the clause, without repetitions
+	 */
+	void accept(List<PropLogic> clause);
+
+	/**
+	 * Creates a sink that gives each clause as a new Set to a consumer.
+	 * @param consumer The consumer of the clauses
+	 * @return The sink
+	 */
+	static ClauseSink of(Consumer<? super Set<PropLogic>> consumer) {
+		return clause->consumer.accept(new HashSet<>(clause));
+	}
+
+	/**
+	 * Creates a sink that adds each clause to a database.
+	 * @param database The database
+	 * @return The sink
+	 */
+	static ClauseSink of(ClauseDatabase database) {
+		return database::addClause;
+	}
+
+	/**
+	 * Creates a sink that writes each clause in DIMACS, numbering variables in
+	 * order of appearance and writing the label of each one the first time it
+	 * appears. Errors of the writer are thrown as {@link UncheckedIOException}.
+	 * @param writer The writer
+	 * @return The sink
+	 */
+	static ClauseSink of(DimacsWriter writer) {
+		SymbolMap variables = new SymbolMap();
+		int[] count = new int[1];
+
+		return clause->{
+			try {
+				int[] literals = new int[clause.size()];
+				for (int i = 0; i < literals.length; i++) {
+					PropLogic atom = clause.get(i);
+					int variable = variables.get(atom.getId());
+					if(variable == 0) {
+						variable = ++count[0];
+						variables.put(atom.getId(), variable);
+						writer.label(variable, atom.getLabel());
+					}
+					literals[i] = atom.isNegated()? -variable : variable;
+				}
+				writer.addClause(literals);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		};
+	}
+}
@@ -0,0 +1,325 @@
+package es.etomas.logiccalc.functions;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import es.etomas.logiccalc.logicparsers.PropLogic;
+import es.etomas.logiccalc.logicparsers.SymbolTable;
+
+/**
+ * Logic expression compiled into a flat postfix program, meant to be evaluated
+ * many times with different values for its variables.
+ * <p>
+ * Variables are identified by their index in {@link #getVariables()}, and their
+ * values are read from a boolean array or from the bits of a long, so no boxing
+ * or Map lookups are needed. Evaluation is done through an {@link Evaluator},
+ * which reuses its stack so that evaluating does not allocate.
+ */
+public final class CompiledPropLogic {
+
+	//Instructions are encoded as an opcode in the lower bits and, for loads,
+	//the index of the variable in the upper bits
+	private static final int OP_BITS = 3;
+	private static final int OP_MASK = (1 << OP_BITS) - 1;
+
+	private static final int LOAD = 0;
+	private static final int LOAD_NOT = 1;
+	private static final int NOT = 2;
+	private static final int AND = 3;
+	private static final int OR = 4;
+	private static final int IMPLICATION = 5;
+	private static final int BICONDITIONAL = 6;
+
+	private final PropLogic expression;
+	private final List<String> variables;
+	private final int[] program;
+	private final int stackSize;
+
+	private CompiledPropLogic(PropLogic expression, List<String> variables, int[] program, int stackSize) {
+		this.expression = expression;
+		this.variables = variables;
+		this.program = program;
+		this.stackSize = stackSize;
+	}
+
+	/**
+	 * Compiles a logic expression, indexing its variables in alphabetical order.
+	 * @param input The expression to compile
+	 * @return The compiled expression
+	 */
+	public static CompiledPropLogic compile(PropLogic input) {
+		return compile(input, PropLogicUtils.atomSet(input).stream()
+				.map(PropLogic::getLabel)
+				.distinct()
+				.sorted()
+				.toList());
+	}
+
+	/**
+	 * Compiles a logic expression with the given variable order.
+	 * @param input The expression to compile
+	 * @param variables The variables of the expression, in the order their values will be given
+	 * @return The compiled expression
+	 * @throws IllegalArgumentException If any variable of the expression is not in the list
+	 */
+	public static CompiledPropLogic compile(PropLogic input, List<String> variables) {
+		ProgramBuilder builder = new ProgramBuilder(variables);
+		builder.emit(input);
+		return new CompiledPropLogic(input, List.copyOf(variables),
+				builder.getProgram(), builder.maxDepth);
+	}
+
+	public PropLogic getExpression() {
+		return this.expression;
+	}
+
+	public List<String> getVariables() {
+		return this.variables;
+	}
+
+	/**
+	 * Creates a new evaluator for the expression. An evaluator must not be
+	 * shared between threads.
+	 * @return The evaluator
+	 */
+	public Evaluator evaluator() {
+		return new Evaluator();
+	}
+
+	/**
+	 * Returns the truth value of the expression given a Map that assigns a value
+	 * to each variable, same as {@link PropLogic#eval(Map)}.
+	 *
+	 * @param values The Map with the variables to replace and their values
+	 * @return The truth value
+	 * @throws IllegalArgumentException If any of the variables are not in the map
+	 */
+	public boolean eval(Map<String, Boolean> values) {
+		boolean[] mappedValues = new boolean[variables.size()];
+		for (int i = 0; i < mappedValues.length; i++) {
+			Boolean value = values.get(variables.get(i));
+			if(value == null) {
+				throw new IllegalArgumentException("Variable " +
+						variables.get(i) + " is not mapped to any value");
+			}
+			mappedValues[i] = value;
+		}
+		return evaluator().eval(mappedValues);
+	}
+
+	/**
+	 * Runs the program of a compiled expression. Each evaluator owns its stacks,
+	 * so evaluations do not allocate, but it can only be used by one thread at a time.
+	 */
+	public final class Evaluator {
+
+		private final boolean[] stack;
+		private final long[] wordStack;
+
+		private Evaluator() {
+			this.stack = new boolean[stackSize];
+			this.wordStack = new long[stackSize];
+		}
+
+		/**
+		 * Evaluates the expression.
+		 * @param values The value of each variable, by index
+		 * @return The truth value
+		 */
+		public boolean eval(boolean[] values) {
+			int top = -1;
+
+			for (int instruction : program) {
+				switch (instruction & OP_MASK) {
+				case LOAD:
+					stack[++top] = values[instruction >>> OP_BITS];
+					break;
+				case LOAD_NOT:
+					stack[++top] = !values[instruction >>> OP_BITS];
+					break;
+				case NOT:
+					stack[top] = !stack[top];
+					break;
+				case AND:
+					top--;
+					stack[top] = stack[top] & stack[top + 1];
+					break;
+				case OR:
+					top--;
+					stack[top] = stack[top] | stack[top + 1];
+					break;
+				case IMPLICATION:
+					top--;
+					stack[top] = !stack[top] | stack[top + 1];
+					break;
+				case BICONDITIONAL:
+					top--;
+					stack[top] = stack[top] == stack[top + 1];
+					break;
+				default:
+					throw new IllegalStateException("Invalid instruction");
+				}
+			}
+			return stack[0];
+		}
+
+		/**
+		 * Evaluates the expression, taking the value of the variable with index i
+		 * from the i-th bit of the assignment.
+		 * @param assignment The values of the variables
+		 * @return The truth value
+		 * @throws IllegalArgumentException If the expression has more than 64 variables
+		 */
+		public boolean eval(long assignment) {
+			if(variables.size() > Long.SIZE) {
+				throw new IllegalArgumentException("Expression has too many variables "
+						+ "to be assigned by a long");
+			}
+
+			int top = -1;
+
+			for (int instruction : program) {
+				switch (instruction & OP_MASK) {
+				case LOAD:
+					stack[++top] = (assignment >>> (instruction >>> OP_BITS) & 1L) != 0;
+					break;
+				case LOAD_NOT:
+					stack[++top] = (assignment >>> (instruction >>> OP_BITS) & 1L) == 0;
+					break;
+				case NOT:
+					stack[top] = !stack[top];
+					break;
+				case AND:
+					top--;
+					stack[top] = stack[top] & stack[top + 1];
+					break;
+				case OR:
+					top--;
+					stack[top] = stack[top] | stack[top + 1];
+					break;
+				case IMPLICATION:
+					top--;
+					stack[top] = !stack[top] | stack[top + 1];
+					break;
+				case BICONDITIONAL:
+					top--;
+					stack[top] = stack[top] == stack[top + 1];
+					break;
+				default:
+					throw new IllegalStateException("Invalid instruction");
+				}
+			}
+			return stack[0];
+		}
+
+		/**
+		 * Evaluates the expression for 64 assignments at once. Bit j of the word of
+		 * each variable holds its value in the j-th assignment, and bit j of the
+		 * result holds the truth value of that assignment.
+		 * @param words The values of the variables, one word per variable index
+		 * @return The truth values of the 64 assignments
+		 */
+		public long evalWords(long[] words) {
+			int top = -1;
+
+			for (int instruction : program) {
+				switch (instruction & OP_MASK) {
+				case LOAD:
+					wordStack[++top] = words[instruction >>> OP_BITS];
+					break;
+				case LOAD_NOT:
+					wordStack[++top] = ~words[instruction >>> OP_BITS];
+					break;
+				case NOT:
+					wordStack[top] = ~wordStack[top];
+					break;
+				case AND:
+					top--;
+					wordStack[top] = wordStack[top] & wordStack[top + 1];
+					break;
+				case OR:
+					top--;
+					wordStack[top] = wordStack[top] | wordStack[top + 1];
+					break;
+				case IMPLICATION:
+					top--;
+					wordStack[top] = ~wordStack[top] | wordStack[top + 1];
+					break;
+				case BICONDITIONAL:
+					top--;
+					wordStack[top] = ~(wordStack[top] ^ wordStack[top + 1]);
+					break;
+				default:
+					throw new IllegalStateException("Invalid instruction");
+				}
+			}
+			return wordStack[0];
+		}
+	}
+
+	//Emits the postfix program of an expression, keeping track of the stack depth
+	private static class ProgramBuilder {
+
+		//Index of each variable plus one, by its id in the shared symbol table
+		private final SymbolMap indexes;
+		private int[] program = new int[16];
+		private int length = 0;
+		private int depth = 0;
+		private int maxDepth = 0;
+
+		private ProgramBuilder(List<String> variables) {
+			this.indexes = new SymbolMap();
+			for (int i = 0; i < variables.size(); i++) {
+				int id = SymbolTable.shared().intern(variables.get(i));
+				if(indexes.get(id) == 0) {
+					indexes.put(id, i + 1);
+				}
+			}
+		}
+
+		private void emit(PropLogic input) {
+			if(input.isAtom()) {
+				int index = indexes.get(input.getId()) - 1;
+				if(index < 0) {
+					throw new IllegalArgumentException("Variable " +
+							input.getLabel() + " is not in the variable list");
+				}
+				add((index << OP_BITS) | (input.isNegated()? LOAD_NOT : LOAD));
+				depth++;
+				maxDepth = Math.max(depth, maxDepth);
+			} else {
+				emit(input.getLeft());
+				emit(input.getRight());
+
+				switch (input.getType()) {
+				case CONJUNCTION: add(AND);
+					break;
+				case DISJUNCTION: add(OR);
+					break;
+				case IMPLICATION: add(IMPLICATION);
+					break;
+				case BICONDITIONAL: add(BICONDITIONAL);
+					break;
+				default: throw new IllegalArgumentException("Invalid operation type");
+				}
+				depth--;
+
+				if(input.isNegated()) {
+					add(NOT);
+				}
+			}
+		}
+
+		private void add(int instruction) {
+			if(length == program.length) {
+				program = Arrays.copyOf(program, length * 2);
+			}
+			program[length++] = instruction;
+		}
+
+		private int[] getProgram() {
+			return Arrays.copyOf(program, length);
+		}
+	}
+}
@@ -0,0 +1,347 @@
+package es.etomas.logiccalc.functions;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+import es.etomas.logiccalc.logicparsers.PropLogic;
+
+/**
+ * Reads and writes clauses in the DIMACS CNF format.
+ * <p>
+ * Files are memory mapped and their integers are parsed straight from the
+ * mapped bytes into a {@link ClauseDatabase}, without building a String per
+ * line. Gzip compressed files are detected and read through a stream instead.
+ * <p>
+ * Labels of atoms are kept in comments of the form {@code c var <variable> <label>}
+ * after the header, so clause sets of logic expressions can be written and
+ * read back. The counts of the header are only trusted as far as the size of
+ * the input allows, so a short file cannot make the reader reserve memory
+ * for more clauses than it can contain.
+ */
+public abstract class DimacsCnf {
+
+	//Files are mapped in regions, as a single buffer cannot hold more than 2GB
+	private static final long REGION_SIZE = 1L << 30;
+	private static final int BUFFER_SIZE = 1 << 16;
+	//Clauses reserved from the header of a stream, whose size is not known
+	private static final int STREAM_RESERVED_CLAUSES = 1 << 16;
+
+	/**
+	 * Reads a DIMACS CNF file, which may be gzip compressed.
+	 * @param file The path of the file
+	 * @return The clauses of the file
+	 * @throws IOException If the file cannot be read
+	 * @throws IllegalArgumentException If the file is not valid DIMACS CNF
+	 */
+	public static ClauseDatabase read(Path file) throws IOException {
+		ClauseDatabase res;
+
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			ByteBuffer magic = ByteBuffer.allocate(2);
+			channel.read(magic, 0);
+
+			if(magic.position() == 2 && (magic.get(0) & 0xff) == 0x1f && (magic.get(1) & 0xff) == 0x8b) {
+				try(InputStream in = new GZIPInputStream(Files.newInputStream(file), BUFFER_SIZE)) {
+					res = read(in);
+				}
+			} else {
+				Parser parser = new Parser(size);
+				for (long position = 0; position < size; position += REGION_SIZE) {
+					MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY,
+							position, Math.min(REGION_SIZE, size - position));
+					parser.feed(region);
+				}
+				res = parser.finish();
+			}
+		}
+		return res;
+	}
+
+	/**
+	 * Reads DIMACS CNF from a stream, which is not closed afterwards.
+	 * @param in The stream
+	 * @return The clauses read
+	 * @throws IOException If the stream cannot be read
+	 * @throws IllegalArgumentException If the contents are not valid DIMACS CNF
+	 */
+	public static ClauseDatabase read(InputStream in) throws IOException {
+		Parser parser = new Parser(-1);
+		byte[] buffer = new byte[BUFFER_SIZE];
+		int read;
+		while((read = in.read(buffer)) >= 0) {
+			parser.feed(buffer, read);
+		}
+		return parser.finish();
+	}
+
+	/**
+	 * Writes the clauses of a database to a file.
+	 * @param database The clauses
+	 * @param file The path of the file
+	 * @throws IOException If the file cannot be written
+	 */
+	public static void write(ClauseDatabase database, Path file) throws IOException {
+		try(OutputStream out = Files.newOutputStream(file)) {
+			write(database, out);
+		}
+	}
+
+	/**
+	 * Writes the clauses of a database to a stream, which is not closed afterwards.
+	 * @param database The clauses
+	 * @param out The stream
+	 * @throws IOException If the stream cannot be written
+	 */
+	public static void write(ClauseDatabase database, OutputStream out) throws IOException {
+		int[] buffer = new int[16];
+
+		try(DimacsWriter writer = new DimacsWriter(out, database.getVariableCount(), database.getClauseCount())) {
+			for (int v = 1; v <= database.getVariableCount(); v++) {
+				if(database.hasLabel(v)) {
+					writer.label(v, database.getLabel(v));
+				}
+			}
+
+			for (int c = 0; c < database.getClauseCount(); c++) {
+				int size = database.clauseSize(c);
+				if(size > buffer.length) {
+					buffer = new int[Math.max(size, buffer.length * 2)];
+				}
+				for (int i = 0; i < size; i++) {
+					buffer[i] = database.literal(c, i);
+				}
+				writer.addClauseRange(buffer, 0, size);
+			}
+		}
+	}
+
+	/**
+	 * Writes a set of clauses of logic expressions to a stream, which is not
+	 * closed afterwards. Variables are numbered in order of appearance.
+	 * @param clauses The clauses, as sets of atoms
+	 * @param out The stream
+	 * @throws IOException If the stream cannot be written
+	 */
+	public static void write(Set<Set<PropLogic>> clauses, OutputStream out) throws IOException {
+		//First pass to number the variables, as the header needs their count
+		SymbolMap variables = new SymbolMap();
+		List<String> labels = new ArrayList<>();
+		for (Set<PropLogic> clause : clauses) {
+			for (PropLogic atom : clause) {
+				if(variables.get(atom.getId()) == 0) {
+					labels.add(atom.getLabel());
+					variables.put(atom.getId(), labels.size());
+				}
+			}
+		}
+
+		try(DimacsWriter writer = new DimacsWriter(out, labels.size(), clauses.size())) {
+			for (int i = 0; i < labels.size(); i++) {
+				writer.label(i + 1, labels.get(i));
+			}
+
+			int[] buffer = new int[16];
+			for (Set<PropLogic> clause : clauses) {
+				if(clause.size() > buffer.length) {
+					buffer = new int[Math.max(clause.size(), buffer.length * 2)];
+				}
+				int size = 0;
+				for (PropLogic atom : clause) {
+					int variable = variables.get(atom.getId());
+					buffer[size++] = atom.isNegated()? -variable : variable;
+				}
+				writer.addClauseRange(buffer, 0, size);
+			}
+		}
+	}
+
+	//State machine that parses DIMACS from bytes, so that it can be fed
+	//in pieces of any size
+	private static final class Parser {
+
+		private enum State {LINE_START, CLAUSES, COMMENT, HEADER, END}
+
+		private final ClauseDatabase database = new ClauseDatabase();
+		private State state = State.LINE_START;
+		private long lineNumber = 1;
+
+		//Clause being read
+		private int[] clause = new int[16];
+		private int size = 0;
+
+		//Number being read
+		private int number = 0;
+		private boolean negative = false;
+		private boolean digits = false;
+
+		//Start of comment and header lines, the only ones kept as text
+		private final byte[] line = new byte[256];
+		private int lineLength = 0;
+		private int declaredVariables = -1;
+
+		//Size of the input in bytes, -1 if it is not known
+		private final long inputSize;
+
+		private Parser(long inputSize) {
+			this.inputSize = inputSize;
+		}
+
+		private void feed(ByteBuffer buffer) {
+			for (int i = buffer.position(); i < buffer.limit(); i++) {
+				accept(buffer.get(i));
+			}
+		}
+
+		private void feed(byte[] buffer, int length) {
+			for (int i = 0; i < length; i++) {
+				accept(buffer[i]);
+			}
+		}
+
+		private void accept(byte b) {
+			switch (state) {
+			case LINE_START:
+				if(b == ' ' || b == '\t' || b == '\r') {
+					//Indentation, the line starts at the next character
+				} else if(b == '\n') {
+					lineNumber++;
+				} else if(b == 'c' || b == 'p') {
+					state = b == 'c'? State.COMMENT : State.HEADER;
+					line[0] = b;
+					lineLength = 1;
+				} else if(b == '%') {
+					//Old benchmark files end with a line with a single %
+					state = State.END;
+				} else {
+					state = State.CLAUSES;
+					acceptClauseByte(b);
+				}
+				break;
+			case CLAUSES:
+				acceptClauseByte(b);
+				break;
+			case COMMENT, HEADER:
+				if(b == '\n') {
+					processLine();
+					lineNumber++;
+					state = State.LINE_START;
+				} else if(lineLength < line.length) {
+					line[lineLength++] = b;
+				}
+				break;
+			case END:
+				break;
+			}
+		}
+
+		private void acceptClauseByte(byte b) {
+			if(b >= '0' && b <= '9') {
+				if(number > (Integer.MAX_VALUE - 9) / 10) {
+					throw error("Literal too large");
+				}
+				number = number * 10 + (b - '0');
+				digits = true;
+			} else if(b == '-' && !digits && !negative) {
+				negative = true;
+			} else if(b == ' ' || b == '\t' || b == '\r' || b == '\n') {
+				endNumber();
+				if(b == '\n') {
+					lineNumber++;
+					state = State.LINE_START;
+				}
+			} else {
+				throw error("Unexpected character '" + (char) b + "'");
+			}
+		}
+
+		//Adds the number just read to the clause, 0 being the end of the clause
+		private void endNumber() {
+			if(digits) {
+				if(number == 0) {
+					database.addClauseRange(clause, 0, size);
+					size = 0;
+				} else {
+					if(size == clause.length) {
+						clause = Arrays.copyOf(clause, size * 2);
+					}
+					clause[size++] = negative? -number : number;
+				}
+			} else if(negative) {
+				throw error("Sign without a number");
+			}
+			number = 0;
+			negative = false;
+			digits = false;
+		}
+
+		//Header line and labels of variables
+		private void processLine() {
+			String[] words = new String(line, 0, lineLength, StandardCharsets.UTF_8).trim().split("\\s+");
+
+			if(state == State.HEADER) {
+				if(words.length != 4 || !words[0].equals("p") || !words[1].equals("cnf")) {
+					throw error("Invalid header, expected p cnf <variables> <clauses>");
+				}
+				int clauses;
+				try {
+					declaredVariables = Integer.parseInt(words[2]);
+					clauses = Integer.parseInt(words[3]);
+				} catch (NumberFormatException e) {
+					throw error("Invalid header, expected p cnf <variables> <clauses>");
+				}
+				if(declaredVariables < 0 || clauses < 0) {
+					throw error("Invalid header, counts cannot be negative");
+				}
+				//The header is not trusted beyond what the input can hold,
+				//as every clause takes at least two bytes
+				long reserved = inputSize < 0? STREAM_RESERVED_CLAUSES : inputSize / 2;
+				database.ensureCapacity((int) Math.min(clauses, reserved), 0);
+			} else if(words.length == 4 && words[1].equals("var") && declaredVariables >= 0) {
+				Integer variable = null;
+				try {
+					variable = Integer.valueOf(words[2]);
+				} catch (NumberFormatException e) {
+					//Not a label, just a comment
+				}
+				if(variable != null) {
+					if(variable < 1 || variable > declaredVariables) {
+						throw error("Label of undeclared variable " + variable);
+					}
+					database.setLabel(variable, words[3]);
+				}
+			}
+		}
+
+		private ClauseDatabase finish() {
+			if(state == State.COMMENT || state == State.HEADER) {
+				processLine();
+			} else if(state == State.CLAUSES) {
+				endNumber();
+			}
+			//Last clause without its terminating 0
+			if(size > 0) {
+				database.addClauseRange(clause, 0, size);
+			}
+			database.ensureVariables(declaredVariables);
+			return database;
+		}
+
+		private IllegalArgumentException error(String message) {
+			return new IllegalArgumentException(message + " in line " + lineNumber);
+		}
+	}
+}
@@ -0,0 +1,198 @@
+package es.etomas.logiccalc.functions;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Writes clauses in the DIMACS CNF format one at a time, encoding them into a
+ * fixed size buffer, so that clauses never need to be stored.
+ * <p>
+ * When writing to a stream, the header is written when the writer is created,
+ * so the number of variables and clauses must be known beforehand. When writing
+ * to a file channel they can be unknown: a header with room for any count is
+ * written first and filled in when the writer is closed. Closing the writer
+ * flushes it and checks that the declared number of clauses was written, but
+ * does not close the stream or channel.
+ */
+public final class DimacsWriter implements Closeable {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+	//Longest possible literal: a sign, 10 digits and a space
+	private static final int MAX_LITERAL_LENGTH = 12;
+
+	private final OutputStream out;
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+	private int position = 0;
+
+	//Both are -1 when they are not known beforehand
+	private final int variables;
+	private final int clauses;
+	private int written = 0;
+	private int maxVariable = 0;
+
+	//Channel and position of the header to fill in, null if it is already written
+	private final FileChannel channel;
+	private final long headerPosition;
+
+	/**
+	 * Creates a writer and writes the header.
+	 * @param out The stream to write to
+	 * @param variables The number of variables
+	 * @param clauses The number of clauses that will be written
+	 * @throws IOException If the stream cannot be written
+	 */
+	public DimacsWriter(OutputStream out, int variables, int clauses) throws IOException {
+		this.out = out;
+		this.variables = variables;
+		this.clauses = clauses;
+		this.channel = null;
+		this.headerPosition = 0;
+		writeText("p cnf " + variables + " " + clauses + "\n");
+	}
+
+	/**
+	 * Creates a writer for an unknown number of variables and clauses, leaving
+	 * room for the header at the current position of the channel.
+	 * @param channel The channel to write to
+	 * @throws IOException If the channel cannot be written
+	 */
+	public DimacsWriter(FileChannel channel) throws IOException {
+		this.out = Channels.newOutputStream(channel);
+		this.variables = -1;
+		this.clauses = -1;
+		this.channel = channel;
+		this.headerPosition = channel.position();
+		writeText(header(0, 0));
+	}
+
+	/**
+	 * Writes a comment that links a variable to the label of an atom.
+	 * @param variable The variable
+	 * @param label The label
+	 * @throws IOException If the stream cannot be written
+	 */
+	public void label(int variable, String label) throws IOException {
+		writeText("c var " + variable + " " + label + "\n");
+	}
+
+	/**
+	 * Writes a clause.
+	 * @param literals The literals of the clause
+	 * @throws IOException If the stream cannot be written
+	 */
+	public void addClause(int... literals) throws IOException {
+		addClauseRange(literals, 0, literals.length);
+	}
+
+	/**
+	 * Writes a clause whose literals are part of an array.
+	 * @param literals The array with the literals
+	 * @param from The position of the first literal
+	 * @param to The position after the last literal
+	 * @throws IOException If the stream cannot be written
+	 * @throws IllegalArgumentException If a literal is 0 or its variable was not declared
+	 */
+	public void addClauseRange(int[] literals, int from, int to) throws IOException {
+		//Checked before writing, so a rejected clause leaves no fragment in the output
+		int max = maxVariable;
+		for (int i = from; i < to; i++) {
+			int literal = literals[i];
+			if(literal == 0 || (variables >= 0 && Math.abs(literal) > variables)) {
+				throw new IllegalArgumentException("Invalid literal " + literal);
+			}
+			max = Math.max(max, Math.abs(literal));
+		}
+		maxVariable = max;
+		for (int i = from; i < to; i++) {
+			writeLiteral(literals[i]);
+		}
+		if(position + 2 > buffer.length) {
+			drain();
+		}
+		buffer[position++] = '0';
+		buffer[position++] = '\n';
+		written++;
+	}
+
+	public int getWrittenClauses() {
+		return this.written;
+	}
+
+	/**
+	 * Writes everything in the buffer to the stream and flushes it.
+	 * @throws IOException If the stream cannot be written
+	 */
+	public void flush() throws IOException {
+		drain();
+		out.flush();
+	}
+
+	/**
+	 * Flushes the writer, leaving the stream open.
+	 * @throws IOException If the stream cannot be written
+	 * @throws IllegalStateException If the number of clauses written is not the declared one
+	 */
+	@Override
+	public void close() throws IOException {
+		flush();
+		if(channel != null) {
+			ByteBuffer header = ByteBuffer.wrap(header(maxVariable, written)
+					.getBytes(StandardCharsets.US_ASCII));
+			long position = headerPosition;
+			while(header.hasRemaining()) {
+				position += channel.write(header, position);
+			}
+		} else if(written != clauses) {
+			throw new IllegalStateException("Declared " + clauses +
+					" clauses but wrote " + written);
+		}
+	}
+
+	//Header with the counts padded to the width of the largest int
+	private static String header(int variables, int clauses) {
+		return String.format(Locale.ROOT, "p cnf %10d %10d\n", variables, clauses);
+	}
+
+	//Writes the digits of a literal from the last one to the first
+	private void writeLiteral(int literal) throws IOException {
+		if(position + MAX_LITERAL_LENGTH > buffer.length) {
+			drain();
+		}
+		if(literal < 0) {
+			buffer[position++] = '-';
+		}
+		int value = Math.abs(literal);
+		int end = position + digitCount(value);
+		for (int i = end - 1; i >= position; i--) {
+			buffer[i] = (byte) ('0' + value % 10);
+			value /= 10;
+		}
+		position = end;
+		buffer[position++] = ' ';
+	}
+
+	private static int digitCount(int value) {
+		int res = 1;
+		for (int limit = 10; res < 10 && value >= limit; limit *= 10) {
+			res++;
+		}
+		return res;
+	}
+
+	private void writeText(String text) throws IOException {
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		drain();
+		out.write(bytes);
+	}
+
+	private void drain() throws IOException {
+		out.write(buffer, 0, position);
+		position = 0;
+	}
+}
@@ -1,46 +1,108 @@
 package es.etomas.logiccalc.functions;
 
-import java.util.ArrayList;
+import java.util.AbstractList;
 import java.util.List;
 
+/**
+ * Default destination of the steps and explanations of the algorithms.
+ * <p>
+ * It is safe to use from many threads, but calls that trace to it at the same
+ * time mix their steps. Calls that need their own trace receive a
+ * {@link SolverContext} with another {@link Tracer}.
+ */
 public class OpStepsSingleton {
 	
-	private static OpStepsSingleton instance = null;
-	private List<String> opSteps;
-	private List<String> explainedSteps;
+	//Bounded in memory, older steps are spilled to disk. Each store is
+	//synchronized, and reset replaces both at once
+	private volatile TraceStore opSteps;
+	private volatile TraceStore explainedSteps;
 	
 	private OpStepsSingleton() {
-		this.opSteps = new ArrayList<>();
-		this.explainedSteps = new ArrayList<>();
+		this.opSteps = new TraceStore();
+		this.explainedSteps = new TraceStore();
+	}
+
+	//Created on first use, with the class initialization as the lock
+	private static final class Holder {
+		private static final OpStepsSingleton INSTANCE = new OpStepsSingleton();
 	}
 
 	public static OpStepsSingleton getInstance() {
-		if(instance == null) {
-	         instance = new OpStepsSingleton();
-		}
-		return instance;
+		return Holder.INSTANCE;
 	}
 	
 	public void addStep(String step) {
-		this.opSteps.add(step);
+		this.opSteps.accept(new TraceEvent.Message(step));
 	}
 	
+	/**
+	 * Gets the explanations, reading each one from memory or disk when it is accessed.
+	 * @return A view of the explanations
+	 */
 	public List<String> getExplainedSteps() {
-		return this.explainedSteps;
+		return view(this.explainedSteps);
 	}
 	
 	public List<String> getSteps() {
-		return opSteps;
+		return view(this.opSteps);
+	}
+
+	/**
+	 * Gets the store of the explanations, to read them in pages.
+	 * @return The store
+	 */
+	public TraceStore getExplainedStore() {
+		return this.explainedSteps;
+	}
+
+	/**
+	 * Gets the store of the steps, to read them in pages.
+	 * @return The store
+	 */
+	public TraceStore getStepStore() {
+		return this.opSteps;
 	}
 
 	public void addExplanation(String explanation) {
-		this.explainedSteps.add(explanation);
+		this.explainedSteps.accept(new TraceEvent.Message(explanation));
 		
 	}
 
-	public void reset() {
-		this.opSteps = new ArrayList<>();
-		this.explainedSteps = new ArrayList<>();
+	/**
+	 * Adds an event to the steps or to the explanations, which render it.
+	 * @param event The event
+	 */
+	public void addEvent(TraceEvent event) {
+		if(event.isStep()) {
+			this.opSteps.accept(event);
+		} else {
+			this.explainedSteps.accept(event);
+		}
+	}
+
+	/**
+	 * Replaces the steps and explanations with empty ones. Events added at the
+	 * same time may go to the old stores and be lost. Lists and stores got
+	 * before keep the old steps, and the old stores delete their files once
+	 * nothing uses them.
+	 */
+	public synchronized void reset() {
+		this.opSteps = new TraceStore();
+		this.explainedSteps = new TraceStore();
+	}
+
+	private static List<String> view(TraceStore store) {
+		return new AbstractList<>() {
+			@Override
+			public String get(int index) {
+				return store.get(index);
+			}
+
+			@Override
+			public int size() {
+				return (int) Math.min(store.size(), Integer.MAX_VALUE);
+			}
+		};
 	}
 	
 }
@@ -0,0 +1,232 @@
+package es.etomas.logiccalc.functions;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import es.etomas.logiccalc.logicparsers.PropLogic;
+
+/**
+ * Calculates truth tables in parallel, splitting the rows of the table in
+ * chunks that are evaluated independently on a {@link ForkJoinPool}.
+ * <p>
+ * Besides the full table, it can count the models of an expression or check
+ * whether it is satisfiable or valid without storing the table, stopping as
+ * soon as the answer is known.
+ */
+public final class ParallelTruthTable implements AutoCloseable {
+
+	//Maximum number of words evaluated by a single task: 2^16 rows
+	private static final int MAX_CHUNK_WORDS = 1 << 10;
+	//Number of chunks per thread, so that threads that finish early can steal work
+	private static final int CHUNKS_PER_THREAD = 8;
+
+	private final ForkJoinPool pool;
+	private final boolean ownsPool;
+
+	/**
+	 * Creates an engine that uses the common pool.
+	 */
+	public ParallelTruthTable() {
+		this(ForkJoinPool.commonPool(), false);
+	}
+
+	/**
+	 * Creates an engine with its own pool, which is shut down when the engine is closed.
+	 * @param parallelism The number of threads to use
+	 */
+	public ParallelTruthTable(int parallelism) {
+		this(new ForkJoinPool(parallelism), true);
+	}
+
+	/**
+	 * Creates an engine that uses the given pool.
+	 * @param pool The pool where tables are calculated
+	 */
+	public ParallelTruthTable(ForkJoinPool pool) {
+		this(pool, false);
+	}
+
+	private ParallelTruthTable(ForkJoinPool pool, boolean ownsPool) {
+		this.pool = pool;
+		this.ownsPool = ownsPool;
+	}
+
+	public int getParallelism() {
+		return pool.getParallelism();
+	}
+
+	/**
+	 * Calculates the truth table of a logic expression.
+	 * @param input The expression
+	 * @return Its truth table
+	 * @throws IllegalArgumentException If the expression has more than {@link TruthTable#MAX_VARIABLES} variables
+	 */
+	public TruthTable table(PropLogic input) {
+		return table(CompiledPropLogic.compile(input));
+	}
+
+	/**
+	 * Calculates the truth table of a compiled logic expression.
+	 * @param compiled The compiled expression
+	 * @return Its truth table
+	 * @throws IllegalArgumentException If the expression has more than {@link TruthTable#MAX_VARIABLES} variables
+	 */
+	public TruthTable table(CompiledPropLogic compiled) {
+		long[] values = new long[TruthTable.wordCount(compiled)];
+		pool.invoke(new TableTask(compiled, values, 0, values.length, chunkSize(values.length)));
+		return new TruthTable(compiled, values);
+	}
+
+	/**
+	 * Counts the rows of the truth table in which an expression is true, without
+	 * storing the table.
+	 * @param input The expression
+	 * @return The number of models of the expression
+	 */
+	public long countTrue(PropLogic input) {
+		CompiledPropLogic compiled = CompiledPropLogic.compile(input);
+		int words = TruthTable.wordCount(compiled);
+		return pool.invoke(new SummaryTask(compiled, Summary.COUNT, null,
+				0, words, chunkSize(words)));
+	}
+
+	/**
+	 * Checks whether an expression is true in any row of its truth table.
+	 * @param input The expression
+	 * @return True if the expression is satisfiable
+	 */
+	public boolean isSatisfiable(PropLogic input) {
+		return search(input, Summary.FIND_TRUE);
+	}
+
+	/**
+	 * Checks whether an expression is true in every row of its truth table.
+	 * @param input The expression
+	 * @return True if the expression is valid
+	 */
+	public boolean isValid(PropLogic input) {
+		return !search(input, Summary.FIND_FALSE);
+	}
+
+	//Looks for a row with the wanted value, stopping every task once it is found
+	private boolean search(PropLogic input, Summary summary) {
+		CompiledPropLogic compiled = CompiledPropLogic.compile(input);
+		int words = TruthTable.wordCount(compiled);
+		AtomicBoolean found = new AtomicBoolean(false);
+		pool.invoke(new SummaryTask(compiled, summary, found, 0, words, chunkSize(words)));
+		return found.get();
+	}
+
+	//Number of words evaluated by each task
+	private int chunkSize(int words) {
+		long chunks = (long) pool.getParallelism() * CHUNKS_PER_THREAD;
+		return (int) Math.max(1, Math.min(MAX_CHUNK_WORDS, words / chunks));
+	}
+
+	@Override
+	public void close() {
+		if(ownsPool) {
+			pool.shutdown();
+		}
+	}
+
+	private enum Summary {COUNT, FIND_TRUE, FIND_FALSE}
+
+	//Evaluates a range of words of the table into the shared vector
+	private static class TableTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final CompiledPropLogic compiled;
+		private final long[] values;
+		private final int from;
+		private final int to;
+		private final int chunkSize;
+
+		private TableTask(CompiledPropLogic compiled, long[] values, int from, int to, int chunkSize) {
+			this.compiled = compiled;
+			this.values = values;
+			this.from = from;
+			this.to = to;
+			this.chunkSize = chunkSize;
+		}
+
+		@Override
+		protected void compute() {
+			if(to - from <= chunkSize) {
+				TruthTable.evalWords(compiled.evaluator(), compiled.getVariables().size(),
+						from, to, values, from);
+			} else {
+				int middle = (from + to) >>> 1;
+				invokeAll(new TableTask(compiled, values, from, middle, chunkSize),
+						new TableTask(compiled, values, middle, to, chunkSize));
+			}
+		}
+	}
+
+	//Evaluates a range of words of the table, keeping only a summary of them
+	private static class SummaryTask extends RecursiveTask<Long> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final CompiledPropLogic compiled;
+		private final Summary summary;
+		private final AtomicBoolean found;
+		private final int from;
+		private final int to;
+		private final int chunkSize;
+
+		private SummaryTask(CompiledPropLogic compiled, Summary summary, AtomicBoolean found,
+				int from, int to, int chunkSize) {
+			this.compiled = compiled;
+			this.summary = summary;
+			this.found = found;
+			this.from = from;
+			this.to = to;
+			this.chunkSize = chunkSize;
+		}
+
+		@Override
+		protected Long compute() {
+			long res = 0;
+
+			if(found != null && found.get()) {
+				//Another task already has the answer
+				res = 0;
+			} else if(to - from <= chunkSize) {
+				int size = compiled.getVariables().size();
+				long[] words = new long[to - from];
+				TruthTable.evalWords(compiled.evaluator(), size, from, to, words, 0);
+				//Rows that do not exist in tables with less than 64 rows
+				long lastMask = size >= 6? -1L : (1L << (1 << size)) - 1;
+
+				for (int i = 0; i < words.length; i++) {
+					switch (summary) {
+					case COUNT:
+						res += Long.bitCount(words[i]);
+						break;
+					case FIND_TRUE:
+						if(words[i] != 0) {
+							found.set(true);
+						}
+						break;
+					case FIND_FALSE:
+						if(words[i] != lastMask) {
+							found.set(true);
+						}
+						break;
+					}
+				}
+			} else {
+				int middle = (from + to) >>> 1;
+				SummaryTask left = new SummaryTask(compiled, summary, found, from, middle, chunkSize);
+				SummaryTask right = new SummaryTask(compiled, summary, found, middle, to, chunkSize);
+				left.fork();
+				res = right.compute() + left.join();
+			}
+			return res;
+		}
+	}
+}
@@ -1,9 +1,15 @@
 package es.etomas.logiccalc.functions;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -13,6 +19,15 @@ import java.util.stream.Stream;
 import es.etomas.logiccalc.logicparsers.PropLogic;
 import es.etomas.logiccalc.logicparsers.PropLogic.LogicType;
 
+/**
+ * Operations on logic expressions: normal forms, clauses, and the algorithms
+ * that decide whether expressions or clauses are satisfiable.
+ * <p>
+ * The algorithms without a {@link SolverContext} add their steps to
+ * {@link OpStepsSingleton}, where the calculator reads them. Calls from
+ * several threads at the same time would mix their steps there, so concurrent
+ * callers pass their own context, such as {@link SolverContext#untraced()}.
+ */
 public abstract class PropLogicUtils {
 
 	/**
@@ -44,175 +59,153 @@ public abstract class PropLogicUtils {
 
 
 	/**
-	 * Checks if the given logic expression is in CNF or not
+	 * Checks if the given logic expression is in CNF or not. Expressions know
+	 * their shape since they are built, so this takes constant time.
 	 * @param input The expression to check
 	 * @return A Boolean representing whether the expression is in CNF or not
 	 */
 	public static boolean isCNF(PropLogic input) {
-
-		//Skip other calculations if the expression is a negated operation
-		boolean res = input.isAtom() || !input.isNegated();
-
-		if(res) {
-			switch (input.getType()) {
-			//If disjunction, it must not have a conjunction nested inside
-			case DISJUNCTION:
-				res = input.stream().noneMatch(expr->expr.getType() == LogicType.CONJUNCTION);
-				break;
-			case ATOM : break;
-			//Cannot contain exclusive disjunctions or implications
-			case BICONDITIONAL,IMPLICATION:
-				res = false;
-				break;
-			//If conjunction, both of its children must be in CNF
-			case CONJUNCTION:
-				res = isCNF(input.getLeft()) && isCNF(input.getRight());
-			break;
-			
-			}
-		}
-		return res;
+		return input.isCNF();
 	}
 
 	/**
 	 * Calculates the CNF of a logical expression.
+	 * <p>
+	 * The conversion is done in a single bottom-up pass that pushes negations
+	 * and removes implications as it goes, so only the nodes of the result are
+	 * built. Subexpressions already in CNF are returned as they are, and shared
+	 * subexpressions are only converted once.
 	 *
-	 * @param input The expression to modify
-	 * @return A copy of the expression in CNF
+	 * @param input The expression to convert
+	 * @return The expression in CNF
 	 */
 	public static PropLogic toCNF(PropLogic input) {
-		//Copy that will be modified to CNF
-		PropLogic inputCopy = input.getCopy();
+		return toCNF(input, new HashMap<>());
+	}
 
-		//The expression is returned after applying all needed changes
-		if(!isCNF(inputCopy)) {
-			switch (inputCopy.getType()) {
-			//Atoms return themselves
-			case ATOM: break;
-			//Disjunctions apply the Distribution law or De Morgan if they're negated
-			case DISJUNCTION:
-				if(!inputCopy.isNegated()) {
-					inputCopy.setChildren(toCNF(inputCopy.getLeft()),
-							toCNF(inputCopy.getRight()));
-
-					//Distribution law:
-					//Obtaining the children of the contained expressions
-					List<PropLogic> leftChildren = inputCopy.getLeft().isAtom()||
-							inputCopy.getLeft().getType() == LogicType.DISJUNCTION?
-									List.of(inputCopy.getLeft()):
-									inputCopy.getLeft().getChildren();
-					List<PropLogic> rightChildren = inputCopy.getRight().isAtom() ||
-							inputCopy.getRight().getType() == LogicType.DISJUNCTION?
-							List.of(inputCopy.getRight()):
-							inputCopy.getRight().getChildren();
-
-					List<PropLogic> zipped = new ArrayList<>();
-					//Combining each child with its counterpart in the list through
-					//a new disjunction
-					leftChildren.stream()
-						.forEach(l->rightChildren.stream()
-								.forEach(r->zipped.add(PropLogic.ofOp(l, "or", r))));
-
-					//Combine all disjunctions into conjunctions
-					inputCopy = zipped.stream()
-						.reduce((l1, l2) -> PropLogic.ofOp(l1, "and", l2))
-						.orElse(null);
+	private static PropLogic toCNF(PropLogic input, Map<PropLogic, PropLogic> converted) {
+		PropLogic res = input.isCNF()? input : converted.get(input);
 
-				} else {
-					//Apply De Morgan if formula is negated
-					inputCopy.negate();
-					inputCopy.getLeft().negate();
-					inputCopy.getRight().negate();
-					inputCopy.setType(LogicType.CONJUNCTION);
-					toCNF(inputCopy);
-				}
-				break;
+		if(res == null) {
+			PropLogic left = input.getLeft();
+			PropLogic right = input.getRight();
+			boolean negated = input.isNegated();
+
+			switch (input.getType()) {
+			//Conjunctions keep the CNF of their children,
+			//negated ones apply De Morgan
 			case CONJUNCTION:
-				if(!inputCopy.isNegated()) {
-					//Get the CNF of both children
-					inputCopy.setChildren(toCNF(inputCopy.getLeft()),
-							toCNF(inputCopy.getRight()));
-				} else {
-				//Apply De Morgan if formula is negated
-					inputCopy.negate();
-					inputCopy.getLeft().negate();
-					inputCopy.getRight().negate();
-					inputCopy.setType(LogicType.DISJUNCTION);
-					toCNF(inputCopy);
-				}
+				res = !negated?
+						conjunction(toCNF(left, converted), toCNF(right, converted)):
+						distribute(toCNF(left.getComplementary(), converted),
+								toCNF(right.getComplementary(), converted));
 				break;
-			case BICONDITIONAL:
-				//Convert into conjunction of implications of both children
-				List<PropLogic> children = inputCopy.getChildren();
-				inputCopy.setType(LogicType.CONJUNCTION);
-				inputCopy.setChildren(
-						PropLogic.ofOp(children.get(0).getCopy().negate(), "or", children.get(1).getCopy()),
-						PropLogic.ofOp(children.get(1).negate(), "or", children.get(0)));
-				toCNF(inputCopy);
+			//Disjunctions apply the Distribution law,
+			//negated ones apply De Morgan
+			case DISJUNCTION:
+				res = !negated?
+						distribute(toCNF(left, converted), toCNF(right, converted)):
+						conjunction(toCNF(left.getComplementary(), converted),
+								toCNF(right.getComplementary(), converted));
 				break;
+			//(A -> B): (!A or B), !(A -> B): (A and !B)
 			case IMPLICATION:
-				//Convert into disjunction with negated first element
-				inputCopy.getLeft().negate();
-				inputCopy.setType(LogicType.DISJUNCTION);
-				inputCopy = toCNF(inputCopy);
+				res = !negated?
+						distribute(toCNF(left.getComplementary(), converted), toCNF(right, converted)):
+						conjunction(toCNF(left, converted), toCNF(right.getComplementary(), converted));
 				break;
+			//(A <-> B): (!A or B) and (!B or A)
+			//!(A <-> B): (A or B) and (!A or !B)
+			case BICONDITIONAL:
+				PropLogic leftCNF = toCNF(left, converted);
+				PropLogic rightCNF = toCNF(right, converted);
+				PropLogic negatedLeftCNF = toCNF(left.getComplementary(), converted);
+				PropLogic negatedRightCNF = toCNF(right.getComplementary(), converted);
+				res = !negated?
+						conjunction(distribute(negatedLeftCNF, rightCNF),
+								distribute(negatedRightCNF, leftCNF)):
+						conjunction(distribute(leftCNF, rightCNF),
+								distribute(negatedLeftCNF, negatedRightCNF));
+				break;
+			//Atoms are always in CNF
+			case ATOM: break;
 			}
+			converted.put(input, res);
 		}
-		return inputCopy;
+		return res;
 	}
 
+	//Conjunction of two expressions in CNF, which is also in CNF
+	private static PropLogic conjunction(PropLogic left, PropLogic right) {
+		return PropLogic.ofOp(left, LogicType.CONJUNCTION, right);
+	}
 
 	/**
-	 * Print the truth table of a given logic expression.
+	 * Distribution law: Gets the CNF of the disjunction of two expressions in
+	 * CNF, combining each clause of one with each clause of the other.
+	 */
+	private static PropLogic distribute(PropLogic left, PropLogic right) {
+		PropLogic res;
+		if(left.getType() == LogicType.CONJUNCTION) {
+			res = conjunction(distribute(left.getLeft(), right),
+					distribute(left.getRight(), right));
+		} else if(right.getType() == LogicType.CONJUNCTION) {
+			res = conjunction(distribute(left, right.getLeft()),
+					distribute(left, right.getRight()));
+		} else {
+			res = PropLogic.ofOp(left, LogicType.DISJUNCTION, right);
+		}
+		return res;
+	}
+
+
+	/**
+	 * Print the truth table of a given logic expression to
+	 * {@link OpStepsSingleton}. Concurrent callers use
+	 * {@link #truthTable(PropLogic, SolverContext)} with their own context.
 	 * @param input
 	 */
 	public static void truthTable(PropLogic input) {
-		
-		List<String> atoms = atomSet(input).stream()
-				.map(PropLogic::getLabel)
-				.distinct()
-				.sorted()
-				.toList();
-
-		//Max binary value: 2^n - 1
-		Integer length = (int) Math.pow(2, atoms.size());
-
-		//Header: Variable names separated by spaces, and the input expression
-		OpStepsSingleton.getInstance().addExplanation(atoms.toString().replaceAll("[\\[,\\]]", "")
-				+ "\t" + input);
-
-		for (int i = 0; i < length; i++) {
-			//Binary value separated by spaces in each digit
-			String binary = String.format("%" + atoms.size() + "s",
-						Integer.toBinaryString(i))
-					.replace(" ", "0")
-					.replace("", " ")
-					.trim();
-
-			String[] values = binary.split(" ");
-
-			//Mapping each variable to their respective value in the
-			//binary String
-			Map<String, Boolean> mappedValues = atoms.stream()
-					.collect(Collectors.toMap(
-							at->at,
-							s->values[atoms.indexOf(s)].equals("1")));
-
-			//Printed line: The binary string and the value it returns, the latter
-			//centered under the input
-			OpStepsSingleton.getInstance().addExplanation(binary + "\t" +
-					String.format("%" + input.toString().length()/2 + "s",
-							(input.eval(mappedValues)? "1" : "0")));
+		truthTable(input, SolverContext.steps());
+	}
+
+	/**
+	 * Traces every line of the truth table of a given logic expression, which
+	 * is only calculated if the tracer of the context is enabled. Each row is a
+	 * step of the context.
+	 * @param input The expression
+	 * @param context The context with the destination of the lines
+	 */
+	public static void truthTable(PropLogic input, SolverContext context) {
+		Tracer tracer = context.getTracer();
+		if(tracer.isEnabled()) {
+			TruthTable table = TruthTable.of(input);
+			tracer.trace(new TraceEvent.TableLine(table, -1));
+			for (long row = 0; row < table.getRowCount(); row++) {
+				context.step();
+				tracer.trace(new TraceEvent.TableLine(table, row));
+			}
 		}
 	}
 
+	/**
+	 * Writes the truth table of a given logic expression as text, one row at a
+	 * time, without storing it.
+	 * @param input The expression
+	 * @param output The writer where the table is written
+	 * @throws IOException If the writer cannot be written
+	 */
+	public static void truthTable(PropLogic input, Writer output) throws IOException {
+		new TruthTableWriter(TruthTableWriter.Format.TEXT).write(input, output);
+	}
+
 	/**
 	 * Relative to truth trees, checks if a given logic expression is classified as
 	 * alpha. A false value indicates that it's classified as beta.
 	 * @param input The expression to check
 	 * @return Whether the expression is an alpha expression or not
 	 */
-	private static boolean isAlpha(PropLogic input) {
+	static boolean isAlpha(PropLogic input) {
 		boolean res = false;
 
 		switch (input.getType()) {
@@ -231,14 +224,60 @@ public abstract class PropLogicUtils {
 		return res;
 	}
 
+	/**
+	 * Relative to truth trees, gets the components of a non atomic expression.
+	 * Alpha expressions are replaced by both, and beta expressions split the
+	 * branch in one for each component.
+	 * @param toOperate The expression
+	 * @return Its two components
+	 */
+	static List<PropLogic> components(PropLogic toOperate) {
+		List<PropLogic> components = List.of();
+		//Get components of the expression
+		switch(toOperate.getType()) {
+		//(A and B), (A or B): A, B
+		case CONJUNCTION, DISJUNCTION:
+			components = List.of(
+					toOperate.getLeft(),
+					toOperate.getRight());
+			break;
+		//(A <-> B): (A -> B),(B -> A)
+		case BICONDITIONAL:
+			 components = List.of(
+					 PropLogic.ofOp(toOperate.getLeft(), LogicType.IMPLICATION, toOperate.getRight()),
+					 PropLogic.ofOp(toOperate.getRight(), LogicType.IMPLICATION, toOperate.getLeft()));
+			break;
+		//(A -> B): !A, B
+		case IMPLICATION:
+			 components = List.of(
+					 toOperate.getLeft().getComplementary(),
+					 toOperate.getRight());
+			break;
+		case ATOM:
+			throw new IllegalArgumentException("Cannot operate on an atom");
+		}
+
+		//If the original expression is negated, negate all
+		//components
+		if(toOperate.isNegated()) {
+			components = components.stream()
+					.map(PropLogic::getComplementary)
+					.toList();
+		}
+
+		return components;
+	}
+
 	/**
 	 * Operates on a branch of a truth tree, prioritizing alpha operations.
 	 * @param branch A Set of logic expressions representing a branch of the tree
 	 * @return A Set including the resulting branch(es)
 	 */
-	private static Set<Set<PropLogic>> truthTreeOp(Set<PropLogic> branch) {
+	private static Set<Set<PropLogic>> truthTreeOp(Set<PropLogic> branch, Tracer tracer) {
 
-		OpStepsSingleton.getInstance().addExplanation("  Operating on branch: " + branch);
+		if(tracer.isEnabled()) {
+			tracer.trace(new TraceEvent.OperatingOnBranch(branch));
+		}
 
 		Set<Set<PropLogic>> resBranches = Set.of(branch);
 
@@ -254,50 +293,18 @@ public abstract class PropLogicUtils {
 		//Avoid any other calculations if all elements are atoms
 		if(toOperate != null) {
 
-			OpStepsSingleton.getInstance().addExplanation("    Chosen expression: " + toOperate);
-			List<PropLogic> components = List.of();
-			//Get components of the expression
-			switch(toOperate.getType()) {
-			//(A and B), (A or B): A, B
-			case CONJUNCTION, DISJUNCTION:
-				components = List.of(
-						toOperate.getLeft(),
-						toOperate.getRight());
-				break;
-			//(A <-> B): (A -> B),(B -> A)
-			case BICONDITIONAL:
-				 components = List.of(
-						 PropLogic.ofOp(toOperate.getLeft().getCopy(), "->", toOperate.getRight().getCopy()),
-						 PropLogic.ofOp(toOperate.getRight(), "->", toOperate.getLeft()));
-				break;
-			//(A -> B): !A, B
-			case IMPLICATION:
-				 components = List.of(
-						 toOperate.getLeft().negate(),
-						 toOperate.getRight());
-				break;
-			case ATOM:
-				throw new IllegalArgumentException("Cannot operate on an atom");
+			if(tracer.isEnabled()) {
+				tracer.trace(new TraceEvent.ChosenExpression(toOperate));
 			}
-
-			//If the original expression is negated, negate all
-			//components
-			if(toOperate.isNegated()) {
-						components = components.stream()
-							.map(PropLogic::negate)
-							.toList();
-					}
-
-			//List to be used when mapping values
-			final List<PropLogic> finalComponents = components;
+			final List<PropLogic> finalComponents = components(toOperate);
 
 			if (isAlpha(toOperate)) {
 
 				//Alpha: Replace the operated element with its components
 				//in the branch
-				OpStepsSingleton.getInstance().addExplanation("    Alpha operation: " +
-						(toOperate.isNegated()?"negated ":"") +
-						toOperate.getType().toString().toLowerCase());
+				if(tracer.isEnabled()) {
+					tracer.trace(new TraceEvent.AlphaOperation(toOperate));
+				}
 
 				resBranches = Set.of(branch.stream()
 						.flatMap(expr->expr.equals(toOperate)?
@@ -310,52 +317,78 @@ public abstract class PropLogicUtils {
 
 				//Beta: Split the branch in 2, with a different component of
 				//the operated element
-				OpStepsSingleton.getInstance().addExplanation("    Beta operation: " +
-						(toOperate.isNegated()?"negated ":"") +
-						toOperate.getType().toString().toLowerCase());
+				if(tracer.isEnabled()) {
+					tracer.trace(new TraceEvent.BetaSplit(toOperate));
+				}
 
-				resBranches = Set.of(
-						branch.stream()
+				//Both branches are the same when the components are
+				resBranches = finalComponents.stream()
+						.map(component->branch.stream()
 							.map(expr->expr.equals(toOperate)?
-								finalComponents.get(0):
-								expr.getCopy())
-							.collect(Collectors.toSet()),
-						branch.stream()
-						.map(expr->expr.equals(toOperate)?
-								finalComponents.get(1):
+								component:
 								expr)
-							.collect(Collectors.toSet()));
+							.collect(Collectors.toSet()))
+						.collect(Collectors.toSet());
 			}
 		} else {
-			OpStepsSingleton.getInstance().addExplanation("    Branch composed of atoms, cannot operate "
-					+ "on it");
+			if(tracer.isEnabled()) {
+				tracer.trace(new TraceEvent.Message("    Branch composed of atoms, cannot operate "
+						+ "on it"));
+			}
 		}
 
-		 OpStepsSingleton.getInstance().addExplanation("    Resulting branch(es): " + resBranches);
+		if(tracer.isEnabled()) {
+			tracer.trace(new TraceEvent.ResultingBranches(resBranches));
+		}
 		 return resBranches;
 	}
 
 	/**
 	 * Makes the truth tree of a Set of logical expressions,
-	 * returning the final result.
+	 * returning the final result. Its steps go to {@link OpStepsSingleton},
+	 * so concurrent callers use {@link #truthTree(Set, SolverContext)} with
+	 * their own context.
 	 *
 	 * @param input The expressions to make the truth tree off of
 	 * @return All the clauses resulting from the truth tree
 	 */
 	public static Set<Set<PropLogic>> truthTree(Set<PropLogic> input) {
+		return truthTree(input, SolverContext.steps());
+	}
+
+	/**
+	 * Makes the truth tree of a Set of logical expressions,
+	 * returning the final result.
+	 *
+	 * @param input The expressions to make the truth tree off of
+	 * @param context The context of the call, with a step per branch operated on
+	 * @return All the clauses resulting from the truth tree
+	 */
+	public static Set<Set<PropLogic>> truthTree(Set<PropLogic> input, SolverContext context) {
+		Tracer tracer = context.getTracer();
+		//The input is the first branch, so the trace gets a copy the caller cannot change
+		Set<PropLogic> start = tracer.isEnabled()?
+				Collections.unmodifiableSet(new LinkedHashSet<>(input)) : input;
 		
-		OpStepsSingleton.getInstance().addExplanation("Making truth tree of: " + input);
-		OpStepsSingleton.getInstance().addStep(input.toString());
+		if(tracer.isEnabled()) {
+			tracer.trace(new TraceEvent.TreeStart(start));
+			tracer.trace(new TraceEvent.TreeState(start));
+		}
 		
 		return Stream.iterate(
 				//Start with a set that will contain all branches
 				//(sets of expressions)
-				Set.of(input),
+				Set.of(start),
 				//Operate on each branch, which may split into more branches
 				(tree) -> {
-					OpStepsSingleton.getInstance().addStep(tree.toString());
+					if(tracer.isEnabled()) {
+						tracer.trace(new TraceEvent.TreeState(tree));
+					}
 					return tree.stream()
-						.flatMap(branch->truthTreeOp(branch).stream())
+						.flatMap(branch->{
+							context.step();
+							return truthTreeOp(branch, tracer).stream();
+						})
 						.collect(Collectors.toSet());
 					})
 				//Finished when all the branches in the tree only have
@@ -378,154 +411,197 @@ public abstract class PropLogicUtils {
 		return truthTree(Set.of(input));
 	}
 
+	/**
+	 * Evaluates if an expression can be satisfied by looking for an open
+	 * branch in its truth tree, depth-first and closing branches as soon as
+	 * they contain complementary atoms. Its steps go to
+	 * {@link OpStepsSingleton}, so concurrent callers use
+	 * {@link #tableau(PropLogic, SolverContext)} with their own context.
+	 *
+	 * @param input The expression to check
+	 * @return True if the expression is consistent
+	 */
+	public static Boolean tableau(PropLogic input) {
+		return tableau(input, SolverContext.steps());
+	}
+
+	/**
+	 * Evaluates if an expression can be satisfied by looking for an open
+	 * branch in its truth tree, depth-first and closing branches as soon as
+	 * they contain complementary atoms.
+	 *
+	 * @param input The expression to check
+	 * @param context The context of the call, with a step per branch
+	 * @return True if the expression is consistent
+	 */
+	public static Boolean tableau(PropLogic input, SolverContext context) {
+		Tracer tracer = context.getTracer();
+		if(tracer.isEnabled()) {
+			tracer.trace(new TraceEvent.TreeStart(input));
+		}
+		Set<PropLogic> branch = new TruthTree(List.of(input), null, context).findOpenBranch();
+		if(tracer.isEnabled()) {
+			tracer.trace(branch == null?
+					new TraceEvent.Message("Every branch is closed. Expression is inconsistent"):
+					new TraceEvent.OpenBranch(branch));
+		}
+		return branch != null;
+	}
+
+	/**
+	 * Gets the clauses of the CNF of an expression.
+	 *
+	 * @param input The expression to get the clauses from
+	 * @return The set of clauses, each one as a set of atoms
+	 */
 	public static Set<Set<PropLogic>> getClauses(PropLogic input) {
+		Set<Set<PropLogic>> res = new HashSet<>();
+		getClauses(input, ClauseSink.of(res::add));
+		return res;
+	}
+
+	/**
+	 * Gives each clause of the CNF of an expression to a sink as soon as it is
+	 * found, in a single pass that goes down through the conjunctions and
+	 * collects the atoms of each disjunction below them.
+	 *
+	 * @param input The expression to get the clauses from
+	 * @param sink The sink that receives the clauses
+	 */
+	public static void getClauses(PropLogic input, ClauseSink sink) {
 		PropLogic cnf = toCNF(input);
-		Set<PropLogic> disjunctions = cnf.stream()
-			.filter(expr->expr.getType()==LogicType.DISJUNCTION ||
-				expr.isAtom())
-			.collect(Collectors.toSet());
-
-		//Gets the disjunctions and atoms that are not a child of another
-		//Afterwards, gets their atoms
-		return disjunctions.stream()
-				.filter(expr->disjunctions.stream()
-						.noneMatch(expr2->expr2.getChildren().contains(expr)))
-				.map(PropLogicUtils::atomSet)
-				.collect(Collectors.toSet());
+
+		//Subexpressions shared by several conjunctions are only visited once
+		Set<PropLogic> visited = new HashSet<>();
+		Deque<PropLogic> pending = new ArrayDeque<>();
+		Deque<PropLogic> disjunctions = new ArrayDeque<>();
+		List<PropLogic> clause = new ArrayList<>();
+		Set<PropLogic> clauseAtoms = new HashSet<>();
+
+		pending.push(cnf);
+		while(!pending.isEmpty()) {
+			PropLogic expr = pending.pop();
+
+			if(visited.add(expr)) {
+				if(expr.isClause()) {
+					clause.clear();
+					clauseAtoms.clear();
+					disjunctions.push(expr);
+					while(!disjunctions.isEmpty()) {
+						PropLogic literal = disjunctions.pop();
+						if(literal.isAtom()) {
+							if(clauseAtoms.add(literal)) {
+								clause.add(literal);
+							}
+						} else {
+							disjunctions.push(literal.getRight());
+							disjunctions.push(literal.getLeft());
+						}
+					}
+					sink.accept(clause);
+				} else {
+					pending.push(expr.getRight());
+					pending.push(expr.getLeft());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets a set of clauses that is satisfiable if and only if the expression is,
+	 * using Plaisted-Greenbaum definitions instead of the distribution law. Its
+	 * size is linear on the size of the expression, but it has auxiliary variables.
+	 *
+	 * @param input The expression to get the clauses from
+	 * @return The set of clauses
+	 * @see TseitinEncoder
+	 */
+	public static Set<Set<PropLogic>> getEquisatisfiableClauses(PropLogic input) {
+		return TseitinEncoder.clauses(input, TseitinEncoder.Mode.PLAISTED_GREENBAUM);
 	}
 
 	public static Set<PropLogic> clauseFromString(String atomLine) {
 		String[] atoms = atomLine.replace(" ", "").split(",");
 
 		return Arrays.stream(atoms)
-				.filter(s->s.length()<=2)
+				.filter(s->!s.isEmpty() && !s.equals("!"))
 				.map(s->s.charAt(0) == '!'?
 					PropLogic.ofAtom(s.substring(1), true):
 					PropLogic.ofAtom(s, false))
 				.collect(Collectors.toSet());
 	}
 
-	/**
-	 *
-	 * @param clauseFirst
-	 * @param clauseSecond
-	 * @return The new clause, null if it's not possible to make one
-	 */
-	private static Set<PropLogic> resolveClausePair(Set<PropLogic> clauseFirst, Set<PropLogic> clauseSecond) {
-
-		Set<PropLogic> res = null;
-		if(clausesHaveAnyComplementary(clauseFirst, clauseSecond)) {
-			res = new HashSet<>();
-			PropLogic atomToRemove = clauseFirst.stream()
-					.filter(atom->clauseSecond.contains(atom.getComplementary()))
-					.findFirst()
-					.orElse(null);
-
-			res.addAll(clauseFirst);
-			res.addAll(clauseSecond);
-			res = res.stream()
-					.filter(atom->!atom.getLabel().equals(atomToRemove.getLabel()))
-					.collect(Collectors.toSet());
-			OpStepsSingleton.getInstance().addExplanation("  Resolving " + clauseFirst + " and " + clauseSecond + ": " + res);
-		}
-
-		return res;
-	}
-
 	public static boolean clausesHaveAnyComplementary(Set<PropLogic> clauseFirst, Set<PropLogic> clauseSecond) {
 		return clauseFirst.stream()
 				.anyMatch(atom->clauseSecond.contains(atom.getComplementary()));
 	}
 
-	/**
-	 * Gets if the subsuming expression can be subsumed by the subsumer in resolution.
-	 * @param subsuming
-	 * @param subsumer
-	 * @return True if subsumer can subsume the subsuming clause, false otherwise
-	 */
-	private static boolean canSubsume(Set<PropLogic> subsuming, Set<PropLogic> subsumer) {
-		boolean res = !subsumer.equals(Set.of()) && subsuming.containsAll(subsumer) && subsuming.size() > subsumer.size();
-		if(res) {
-			OpStepsSingleton.getInstance().addExplanation("  " + subsuming + " subsumed by " + subsumer);
-		}
-		return res;
-	}
-
 	/**
 	 * Evaluates if the set of clauses can be satisfied using the resolution method.
-	 * Can print its steps on the console.
+	 * Its steps go to {@link OpStepsSingleton}, so concurrent callers use
+	 * {@link #resolution(Set, SolverContext)} with their own context.
 	 *
 	 * @param clauses
 	 * @return
 	 */
 	public static Boolean resolution(Set<Set<PropLogic>> clauses) {
-		return resolutionAux(clauses, new HashMap<>());
+		return resolution(clauses, SolverContext.steps());
 	}
 
-	//Main recursive function for resolution
-	private static Boolean resolutionAux(Set<Set<PropLogic>> clauses, Map<Set<Set<PropLogic>>,Set<PropLogic>> mem) {
-		Boolean res;
-
-		OpStepsSingleton.getInstance().addExplanation("Working with clauses: " + clauses);
-
-		//Get all resulting clauses
-		 Set<Set<PropLogic>> newClauses = clauses.stream()
-				.flatMap(clause1->clauses
-						.stream()
-						.filter(clause2->!clause1.equals(clause2))
-						//Uses the memory to find the resolution of 2 clauses, adding
-						//new entries if necessary
-						.map(clause2->mem.computeIfAbsent(
-								Set.of(clause1,clause2),
-								s->resolveClausePair(clause1, clause2))))
-				.collect(Collectors.toSet());
-
-		newClauses.remove(null);
-
-		//Combines the initial clauses and new clauses, removing duplicates
-		Set<Set<PropLogic>> allClauses = Stream.concat(clauses.stream(), newClauses.stream())
-				.collect(Collectors.toSet());
-
-		OpStepsSingleton.getInstance().addExplanation("Obtained clauses: " + allClauses);
-
-		//Removes subsumed clauses
-		Set<Set<PropLogic>> resClauses = allClauses.stream()
-				.filter(clause->allClauses.stream()
-						.noneMatch(subsumer->canSubsume(clause, subsumer)))
-				.collect(Collectors.toSet());
-
-
-
-		//Empty set: Inconsistent
-		if(resClauses.contains(Set.of())) {
-			OpStepsSingleton.getInstance().addExplanation("Encountered empty clause. Clause set is inconsistent");
-			res = false;
-		//No changes in clauses: Consistent
-		} else if(resClauses.equals(clauses)) {
-			OpStepsSingleton.getInstance().addExplanation("Clauses have not changed after last iteration. Clause set is consistent.");
-			res = true;
-		//New iteration
-		} else {
-			res = resolutionAux(resClauses, mem);
+	/**
+	 * Evaluates if the set of clauses can be satisfied using the resolution method.
+	 *
+	 * @param clauses
+	 * @param context The context of the call, with a step per given clause
+	 * @return True if the set is consistent
+	 */
+	public static Boolean resolution(Set<Set<PropLogic>> clauses, SolverContext context) {
+		if(context.getTracer().isEnabled()) {
+			context.getTracer().trace(new TraceEvent.WorkingWith(clauses));
 		}
+		return new ResolutionProver(ClauseDatabase.of(clauses), context).prove();
+	}
 
-		return res;
+	/**
+	 * Evaluates if an expression can be satisfied using the resolution method,
+	 * on its equisatisfiable clauses.
+	 *
+	 * @param input The expression to check
+	 * @return True if the expression is consistent
+	 */
+	public static Boolean resolution(PropLogic input) {
+		return resolution(getEquisatisfiableClauses(input));
 	}
 
 	/**
 	 * Evaluates if the given set of clauses is consistent through the DPLL algorythm.
-	 * Can print its steps on the console.
+	 * Its steps go to {@link OpStepsSingleton}, so concurrent callers use
+	 * {@link #dpll(Set, SolverContext)} with their own context.
 	 *
 	 * @param clauses
 	 * @return
 	 */
 	public static Boolean dpll(Set<Set<PropLogic>> clauses) {
+		return dpll(clauses, SolverContext.steps());
+	}
+
+	/**
+	 * Evaluates if the given set of clauses is consistent through the DPLL algorythm.
+	 *
+	 * @param clauses
+	 * @param context The context of the call, with a step per recursive call
+	 * @return True if the set is consistent
+	 */
+	public static Boolean dpll(Set<Set<PropLogic>> clauses, SolverContext context) {
 		
-		
+		context.step();
+		Tracer tracer = context.getTracer();
 		Boolean res = null;
 		Set<Set<PropLogic>> resClauses = null;
 
-		OpStepsSingleton.getInstance().addExplanation("Working with clauses: " + clauses);
+		if(tracer.isEnabled()) {
+			tracer.trace(new TraceEvent.WorkingWith(clauses));
+		}
 
 		Set<Set<PropLogic>> tautologies = clauses.stream()
 				.filter(clause->clause.stream()
@@ -543,22 +619,28 @@ public abstract class PropLogicUtils {
 
 		//Empty set: consistent
 		if(clauses.equals(Set.of())) {
-			OpStepsSingleton.getInstance().addExplanation("Set of clauses is empty. Set is consistent.");
+			if(tracer.isEnabled()) {
+				tracer.trace(new TraceEvent.Message("Set of clauses is empty. Set is consistent."));
+			}
 			res = true;
 
 		//Empty clause: inconsistent
 		} else if(clauses.contains(Set.of())) {
-			OpStepsSingleton.getInstance().addExplanation("Encountered empty clause. Set is inconsistent.");
+			if(tracer.isEnabled()) {
+				tracer.trace(new TraceEvent.Message("Encountered empty clause. Set is inconsistent."));
+			}
 			res = false;
 
 		//Operating:
 		//Remove tautologies
 		} else if(!tautologies.isEmpty()) {
-			OpStepsSingleton.getInstance().addExplanation("  Removing tautologies: " + tautologies);
+			if(tracer.isEnabled()) {
+				tracer.trace(new TraceEvent.TautologiesRemoved(tautologies));
+			}
 			resClauses = clauses.stream()
 					.filter(clause->!tautologies.contains(clause))
 					.collect(Collectors.toSet());
-			res = dpll(resClauses);
+			res = dpll(resClauses, context);
 
 		//Unit propagation
 		} else if(!literals.isEmpty()) {
@@ -571,7 +653,9 @@ public abstract class PropLogicUtils {
 					.findAny()
 					.orElse(null);
 
-			OpStepsSingleton.getInstance().addExplanation("  Unit propagation: " + atom);
+			if(tracer.isEnabled()) {
+				tracer.trace(new TraceEvent.UnitPropagation(atom));
+			}
 
 			//Remove the 2 above
 			resClauses = clauses.stream()
@@ -580,7 +664,7 @@ public abstract class PropLogicUtils {
 							.filter(expr->!expr.equals(atom.getComplementary()))
 							.collect(Collectors.toSet()))
 					.collect(Collectors.toSet());
-			res = dpll(resClauses);
+			res = dpll(resClauses, context);
 
 		//Pure literal elimination
 		} else if(!pureLiterals.isEmpty()) {
@@ -588,12 +672,14 @@ public abstract class PropLogicUtils {
 					.findAny()
 					.orElse(null);
 
-			OpStepsSingleton.getInstance().addExplanation("  Pure literal elimination: " + pureLiteral);
+			if(tracer.isEnabled()) {
+				tracer.trace(new TraceEvent.PureLiteral(pureLiteral));
+			}
 
 			resClauses = clauses.stream()
 					.filter(clause->!clause.contains(pureLiteral))
 					.collect(Collectors.toSet());
-			res = dpll(resClauses);
+			res = dpll(resClauses, context);
 
 		//Division rule if all else fails
 		} else {
@@ -602,15 +688,17 @@ public abstract class PropLogicUtils {
 					.orElse(null);
 
 			//Division rule
-			OpStepsSingleton.getInstance().addExplanation("Could not operate on clause set. Applying division rule with literal: " + atom);
+			if(tracer.isEnabled()) {
+				tracer.trace(new TraceEvent.Division(atom));
+			}
 			res = dpll(Stream.concat(clauses.stream(), Set.of(Set.of(atom)).stream())
-						.collect(Collectors.toSet())) ||
+						.collect(Collectors.toSet()), context) ||
 					dpll(Stream.concat(clauses.stream(), Set.of(Set.of(atom.getComplementary())).stream())
-							.collect(Collectors.toSet()));
-			if(res) {
-				OpStepsSingleton.getInstance().addExplanation("Division rule successful. Clause set is consistent.");
-			} else {
-				OpStepsSingleton.getInstance().addExplanation("Division rule unsuccessful. Clause set is inconsistent.");
+							.collect(Collectors.toSet()), context);
+			if(tracer.isEnabled()) {
+				tracer.trace(new TraceEvent.Message(res?
+						"Division rule successful. Clause set is consistent.":
+						"Division rule unsuccessful. Clause set is inconsistent."));
 			}
 		}
 
@@ -619,4 +707,64 @@ public abstract class PropLogicUtils {
 	
 
 	
+	/**
+	 * Evaluates if an expression is consistent through the DPLL algorythm, on its
+	 * equisatisfiable clauses.
+	 *
+	 * @param input The expression to check
+	 * @return True if the expression is consistent
+	 */
+	public static Boolean dpll(PropLogic input) {
+		return dpll(getEquisatisfiableClauses(input));
+	}
+
+	/**
+	 * Finds a model of the given set of clauses through conflict driven clause
+	 * learning. Unlike {@link #dpll}, it only explains the result, not every step.
+	 * The explanation goes to {@link OpStepsSingleton}, so concurrent callers use
+	 * {@link #cdcl(Set, SolverContext)} with their own context.
+	 *
+	 * @param clauses
+	 * @return A value for each variable that satisfies the clauses, null if the set is inconsistent
+	 */
+	public static Map<String, Boolean> cdcl(Set<Set<PropLogic>> clauses) {
+		return cdcl(clauses, SolverContext.steps());
+	}
+
+	/**
+	 * Finds a model of the given set of clauses through conflict driven clause
+	 * learning.
+	 *
+	 * @param clauses
+	 * @param context The context of the call, with a step per conflict
+	 * @return A value for each variable that satisfies the clauses, null if the set is inconsistent
+	 */
+	public static Map<String, Boolean> cdcl(Set<Set<PropLogic>> clauses, SolverContext context) {
+		Tracer tracer = context.getTracer();
+		if(tracer.isEnabled()) {
+			tracer.trace(new TraceEvent.WorkingWith(clauses));
+		}
+
+		Map<String, Boolean> res = CdclSolver.solve(clauses, context);
+
+		if(tracer.isEnabled()) {
+			tracer.trace(res != null?
+					new TraceEvent.Model(res):
+					new TraceEvent.Message("Learnt the empty clause. Clause set is inconsistent."));
+		}
+		return res;
+	}
+
+	/**
+	 * Finds a model of an expression through conflict driven clause learning, on
+	 * its equisatisfiable clauses. The model also gives values to the auxiliary
+	 * variables of the clauses.
+	 *
+	 * @param input The expression to check
+	 * @return A value for each variable that satisfies the expression, null if it is inconsistent
+	 */
+	public static Map<String, Boolean> cdcl(PropLogic input) {
+		return cdcl(getEquisatisfiableClauses(input));
+	}
+
 }
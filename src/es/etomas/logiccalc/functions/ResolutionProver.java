@@ -0,0 +1,396 @@
+package es.etomas.logiccalc.functions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import es.etomas.logiccalc.logicparsers.PropLogic;
+
+/**
+ * Resolution prover that follows the given-clause loop.
+ * <p>
+ * Clauses wait in an unprocessed queue ordered by size and then by age. Each
+ * step takes the best one, the given clause, and drops it if a processed clause
+ * subsumes it. Otherwise it removes the processed clauses it subsumes, and
+ * resolves it with every processed clause that has a complementary literal.
+ * The processed clauses are kept in a {@link SubsumptionIndex}, which answers
+ * the subsumption queries and lists the clauses that contain each literal. The
+ * clause set is inconsistent once the empty clause is given, and consistent
+ * once the queue is empty.
+ * <p>
+ * With a pool, the resolvents of each given clause are built and checked
+ * against the processed clauses in parallel, while nothing else changes. They
+ * are then queued one by one in the order of their partners, so the proof is
+ * the same whatever the number of threads.
+ * <p>
+ * Clauses are sorted arrays of DIMACS literals, see {@link ClauseDatabase}.
+ */
+public final class ResolutionProver {
+
+	//Pairs of a given clause needed to resolve them in parallel, and pairs per task
+	private static final int PARALLEL_PAIRS = 128;
+	private static final int TASK_PAIRS = 32;
+
+	private final ClauseDatabase database;
+	private final SolverContext context;
+	private final Tracer tracer;
+	private final ForkJoinPool pool;
+
+	private final PriorityQueue<Clause> unprocessed = new PriorityQueue<>(
+			Comparator.<Clause>comparingInt(c->c.literals.length).thenComparingLong(c->c.age));
+	private final SubsumptionIndex processed = new SubsumptionIndex();
+	//Processed clauses by their id in the index
+	private final List<Clause> processedClauses = new ArrayList<>();
+	//Every clause ever generated, so that none is queued twice
+	private final Set<Clause> generated = new HashSet<>();
+	private long age = 0;
+
+	//Statistics
+	private long resolvents = 0;
+	private long subsumed = 0;
+
+	/**
+	 * Creates a sequential prover for the clauses of a database.
+	 * @param database The clauses, also used to name atoms in the trace
+	 * @param context The context of the proof, with a step per given clause
+	 */
+	public ResolutionProver(ClauseDatabase database, SolverContext context) {
+		this(database, context, null);
+	}
+
+	/**
+	 * Creates a prover for the clauses of a database that builds resolvents in
+	 * a pool.
+	 * @param database The clauses, also used to name atoms in the trace
+	 * @param context The context of the proof, with a step per given clause
+	 * @param pool The pool, null to build them in the calling thread
+	 */
+	public ResolutionProver(ClauseDatabase database, SolverContext context, ForkJoinPool pool) {
+		this.database = database;
+		this.context = context;
+		this.tracer = context.getTracer();
+		this.pool = pool;
+		for (int c = 0; c < database.getClauseCount(); c++) {
+			addClause(database.getClause(c));
+		}
+	}
+
+	/**
+	 * Checks whether the clauses of a database are consistent.
+	 * @param database The clauses
+	 * @return True if they are consistent
+	 */
+	public static boolean isSatisfiable(ClauseDatabase database) {
+		return new ResolutionProver(database, SolverContext.untraced()).prove();
+	}
+
+	/**
+	 * Checks whether the clauses of a database are consistent, building the
+	 * resolvents in a pool.
+	 * @param database The clauses
+	 * @param pool The pool
+	 * @return True if they are consistent
+	 */
+	public static boolean isSatisfiable(ClauseDatabase database, ForkJoinPool pool) {
+		return new ResolutionProver(database, SolverContext.untraced(), pool).prove();
+	}
+
+	/**
+	 * Runs the given-clause loop until the empty clause is found or no clauses
+	 * are left to process.
+	 * @return True if the clauses are consistent, false if they are inconsistent
+	 * @throws java.util.concurrent.CancellationException If a limit of the context was reached
+	 */
+	public boolean prove() {
+		Boolean res = null;
+
+		while(res == null) {
+			Clause given = unprocessed.poll();
+
+			if(given == null) {
+				if(tracer.isEnabled()) {
+					tracer.trace(new TraceEvent.Message("Every clause has been processed. Clause set is consistent."));
+				}
+				res = true;
+			} else if(given.literals.length == 0) {
+				if(tracer.isEnabled()) {
+					tracer.trace(new TraceEvent.Message("Encountered empty clause. Clause set is inconsistent"));
+				}
+				res = false;
+			} else if(!isForwardSubsumed(given)) {
+				context.step();
+				removeBackwardSubsumed(given);
+				activate(given);
+				resolveWithProcessed(given);
+			}
+		}
+		return res;
+	}
+
+	public long getResolventCount() {
+		return this.resolvents;
+	}
+
+	public long getSubsumedCount() {
+		return this.subsumed;
+	}
+
+	public int getProcessedCount() {
+		return this.processed.size();
+	}
+
+	//Queues an input clause, without repeated literals and skipping tautologies
+	private void addClause(int[] literals) {
+		int[] sorted = literals.clone();
+		Arrays.sort(sorted);
+
+		int size = 0;
+		for (int i = 0; i < sorted.length; i++) {
+			if(size == 0 || sorted[size - 1] != sorted[i]) {
+				sorted[size++] = sorted[i];
+			}
+		}
+		int[] clause = Arrays.copyOf(sorted, size);
+
+		Clause input = new Clause(clause);
+		if(!isTautology(clause) && generated.add(input)) {
+			queue(input);
+		}
+	}
+
+	private void queue(Clause clause) {
+		clause.age = age++;
+		unprocessed.add(clause);
+	}
+
+	private void activate(Clause given) {
+		processed.add(given.literals);
+		processedClauses.add(given);
+	}
+
+	//Resolves the given clause with every processed clause that has the
+	//complementary of one of its literals
+	private void resolveWithProcessed(Clause given) {
+		Batch batch = new Batch(given);
+		for (int literal : given.literals) {
+			for (int i = 0; i < processed.occurrenceCount(-literal); i++) {
+				batch.addPair(literal, processed.occurrence(-literal, i));
+			}
+		}
+
+		batch.resolveAll();
+
+		//Sequential merge in the order of the pairs
+		for (int i = 0; i < batch.size; i++) {
+			Clause resolvent = batch.resolvents[i];
+			if(resolvent != null && generated.add(resolvent)) {
+				resolvents++;
+				Clause partner = processedClauses.get(batch.partners[i]);
+				if(tracer.isEnabled()) {
+					tracer.trace(new TraceEvent.Resolve(text(given), text(partner), text(resolvent)));
+				}
+
+				if(batch.subsumers[i] >= 0) {
+					subsumed++;
+					if(tracer.isEnabled()) {
+						tracer.trace(new TraceEvent.Subsumed(text(resolvent),
+								text(processedClauses.get(batch.subsumers[i]))));
+					}
+				} else {
+					queue(resolvent);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the resolvent of two clauses, merging their sorted literals.
+	 * @param first The first clause
+	 * @param second The second clause
+	 * @param literal The literal of the first clause to resolve on
+	 * @return The literals of the resolvent, null if it is a tautology
+	 */
+	private static int[] resolve(int[] first, int[] second, int literal) {
+		int[] res = new int[first.length + second.length - 2];
+		int size = 0;
+		int i = 0;
+		int j = 0;
+
+		while(i < first.length || j < second.length) {
+			int next;
+			if(j == second.length || (i < first.length && first[i] <= second[j])) {
+				next = first[i++];
+				if(j < second.length && second[j] == next) {
+					j++;
+				}
+			} else {
+				next = second[j++];
+			}
+			if(next != literal && next != -literal) {
+				res[size++] = next;
+			}
+		}
+
+		int[] clause = Arrays.copyOf(res, size);
+		return isTautology(clause)? null : clause;
+	}
+
+	//Looks for the complementary of every negative literal of a sorted clause
+	private static boolean isTautology(int[] clause) {
+		boolean res = false;
+		for (int i = 0; i < clause.length && clause[i] < 0 && !res; i++) {
+			res = Arrays.binarySearch(clause, i + 1, clause.length, -clause[i]) >= 0;
+		}
+		return res;
+	}
+
+	//A processed clause subsumes the given one
+	private boolean isForwardSubsumed(Clause given) {
+		int subsumer = processed.findSubsumer(given.literals);
+		if(subsumer >= 0) {
+			subsumed++;
+			if(tracer.isEnabled()) {
+				tracer.trace(new TraceEvent.Subsumed(text(given), text(processedClauses.get(subsumer))));
+			}
+		}
+		return subsumer >= 0;
+	}
+
+	//Removes the processed clauses the given one subsumes
+	private void removeBackwardSubsumed(Clause given) {
+		for (int id : processed.findSubsumed(given.literals)) {
+			processed.remove(id);
+			subsumed++;
+			if(tracer.isEnabled()) {
+				tracer.trace(new TraceEvent.Subsumed(text(processedClauses.get(id)), text(given)));
+			}
+			processedClauses.set(id, null);
+		}
+	}
+
+	private ClauseText text(Clause clause) {
+		return new ClauseText(database, clause.literals);
+	}
+
+	//Clause of a trace event, only turned into atoms when rendered
+	private record ClauseText(ClauseDatabase database, int[] literals) {
+		@Override
+		public String toString() {
+			Set<PropLogic> res = new HashSet<>();
+			for (int literal : literals) {
+				res.add(database.atom(literal));
+			}
+			return res.toString();
+		}
+	}
+
+	/**
+	 * Pairs of a given clause with its partners, and their results. Each pair
+	 * writes only its own slots, so ranges of pairs can be resolved by different
+	 * threads while the prover only reads its index and its generated clauses.
+	 */
+	private final class Batch {
+		private final Clause given;
+		private int[] literals = new int[16];
+		private int[] partners = new int[16];
+		private int size = 0;
+
+		private Clause[] resolvents;
+		//Id of a processed clause that subsumes each resolvent, -1 if there is none
+		private int[] subsumers;
+
+		private Batch(Clause given) {
+			this.given = given;
+		}
+
+		private void addPair(int literal, int partner) {
+			if(size == literals.length) {
+				literals = Arrays.copyOf(literals, 2 * size);
+				partners = Arrays.copyOf(partners, 2 * size);
+			}
+			literals[size] = literal;
+			partners[size++] = partner;
+		}
+
+		private void resolveAll() {
+			resolvents = new Clause[size];
+			subsumers = new int[size];
+			if(pool != null && size >= PARALLEL_PAIRS) {
+				pool.invoke(new ResolveTask(this, 0, size));
+			} else {
+				resolve(0, size);
+			}
+		}
+
+		private void resolve(int from, int to) {
+			for (int i = from; i < to; i++) {
+				int[] resolvent = ResolutionProver.resolve(given.literals,
+						processed.get(partners[i]), literals[i]);
+				if(resolvent != null) {
+					Clause clause = new Clause(resolvent);
+					//Already generated clauses are skipped before checking subsumption
+					if(!generated.contains(clause)) {
+						resolvents[i] = clause;
+						subsumers[i] = processed.findSubsumer(resolvent);
+					}
+				}
+			}
+		}
+	}
+
+	//Resolves a range of pairs of a batch
+	private static class ResolveTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Batch batch;
+		private final int from;
+		private final int to;
+
+		private ResolveTask(Batch batch, int from, int to) {
+			this.batch = batch;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if(to - from <= TASK_PAIRS) {
+				batch.resolve(from, to);
+			} else {
+				int middle = (from + to) >>> 1;
+				invokeAll(new ResolveTask(batch, from, middle),
+						new ResolveTask(batch, middle, to));
+			}
+		}
+	}
+
+	private static final class Clause {
+		private final int[] literals;
+		private final int hash;
+		private long age;
+
+		private Clause(int[] literals) {
+			this.literals = literals;
+			this.hash = Arrays.hashCode(literals);
+		}
+
+		//Clauses are equal if they have the same literals, whatever their age
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return this == obj || (obj instanceof Clause other &&
+					Arrays.equals(literals, other.literals));
+		}
+	}
+}
@@ -0,0 +1,116 @@
+package es.etomas.logiccalc.functions;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Settings and statistics of a single call to a solving algorithm: where its
+ * steps are traced, how many steps and how much time it may take, and how
+ * many it took.
+ * <p>
+ * Algorithms receive the context explicitly and call {@link #step()} once per
+ * unit of work: a call of DPLL, a given clause of resolution, a conflict of
+ * CDCL or a branch of a truth tree. A context is thread-safe, so the tasks of a
+ * parallel algorithm share it, and calls with different contexts never share
+ * any state, so they can run at the same time.
+ */
+public final class SolverContext {
+
+	//Steps between checks of the clock
+	private static final long CLOCK_MASK = (1 << 6) - 1;
+
+	private final Tracer tracer;
+	private final long maxSteps;
+	private final Duration timeout;
+	private final long start;
+
+	private final AtomicLong steps = new AtomicLong();
+
+	/**
+	 * Creates a context without limits.
+	 * @param tracer The destination of the steps
+	 */
+	public SolverContext(Tracer tracer) {
+		this(tracer, Long.MAX_VALUE, null);
+	}
+
+	/**
+	 * Creates a context. The time limit starts counting now.
+	 * @param tracer The destination of the steps
+	 * @param maxSteps The maximum number of steps
+	 * @param timeout The maximum time, null for no limit
+	 */
+	public SolverContext(Tracer tracer, long maxSteps, Duration timeout) {
+		if(tracer == null) {
+			throw new IllegalArgumentException("Tracer cannot be null");
+		}
+		if(maxSteps < 0) {
+			throw new IllegalArgumentException("Maximum steps cannot be negative: " + maxSteps);
+		}
+		this.tracer = tracer;
+		this.maxSteps = maxSteps;
+		this.timeout = timeout;
+		this.start = System.nanoTime();
+	}
+
+	/**
+	 * Creates a context without limits that neither traces steps.
+	 * @return The context
+	 */
+	public static SolverContext untraced() {
+		return new SolverContext(Tracer.OFF);
+	}
+
+	/**
+	 * Creates a context without limits that adds the steps to
+	 * {@link OpStepsSingleton}, as the algorithms do by default.
+	 * @return The context
+	 */
+	public static SolverContext steps() {
+		return new SolverContext(Tracer.steps());
+	}
+
+	/**
+	 * Counts a step of the algorithm, checking the limits.
+	 * @throws CancellationException If a limit was reached
+	 */
+	public void step() {
+		long count = steps.incrementAndGet();
+		if(count > maxSteps) {
+			throw new CancellationException("Step limit of " + maxSteps + " reached");
+		}
+		if(timeout != null && (count & CLOCK_MASK) == 0 &&
+				System.nanoTime() - start > timeout.toNanos()) {
+			throw new CancellationException("Time limit of " + timeout + " reached");
+		}
+	}
+
+	public Tracer getTracer() {
+		return this.tracer;
+	}
+
+	public long getMaxSteps() {
+		return this.maxSteps;
+	}
+
+	public Duration getTimeout() {
+		return this.timeout;
+	}
+
+	/**
+	 * Gets the number of steps counted so far.
+	 * @return The number of steps
+	 */
+	public long getSteps() {
+		return this.steps.get();
+	}
+
+	/**
+	 * Gets the time since the context was created.
+	 * @return The elapsed time
+	 */
+	public Duration getElapsed() {
+		return Duration.ofNanos(System.nanoTime() - start);
+	}
+}
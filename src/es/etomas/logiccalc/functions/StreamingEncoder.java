@@ -0,0 +1,300 @@
+package es.etomas.logiccalc.functions;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import es.etomas.logiccalc.logicparsers.PropLogic;
+import es.etomas.logiccalc.logicparsers.PropLogic.LogicType;
+import es.etomas.logiccalc.logicparsers.StreamingParser;
+import es.etomas.logiccalc.logicparsers.SymbolTable;
+
+/**
+ * Builders for {@link StreamingParser} that write the clauses of an expression
+ * while it is read, instead of building it, so texts much larger than the heap
+ * can be turned into clauses.
+ * <p>
+ * {@link #clauses} is for texts already in CNF, and gives each clause to a
+ * sink once the conjunction it belongs to is read. {@link #tseitin} takes any
+ * text and writes a Tseitin definition for each operation once its operands
+ * are read, keeping only their literals. Both group chains of the same
+ * operator to the left, so a long conjunction or disjunction holds a single
+ * operand instead of all of them. Clauses given before an error is found are
+ * not taken back.
+ */
+public abstract class StreamingEncoder {
+
+	/**
+	 * Creates a builder that gives each clause of a text in CNF to a sink. The
+	 * text may only have conjunctions of clauses, disjunctions of literals and
+	 * negations of atoms, with any parentheses. Repeated atoms are removed from
+	 * each clause, but repeated clauses are given again.
+	 * <p>
+	 * The parser returns the number of clauses given.
+	 * @param sink The sink that receives the clauses
+	 * @return The builder, which throws an {@link IllegalArgumentException} if
+	 * the text is not in CNF
+	 */
+	public static StreamingParser.Builder<Integer> clauses(ClauseSink sink) {
+		return new Clauses(sink);
+	}
+
+	/**
+	 * Creates a builder that adds the equisatisfiable clauses of a text to a
+	 * database. Atoms get the variables of their labels, and every operation
+	 * gets a new variable without a label.
+	 * <p>
+	 * The parser returns the literal of the whole expression, which is asserted.
+	 * @param database The database where clauses are added
+	 * @return The builder
+	 */
+	public static StreamingParser.Builder<Integer> tseitin(ClauseDatabase database) {
+		return new Tseitin(new Output() {
+
+			@Override
+			public int variable(String name) {
+				return database.variable(name);
+			}
+
+			@Override
+			public int auxiliary() {
+				return database.addVariable(null);
+			}
+
+			@Override
+			public void clause(int[] literals, int length) {
+				database.addClauseRange(literals, 0, length);
+			}
+		});
+	}
+
+	/**
+	 * Creates a builder that writes the equisatisfiable clauses of a text in
+	 * DIMACS, numbering variables in order of appearance. The label of each
+	 * atom is written the first time it appears, and variables of operations
+	 * have no label. The number of clauses is not known beforehand, so the
+	 * writer should be created on a file channel. Errors of the writer are
+	 * thrown as {@link UncheckedIOException}.
+	 * <p>
+	 * The parser returns the literal of the whole expression, which is asserted.
+	 * @param writer The writer
+	 * @return The builder
+	 */
+	public static StreamingParser.Builder<Integer> tseitin(DimacsWriter writer) {
+		return new Tseitin(new Output() {
+
+			private final SymbolMap variables = new SymbolMap();
+			private int count = 0;
+
+			@Override
+			public int variable(String name) {
+				int id = SymbolTable.shared().intern(name);
+				int res = variables.get(id);
+				if(res == 0) {
+					res = ++count;
+					variables.put(id, res);
+					try {
+						writer.label(res, name);
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				}
+				return res;
+			}
+
+			@Override
+			public int auxiliary() {
+				return ++count;
+			}
+
+			@Override
+			public void clause(int[] literals, int length) {
+				try {
+					writer.addClauseRange(literals, 0, length);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+		});
+	}
+
+	//Destination of the variables and clauses of the Tseitin builder
+	private interface Output {
+		int variable(String name);
+		int auxiliary();
+		void clause(int[] literals, int length);
+	}
+
+	/**
+	 * Keeps the atoms of the clauses that are not complete yet one after the
+	 * other in a single array. The value of an operand is the position of its
+	 * first atom, as its atoms go up to the first atom of the next operand, or
+	 * ASSERTED once its clauses have been given to the sink. The parser always
+	 * applies an operator to the last operands, so the clause of a disjunction
+	 * is just the atoms of both operands together.
+	 */
+	private static final class Clauses implements StreamingParser.Builder<Integer> {
+
+		private static final int ASSERTED = -1;
+
+		private final ClauseSink sink;
+		private PropLogic[] atoms = new PropLogic[16];
+		private int size = 0;
+		private int count = 0;
+
+		private final List<PropLogic> clause = new ArrayList<>();
+		private final Set<PropLogic> clauseAtoms = new HashSet<>();
+
+		Clauses(ClauseSink sink) {
+			this.sink = sink;
+		}
+
+		@Override
+		public Integer atom(String name) {
+			if(size == atoms.length) {
+				atoms = Arrays.copyOf(atoms, 2 * atoms.length);
+			}
+			atoms[size] = PropLogic.ofAtom(name, false);
+			return size++;
+		}
+
+		@Override
+		public Integer negation(Integer operand) {
+			if(operand == ASSERTED || size - operand != 1) {
+				throw notInCnf();
+			}
+			atoms[operand] = atoms[operand].getComplementary();
+			return operand;
+		}
+
+		@Override
+		public Integer operation(Integer left, LogicType type, Integer right) {
+			int res;
+			if(type == LogicType.DISJUNCTION && left != ASSERTED && right != ASSERTED) {
+				res = left;
+			} else if(type == LogicType.CONJUNCTION) {
+				//Given left first, so the clauses follow the order of the text
+				int start = size;
+				if(left != ASSERTED) {
+					give(left, right != ASSERTED? right : size);
+					start = left;
+				}
+				if(right != ASSERTED) {
+					give(right, size);
+					start = Math.min(start, right);
+				}
+				Arrays.fill(atoms, start, size, null);
+				size = start;
+				res = ASSERTED;
+			} else {
+				throw notInCnf();
+			}
+			return res;
+		}
+
+		@Override
+		public boolean regroups() {
+			return true;
+		}
+
+		@Override
+		public Integer finish(Integer expression) {
+			if(expression != ASSERTED) {
+				give(expression, size);
+			}
+			return count;
+		}
+
+		private void give(int from, int to) {
+			clause.clear();
+			clauseAtoms.clear();
+			for (int i = from; i < to; i++) {
+				if(clauseAtoms.add(atoms[i])) {
+					clause.add(atoms[i]);
+				}
+			}
+			sink.accept(clause);
+			count++;
+		}
+
+		private static IllegalArgumentException notInCnf() {
+			return new IllegalArgumentException("The expression is not in CNF");
+		}
+	}
+
+	/**
+	 * Gives a variable to every operation and writes the clauses of both
+	 * implications of its definition, as whether an operation appears negated
+	 * is not known until the text after it is read.
+	 */
+	private static final class Tseitin implements StreamingParser.Builder<Integer> {
+
+		private final Output output;
+
+		Tseitin(Output output) {
+			this.output = output;
+		}
+
+		@Override
+		public Integer atom(String name) {
+			return output.variable(name);
+		}
+
+		@Override
+		public Integer negation(Integer operand) {
+			return -operand;
+		}
+
+		@Override
+		public Integer operation(Integer left, LogicType type, Integer right) {
+			int x = output.auxiliary();
+			int l = left;
+			int r = right;
+			switch (type) {
+			case CONJUNCTION:
+				clause(-x, l);
+				clause(-x, r);
+				clause(x, -l, -r);
+				break;
+			case DISJUNCTION:
+				clause(-x, l, r);
+				clause(x, -l);
+				clause(x, -r);
+				break;
+			case IMPLICATION:
+				clause(-x, -l, r);
+				clause(x, l);
+				clause(x, -r);
+				break;
+			case BICONDITIONAL:
+				clause(-x, -l, r);
+				clause(-x, l, -r);
+				clause(x, l, r);
+				clause(x, -l, -r);
+				break;
+			case ATOM:
+				throw new IllegalArgumentException("Atoms are not operations");
+			}
+			return x;
+		}
+
+		@Override
+		public boolean regroups() {
+			return true;
+		}
+
+		@Override
+		public Integer finish(Integer expression) {
+			clause(expression);
+			return expression;
+		}
+
+		private void clause(int... clause) {
+			output.clause(clause, clause.length);
+		}
+	}
+}
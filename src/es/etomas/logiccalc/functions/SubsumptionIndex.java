@@ -0,0 +1,289 @@
+package es.etomas.logiccalc.functions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import es.etomas.logiccalc.logicparsers.PropLogic;
+
+/**
+ * Set of clauses that answers subsumption queries.
+ * <p>
+ * Clauses are sorted arrays of DIMACS literals, see {@link ClauseDatabase},
+ * and each one is identified by the id given when it is added. Every clause
+ * has a 64-bit signature with one bit set per literal, so a clause can only be
+ * contained in another one if its signature is, which rejects most candidate
+ * pairs with one AND before comparing literals.
+ * <p>
+ * Forward queries look for a stored clause contained in the query. Each
+ * stored clause is listed under its smallest literal, which must be in the
+ * query, so it is checked at most once. Backward queries look for stored
+ * clauses that contain the query, among those that have its least common
+ * literal. The occurrence lists are also available to find resolution partners.
+ */
+public final class SubsumptionIndex {
+
+	private static final int[] NO_IDS = new int[0];
+
+	private final List<int[]> clauses = new ArrayList<>();
+	private long[] signatures = new long[16];
+	private int size = 0;
+
+	//Ids of the clauses that contain each literal, and of those whose smallest
+	//literal it is, by literal index
+	private final IdLists occurrences = new IdLists();
+	private final IdLists firsts = new IdLists();
+	//Empty clauses, in a single list
+	private final IdLists empty = new IdLists();
+
+	/**
+	 * Removes the clauses contained in others from a set of clauses.
+	 * @param clauses The clauses, as sets of atoms
+	 * @return The clauses that are not subsumed
+	 */
+	public static Set<Set<PropLogic>> removeSubsumed(Set<Set<PropLogic>> clauses) {
+		ClauseDatabase database = ClauseDatabase.of(clauses);
+		int[][] sorted = database.toArrays();
+		for (int[] clause : sorted) {
+			Arrays.sort(clause);
+		}
+		//Shorter clauses first, so no clause is subsumed by a later one
+		Arrays.sort(sorted, Comparator.comparingInt(clause->clause.length));
+
+		SubsumptionIndex index = new SubsumptionIndex();
+		Set<Set<PropLogic>> res = new HashSet<>();
+		for (int[] clause : sorted) {
+			if(index.findSubsumer(clause) < 0) {
+				index.add(clause);
+				Set<PropLogic> atoms = new HashSet<>();
+				for (int literal : clause) {
+					atoms.add(database.atom(literal));
+				}
+				res.add(atoms);
+			}
+		}
+		return res;
+	}
+
+	/**
+	 * Gets the signature of a clause.
+	 * @param clause The literals of the clause
+	 * @return A mask with the bit of every literal set
+	 */
+	public static long signature(int[] clause) {
+		long res = 0;
+		for (int literal : clause) {
+			res |= 1L << (ClauseDatabase.index(literal) * 0x9E3779B97F4A7C15L >>> 58);
+		}
+		return res;
+	}
+
+	/**
+	 * Checks whether every literal of a sorted clause is in another one.
+	 * @param subsumer The clause that may subsume
+	 * @param subsumed The clause that may be subsumed
+	 * @return True if the first clause is contained in the second one
+	 */
+	public static boolean subsumes(int[] subsumer, int[] subsumed) {
+		boolean res = subsumer.length <= subsumed.length;
+		int j = 0;
+		for (int i = 0; i < subsumer.length && res; i++) {
+			while(j < subsumed.length && subsumed[j] < subsumer[i]) {
+				j++;
+			}
+			res = j < subsumed.length && subsumed[j] == subsumer[i];
+		}
+		return res;
+	}
+
+	/**
+	 * Adds a clause to the index.
+	 * @param clause The literals of the clause, in ascending order. The array
+	 * is kept by the index and must not be modified
+	 * @return The id of the clause
+	 */
+	public int add(int[] clause) {
+		int id = clauses.size();
+		clauses.add(clause);
+		if(id == signatures.length) {
+			signatures = Arrays.copyOf(signatures, 2 * id);
+		}
+		signatures[id] = signature(clause);
+		size++;
+
+		for (int literal : clause) {
+			occurrences.append(ClauseDatabase.index(literal), id);
+		}
+		if(clause.length > 0) {
+			firsts.append(ClauseDatabase.index(clause[0]), id);
+		} else {
+			empty.append(0, id);
+		}
+		return id;
+	}
+
+	/**
+	 * Removes a clause from the index. Its id is not reused.
+	 * @param id The id of the clause
+	 */
+	public void remove(int id) {
+		int[] clause = clauses.get(id);
+		if(clause != null) {
+			for (int literal : clause) {
+				occurrences.delete(ClauseDatabase.index(literal), id);
+			}
+			if(clause.length > 0) {
+				firsts.delete(ClauseDatabase.index(clause[0]), id);
+			} else {
+				empty.delete(0, id);
+			}
+			clauses.set(id, null);
+			size--;
+		}
+	}
+
+	/**
+	 * Gets a clause of the index.
+	 * @param id The id of the clause
+	 * @return Its literals, null if it was removed
+	 */
+	public int[] get(int id) {
+		return clauses.get(id);
+	}
+
+	/**
+	 * Checks whether a clause is still in the index.
+	 * @param id The id of the clause
+	 * @return True if it has not been removed
+	 */
+	public boolean contains(int id) {
+		return id >= 0 && id < clauses.size() && clauses.get(id) != null;
+	}
+
+	/**
+	 * Counts the clauses in the index.
+	 * @return The number of clauses not removed
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Counts the clauses of the index that contain a literal.
+	 * @param literal The literal
+	 * @return The number of clauses
+	 */
+	public int occurrenceCount(int literal) {
+		return occurrences.count(ClauseDatabase.index(literal));
+	}
+
+	/**
+	 * Gets one of the clauses of the index that contain a literal. The
+	 * clauses are listed in the order they were added.
+	 * @param literal The literal
+	 * @param position The position of the clause in the occurrence list
+	 * @return The id of the clause
+	 */
+	public int occurrence(int literal, int position) {
+		return occurrences.lists[ClauseDatabase.index(literal)][position];
+	}
+
+	/**
+	 * Looks for a clause of the index contained in another one.
+	 * @param clause The literals of the clause, in ascending order
+	 * @return The id of the first clause found, -1 if there is none
+	 */
+	public int findSubsumer(int[] clause) {
+		long signature = signature(clause);
+		int res = empty.count(0) > 0? empty.lists[0][0] : -1;
+		for (int i = 0; i < clause.length && res < 0; i++) {
+			int index = ClauseDatabase.index(clause[i]);
+			for (int j = 0; j < firsts.count(index) && res < 0; j++) {
+				int id = firsts.lists[index][j];
+				if((signatures[id] & ~signature) == 0 && subsumes(clauses.get(id), clause)) {
+					res = id;
+				}
+			}
+		}
+		return res;
+	}
+
+	/**
+	 * Looks for the clauses of the index that contain another one.
+	 * @param clause The literals of the clause, in ascending order
+	 * @return The ids of the clauses found, in the order they were added
+	 */
+	public int[] findSubsumed(int[] clause) {
+		int[] res = NO_IDS;
+		if(clause.length > 0) {
+			//Every subsumed clause has the least common literal of the clause
+			int best = ClauseDatabase.index(clause[0]);
+			for (int literal : clause) {
+				int index = ClauseDatabase.index(literal);
+				if(occurrences.count(index) < occurrences.count(best)) {
+					best = index;
+				}
+			}
+
+			long signature = signature(clause);
+			int count = 0;
+			for (int i = 0; i < occurrences.count(best); i++) {
+				int id = occurrences.lists[best][i];
+				if((signature & ~signatures[id]) == 0 && subsumes(clause, clauses.get(id))) {
+					if(res == NO_IDS) {
+						res = new int[occurrences.count(best) - i];
+					}
+					res[count++] = id;
+				}
+			}
+			res = Arrays.copyOf(res, count);
+		} else {
+			//The empty clause subsumes every clause
+			res = new int[size];
+			int count = 0;
+			for (int id = 0; id < clauses.size(); id++) {
+				if(clauses.get(id) != null) {
+					res[count++] = id;
+				}
+			}
+		}
+		return res;
+	}
+
+	//Lists of ids by literal index, in ascending order
+	private static final class IdLists {
+		private int[][] lists = new int[0][];
+		private int[] counts = new int[0];
+
+		private int count(int index) {
+			return index < counts.length? counts[index] : 0;
+		}
+
+		private void append(int index, int id) {
+			if(index >= counts.length) {
+				int length = Math.max(index + 1, 2 * counts.length);
+				lists = Arrays.copyOf(lists, length);
+				counts = Arrays.copyOf(counts, length);
+			}
+
+			int[] list = lists[index];
+			if(list == null) {
+				list = lists[index] = new int[4];
+			} else if(counts[index] == list.length) {
+				list = lists[index] = Arrays.copyOf(list, 2 * list.length);
+			}
+			list[counts[index]++] = id;
+		}
+
+		//Removes an id keeping the order of the rest of the list
+		private void delete(int index, int id) {
+			int[] list = lists[index];
+			int position = Arrays.binarySearch(list, 0, counts[index], id);
+			System.arraycopy(list, position + 1, list, position, counts[index] - position - 1);
+			counts[index]--;
+		}
+	}
+}
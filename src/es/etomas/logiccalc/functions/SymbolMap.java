@@ -0,0 +1,41 @@
+package es.etomas.logiccalc.functions;
+
+import java.util.Arrays;
+
+import es.etomas.logiccalc.logicparsers.PropLogic;
+import es.etomas.logiccalc.logicparsers.SymbolTable;
+
+/**
+ * Map from the ids of the shared {@link SymbolTable} to ints, stored in an
+ * array indexed by id, so atoms are looked up through {@link PropLogic#getId()}
+ * without hashing their labels. Ids without a value are mapped to 0.
+ */
+final class SymbolMap {
+
+	private int[] values;
+
+	SymbolMap() {
+		this.values = new int[16];
+	}
+
+	SymbolMap(SymbolMap other) {
+		this.values = other.values.clone();
+	}
+
+	int get(int id) {
+		return id < values.length? values[id] : 0;
+	}
+
+	void put(int id, int value) {
+		if(id >= values.length) {
+			values = Arrays.copyOf(values, Math.max(2 * values.length, id + 1));
+		}
+		values[id] = value;
+	}
+
+	void remove(int id) {
+		if(id < values.length) {
+			values[id] = 0;
+		}
+	}
+}
@@ -0,0 +1,176 @@
+package es.etomas.logiccalc.functions;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import es.etomas.logiccalc.logicparsers.PropLogic;
+
+/**
+ * Step of an algorithm, kept as the values it involves and only rendered as
+ * an explanation when it is needed, such as when a tracer that is not
+ * {@link Tracer#OFF} stores it.
+ * <p>
+ * Events hold references to the expressions, clauses and branches of the
+ * step, which the algorithms never modify afterwards, and call their
+ * {@code toString} in {@link #render()}. Collections that belong to the
+ * caller of an algorithm, such as its input or the model it returns, are
+ * copied when the event is created, keeping their order, so the caller can
+ * change them without changing the trace.
+ */
+public interface TraceEvent {
+
+	/**
+	 * Gets the explanation of the step.
+	 * @return The text of the step
+	 */
+	String render();
+
+	/**
+	 * Checks whether the event is a state of the computation, such as a whole
+	 * truth tree, instead of an explanation.
+	 * @return True if it is a step, false if it is an explanation
+	 */
+	default boolean isStep() {
+		return false;
+	}
+
+	//General
+
+	record Message(String text) implements TraceEvent {
+		public String render() {
+			return text;
+		}
+	}
+
+	record WorkingWith(Set<Set<PropLogic>> clauses) implements TraceEvent {
+		public WorkingWith {
+			Set<Set<PropLogic>> copy = new LinkedHashSet<>();
+			for (Set<PropLogic> clause : clauses) {
+				copy.add(Collections.unmodifiableSet(new LinkedHashSet<>(clause)));
+			}
+			clauses = Collections.unmodifiableSet(copy);
+		}
+
+		public String render() {
+			return "Working with clauses: " + clauses;
+		}
+	}
+
+	record TableLine(TruthTable table, long row) implements TraceEvent {
+		public String render() {
+			return row < 0? table.header() : table.rowText(row);
+		}
+	}
+
+	//Truth trees
+
+	record TreeStart(Object input) implements TraceEvent {
+		public String render() {
+			return "Making truth tree of: " + input;
+		}
+	}
+
+	record TreeState(Object tree) implements TraceEvent {
+		public String render() {
+			return tree.toString();
+		}
+
+		@Override
+		public boolean isStep() {
+			return true;
+		}
+	}
+
+	record OperatingOnBranch(Object branch) implements TraceEvent {
+		public String render() {
+			return "  Operating on branch: " + branch;
+		}
+	}
+
+	record ChosenExpression(PropLogic expression) implements TraceEvent {
+		public String render() {
+			return "    Chosen expression: " + expression;
+		}
+	}
+
+	record AlphaOperation(PropLogic expression) implements TraceEvent {
+		public String render() {
+			return "    Alpha operation: " + operation(expression);
+		}
+	}
+
+	record BetaSplit(PropLogic expression) implements TraceEvent {
+		public String render() {
+			return "    Beta operation: " + operation(expression);
+		}
+	}
+
+	record ResultingBranches(Object branches) implements TraceEvent {
+		public String render() {
+			return "    Resulting branch(es): " + branches;
+		}
+	}
+
+	record OpenBranch(Object branch) implements TraceEvent {
+		public String render() {
+			return "Found open branch: " + branch + ". Expression is consistent";
+		}
+	}
+
+	//DPLL and CDCL
+
+	record TautologiesRemoved(Object tautologies) implements TraceEvent {
+		public String render() {
+			return "  Removing tautologies: " + tautologies;
+		}
+	}
+
+	record UnitPropagation(PropLogic literal) implements TraceEvent {
+		public String render() {
+			return "  Unit propagation: " + literal;
+		}
+	}
+
+	record PureLiteral(PropLogic literal) implements TraceEvent {
+		public String render() {
+			return "  Pure literal elimination: " + literal;
+		}
+	}
+
+	record Division(PropLogic literal) implements TraceEvent {
+		public String render() {
+			return "Could not operate on clause set. Applying division rule with literal: " + literal;
+		}
+	}
+
+	record Model(Map<String, Boolean> model) implements TraceEvent {
+		public Model {
+			model = Collections.unmodifiableMap(new LinkedHashMap<>(model));
+		}
+
+		public String render() {
+			return "Found model " + model + ". Clause set is consistent.";
+		}
+	}
+
+	//Resolution
+
+	record Resolve(Object first, Object second, Object resolvent) implements TraceEvent {
+		public String render() {
+			return "  Resolving " + first + " and " + second + ": " + resolvent;
+		}
+	}
+
+	record Subsumed(Object clause, Object subsumer) implements TraceEvent {
+		public String render() {
+			return "  " + clause + " subsumed by " + subsumer;
+		}
+	}
+
+	private static String operation(PropLogic expression) {
+		return (expression.isNegated()?"negated ":"") + expression.getType().toString().toLowerCase();
+	}
+}
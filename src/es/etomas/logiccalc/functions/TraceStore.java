@@ -0,0 +1,312 @@
+package es.etomas.logiccalc.functions;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Bounded store of trace events that keeps the latest ones in memory and
+ * spills the older ones to disk.
+ * <p>
+ * Events are rendered when they are added, so the store keeps no reference to
+ * the values of the steps, and their texts are kept in a ring buffer with a
+ * maximum number of events and of characters. Once either is reached, the
+ * oldest texts are appended to a data file, and their positions to an index
+ * file with 8 bytes per event, so any range of events can be read with two
+ * positional reads. The heap used by the store does not depend on the number
+ * of events. The files are temporary, created on the first spill, and deleted
+ * when the store is closed, or after it is garbage collected if it never is.
+ * <p>
+ * Every method is synchronized, so the steps can be read while they are being
+ * added.
+ */
+public final class TraceStore implements Consumer<TraceEvent>, Closeable {
+
+	public static final int DEFAULT_CAPACITY = 1 << 16;
+	public static final int DEFAULT_MAX_CHARACTERS = 1 << 20;
+	private static final int BUFFER_SIZE = 1 << 16;
+	//Deletes the files of stores that become unreachable without being closed
+	private static final Cleaner CLEANER = Cleaner.create();
+
+	//Texts of the latest events, starting at head, growing up to the capacity
+	private final int capacity;
+	private final long maxCharacters;
+	private String[] ring;
+	private int head = 0;
+	private int count = 0;
+	private long characters = 0;
+
+	//Spilled events
+	private final Path directory;
+	private final SpillFiles files = new SpillFiles();
+	private final Cleaner.Cleanable cleanable = CLEANER.register(this, files);
+	private final ByteBuffer dataBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+	private final ByteBuffer indexBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+	private long spilled = 0;
+	private long dataSize = 0;
+
+	private boolean closed = false;
+
+	/**
+	 * Creates a store with the default capacity, spilling to the temporary
+	 * directory.
+	 */
+	public TraceStore() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates a store spilling to the temporary directory.
+	 * @param capacity The number of events kept in memory
+	 */
+	public TraceStore(int capacity) {
+		this(capacity, null);
+	}
+
+	/**
+	 * Creates a store with the default maximum of characters in memory.
+	 * @param capacity The number of events kept in memory
+	 * @param directory The directory of the spill files, null for the temporary directory
+	 */
+	public TraceStore(int capacity, Path directory) {
+		this(capacity, DEFAULT_MAX_CHARACTERS, directory);
+	}
+
+	/**
+	 * Creates a store.
+	 * @param capacity The number of events kept in memory
+	 * @param maxCharacters The number of characters of text kept in memory
+	 * @param directory The directory of the spill files, null for the temporary directory
+	 */
+	public TraceStore(int capacity, long maxCharacters, Path directory) {
+		if(capacity < 1) {
+			throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+		}
+		if(maxCharacters < 0) {
+			throw new IllegalArgumentException("Maximum of characters cannot be negative: " + maxCharacters);
+		}
+		this.capacity = capacity;
+		this.maxCharacters = maxCharacters;
+		this.ring = new String[Math.min(capacity, 16)];
+		this.directory = directory;
+	}
+
+	/**
+	 * Renders and adds an event, spilling the oldest ones in memory while the
+	 * buffer has too many events or characters. Events added after the store
+	 * is closed are ignored.
+	 * @param event The event
+	 */
+	@Override
+	public synchronized void accept(TraceEvent event) {
+		if(!closed) {
+			String text = event.render();
+			if(count == capacity) {
+				spillOldest();
+			} else if(count == ring.length) {
+				grow();
+			}
+			ring[(head + count) % ring.length] = text;
+			count++;
+			characters += text.length();
+			while(characters > maxCharacters) {
+				spillOldest();
+			}
+		}
+	}
+
+	/**
+	 * Counts the events of the store.
+	 * @return The number of events, in memory or spilled
+	 */
+	public synchronized long size() {
+		return spilled + count;
+	}
+
+	/**
+	 * Counts the events that were spilled to disk.
+	 * @return The number of spilled events
+	 */
+	public synchronized long getSpilledCount() {
+		return this.spilled;
+	}
+
+	/**
+	 * Gets the text of an event.
+	 * @param position The position of the event, starting with the oldest
+	 * @return The text of the event
+	 */
+	public synchronized String get(long position) {
+		return page(position, 1).get(0);
+	}
+
+	/**
+	 * Gets the text of consecutive events.
+	 * @param from The position of the first event
+	 * @param length The maximum number of events
+	 * @return The text of the events, fewer than the length at the end of the store
+	 */
+	public synchronized List<String> page(long from, int length) {
+		if(closed) {
+			throw new IllegalStateException("Trace store is closed");
+		}
+		if(from < 0 || from > size() || length < 0) {
+			throw new IndexOutOfBoundsException("Page " + from + " of " + size());
+		}
+
+		long to = Math.min(size(), from + length);
+		List<String> res = new ArrayList<>((int) (to - from));
+		if(from < spilled) {
+			readSpilled(from, Math.min(to, spilled), res);
+		}
+		for (long i = Math.max(from, spilled); i < to; i++) {
+			res.add(ring[(int) ((head + i - spilled) % ring.length)]);
+		}
+		return res;
+	}
+
+	/**
+	 * Deletes the spill files. The events of the store cannot be read afterwards.
+	 */
+	@Override
+	public synchronized void close() {
+		if(!closed) {
+			closed = true;
+			ring = null;
+			cleanable.clean();
+		}
+	}
+
+	//Moves the texts to a larger ring, starting at its first position
+	private void grow() {
+		String[] grown = new String[Math.min(capacity, 2 * ring.length)];
+		for (int i = 0; i < count; i++) {
+			grown[i] = ring[(head + i) % ring.length];
+		}
+		ring = grown;
+		head = 0;
+	}
+
+	private void spillOldest() {
+		String text = ring[head];
+		ring[head] = null;
+		head = (head + 1) % ring.length;
+		count--;
+		characters -= text.length();
+		spill(text);
+	}
+
+	private void spill(String event) {
+		try {
+			if(files.data == null) {
+				files.dataPath = directory == null? Files.createTempFile("trace", ".data") :
+						Files.createTempFile(directory, "trace", ".data");
+				files.indexPath = directory == null? Files.createTempFile("trace", ".index") :
+						Files.createTempFile(directory, "trace", ".index");
+				files.data = FileChannel.open(files.dataPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+				files.index = FileChannel.open(files.indexPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			}
+
+			if(!indexBuffer.hasRemaining()) {
+				flush(files.index, indexBuffer);
+			}
+			indexBuffer.putLong(dataSize);
+
+			byte[] text = event.getBytes(StandardCharsets.UTF_8);
+			if(text.length > dataBuffer.remaining()) {
+				flush(files.data, dataBuffer);
+			}
+			if(text.length > dataBuffer.capacity()) {
+				files.data.write(ByteBuffer.wrap(text), dataSize);
+			} else {
+				dataBuffer.put(text);
+			}
+			dataSize += text.length;
+			spilled++;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	//Reads the events of a range of spilled ones
+	private void readSpilled(long from, long to, List<String> res) {
+		try {
+			flush(files.index, indexBuffer);
+			flush(files.data, dataBuffer);
+
+			int events = (int) (to - from);
+			ByteBuffer offsets = ByteBuffer.allocate(8 * (events + 1));
+			if(to == spilled) {
+				offsets.limit(8 * events);
+			}
+			readFully(files.index, offsets, 8 * from);
+			long start = offsets.getLong(0);
+			long end = to == spilled? dataSize : offsets.getLong(8 * events);
+
+			ByteBuffer text = ByteBuffer.allocate((int) (end - start));
+			readFully(files.data, text, start);
+			byte[] bytes = text.array();
+			for (int i = 0; i < events; i++) {
+				long eventEnd = i + 1 < events? offsets.getLong(8 * (i + 1)) : end;
+				long eventStart = offsets.getLong(8 * i);
+				res.add(new String(bytes, (int) (eventStart - start), (int) (eventEnd - eventStart),
+						StandardCharsets.UTF_8));
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	//Spill files, kept apart from the store so the cleaner does not reach it
+	private static final class SpillFiles implements Runnable {
+
+		private FileChannel data = null;
+		private FileChannel index = null;
+		private Path dataPath;
+		private Path indexPath;
+
+		@Override
+		public void run() {
+			try {
+				if(data != null) {
+					data.close();
+					index.close();
+					Files.deleteIfExists(dataPath);
+					Files.deleteIfExists(indexPath);
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	//Writes a buffer at the end of its channel
+	private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		long position = channel.size();
+		while(buffer.hasRemaining()) {
+			position += channel.write(buffer, position);
+		}
+		buffer.clear();
+	}
+
+	private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while(buffer.hasRemaining()) {
+			int read = channel.read(buffer, position);
+			if(read < 0) {
+				throw new IOException("Unexpected end of trace file");
+			}
+			position += read;
+		}
+	}
+}
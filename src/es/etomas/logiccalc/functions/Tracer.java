@@ -0,0 +1,62 @@
+package es.etomas.logiccalc.functions;
+
+import java.util.function.Consumer;
+
+/**
+ * Switch and destination of the trace events of an algorithm.
+ * <p>
+ * Algorithms check {@link #isEnabled()} before building an event, so a
+ * disabled tracer costs a single branch on a final field per step.
+ */
+public final class Tracer {
+
+	/**
+	 * Tracer that ignores every event.
+	 */
+	public static final Tracer OFF = new Tracer(null);
+
+	private static final Tracer STEPS = new Tracer(event->OpStepsSingleton.getInstance().addEvent(event));
+
+	private final Consumer<TraceEvent> sink;
+	private final boolean enabled;
+
+	private Tracer(Consumer<TraceEvent> sink) {
+		this.sink = sink;
+		this.enabled = sink != null;
+	}
+
+	/**
+	 * Creates a tracer that gives every event to a consumer.
+	 * @param sink The consumer of the events
+	 * @return The tracer
+	 */
+	public static Tracer of(Consumer<TraceEvent> sink) {
+		if(sink == null) {
+			throw new IllegalArgumentException("Sink cannot be null");
+		}
+		return new Tracer(sink);
+	}
+
+	/**
+	 * Gets a tracer that adds the events to the steps and explanations of
+	 * {@link OpStepsSingleton}.
+	 * @return The tracer
+	 */
+	public static Tracer steps() {
+		return STEPS;
+	}
+
+	public boolean isEnabled() {
+		return this.enabled;
+	}
+
+	/**
+	 * Gives an event to the sink, if the tracer is enabled.
+	 * @param event The event
+	 */
+	public void trace(TraceEvent event) {
+		if(enabled) {
+			sink.accept(event);
+		}
+	}
+}
@@ -0,0 +1,271 @@
+package es.etomas.logiccalc.functions;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Consumer;
+
+import es.etomas.logiccalc.logicparsers.PropLogic;
+
+/**
+ * Truth table of a logic expression, stored as a bit vector with the truth
+ * value of each row.
+ * <p>
+ * Rows follow the usual order: the variables are sorted alphabetically and
+ * the first one is the most significant digit of the row number. The table is
+ * calculated 64 rows at a time, giving each variable a word whose bits are its
+ * values in those rows and evaluating the expression with word operations.
+ */
+public final class TruthTable {
+
+	/**
+	 * Maximum number of variables of a table, limited by the size of the vector
+	 * that holds it.
+	 */
+	public static final int MAX_VARIABLES = 36;
+
+	//Values of the variables whose digit is one of the 6 lower bits of the
+	//row number: Bit j of PATTERNS[k] is the k-th bit of j
+	private static final long[] PATTERNS = {
+			0xAAAAAAAAAAAAAAAAL,
+			0xCCCCCCCCCCCCCCCCL,
+			0xF0F0F0F0F0F0F0F0L,
+			0xFF00FF00FF00FF00L,
+			0xFFFF0000FFFF0000L,
+			0xFFFFFFFF00000000L
+	};
+
+	private final PropLogic expression;
+	private final List<String> variables;
+	private final long rows;
+	private final long[] values;
+
+	TruthTable(CompiledPropLogic compiled, long[] values) {
+		this.expression = compiled.getExpression();
+		this.variables = compiled.getVariables();
+		this.rows = 1L << variables.size();
+		this.values = values;
+	}
+
+	/**
+	 * Calculates the truth table of a logic expression.
+	 * @param input The expression
+	 * @return Its truth table
+	 * @throws IllegalArgumentException If the expression has more than {@link #MAX_VARIABLES} variables
+	 */
+	public static TruthTable of(PropLogic input) {
+		return of(CompiledPropLogic.compile(input));
+	}
+
+	/**
+	 * Calculates the truth table of a compiled logic expression.
+	 * @param compiled The compiled expression
+	 * @return Its truth table
+	 * @throws IllegalArgumentException If the expression has more than {@link #MAX_VARIABLES} variables
+	 */
+	public static TruthTable of(CompiledPropLogic compiled) {
+		long[] values = new long[wordCount(compiled)];
+		evalWords(compiled.evaluator(), compiled.getVariables().size(), 0, values.length, values, 0);
+		return new TruthTable(compiled, values);
+	}
+
+	/**
+	 * Gets the number of words needed to hold the truth table of an expression.
+	 * @param compiled The compiled expression
+	 * @return The length of the vector
+	 * @throws IllegalArgumentException If the expression has more than {@link #MAX_VARIABLES} variables
+	 */
+	static int wordCount(CompiledPropLogic compiled) {
+		int size = compiled.getVariables().size();
+		if(size > MAX_VARIABLES) {
+			throw new IllegalArgumentException("Expression has " + size +
+					" variables, truth tables are limited to " + MAX_VARIABLES);
+		}
+		return (int) Math.max(1, (1L << size) / Long.SIZE);
+	}
+
+	/**
+	 * Evaluates a range of words of the truth table.
+	 * @param evaluator The evaluator of the expression
+	 * @param size The number of variables of the expression
+	 * @param from The first word to evaluate
+	 * @param to The word after the last one to evaluate
+	 * @param target The array where the words are stored
+	 * @param offset The position of the first word of the range in the array
+	 */
+	static void evalWords(CompiledPropLogic.Evaluator evaluator, int size,
+			long from, long to, long[] target, int offset) {
+		long[] words = new long[size];
+		long lastMask = size >= 6? -1L : (1L << (1 << size)) - 1;
+
+		//Variables whose digit is in the lower bits have the same word every time
+		for (int j = 0; j < size; j++) {
+			int digit = size - 1 - j;
+			if(digit < 6) {
+				words[j] = PATTERNS[digit];
+			}
+		}
+
+		for (long word = from; word < to; word++) {
+			for (int j = 0; j < size - 6; j++) {
+				int digit = size - 1 - j;
+				words[j] = (word >>> (digit - 6) & 1L) == 0? 0L : -1L;
+			}
+			target[offset + (int) (word - from)] = evaluator.evalWords(words) & lastMask;
+		}
+	}
+
+	public PropLogic getExpression() {
+		return this.expression;
+	}
+
+	public List<String> getVariables() {
+		return this.variables;
+	}
+
+	public long getRowCount() {
+		return this.rows;
+	}
+
+	/**
+	 * Gets the truth value of a row of the table.
+	 * @param row The number of the row
+	 * @return The truth value of the expression in that row
+	 */
+	public boolean get(long row) {
+		if(row < 0 || row >= rows) {
+			throw new IndexOutOfBoundsException("Row " + row + " is not in the table");
+		}
+		return (values[(int) (row >>> 6)] >>> row & 1L) != 0;
+	}
+
+	/**
+	 * Gets the values of the variables in a row of the table.
+	 * @param row The number of the row
+	 * @return The value of each variable, by index
+	 */
+	public boolean[] getAssignment(long row) {
+		boolean[] res = new boolean[variables.size()];
+		for (int j = 0; j < res.length; j++) {
+			res[j] = (row >>> (res.length - 1 - j) & 1L) != 0;
+		}
+		return res;
+	}
+
+	/**
+	 * Counts the rows in which the expression is true.
+	 * @return The number of models of the expression
+	 */
+	public long countTrue() {
+		long res = 0;
+		for (long word : values) {
+			res += Long.bitCount(word);
+		}
+		return res;
+	}
+
+	/**
+	 * Gets the first row in which the expression is true.
+	 * @return The number of the row, -1 if there is none
+	 */
+	public long firstTrue() {
+		long res = -1;
+		for (int i = 0; i < values.length && res < 0; i++) {
+			if(values[i] != 0) {
+				res = ((long) i << 6) + Long.numberOfTrailingZeros(values[i]);
+			}
+		}
+		return res;
+	}
+
+	public boolean isSatisfiable() {
+		return firstTrue() >= 0;
+	}
+
+	public boolean isValid() {
+		return countTrue() == rows;
+	}
+
+	/**
+	 * Gets a copy of the truth vector, where bit i of the word i/64 is the
+	 * truth value of row i.
+	 * @return The truth vector
+	 */
+	public long[] toLongArray() {
+		return values.clone();
+	}
+
+	/**
+	 * Gets the truth vector as a BitSet.
+	 * @return The BitSet with the rows in which the expression is true
+	 * @throws UnsupportedOperationException If the table has too many rows for a BitSet
+	 */
+	public BitSet toBitSet() {
+		if(rows > Integer.MAX_VALUE) {
+			throw new UnsupportedOperationException("Table has too many rows for a BitSet");
+		}
+		return BitSet.valueOf(values);
+	}
+
+	/**
+	 * Gets the text header of the table: the variables separated by spaces, and
+	 * the expression.
+	 * @return The header
+	 */
+	public String header() {
+		return String.join(" ", variables) + "\t" + expression;
+	}
+
+	/**
+	 * Gets the text of a row of the table: the values of the variables separated
+	 * by spaces, and the truth value centered under the expression.
+	 * @param row The number of the row
+	 * @return The text of the row
+	 */
+	public String rowText(long row) {
+		StringBuilder res = new StringBuilder();
+		appendRow(res, variables.size(), row, get(row), valueIndent(expression));
+		return res.toString();
+	}
+
+	/**
+	 * Gives every line of the text view of the table to a consumer, starting with
+	 * the header.
+	 * @param lines The consumer of the lines
+	 */
+	public void forEachLine(Consumer<String> lines) {
+		lines.accept(header());
+		for (long row = 0; row < rows; row++) {
+			lines.accept(rowText(row));
+		}
+	}
+
+	/**
+	 * Gets the number of spaces before the truth value in a row, so that it is
+	 * centered under the expression.
+	 */
+	static int valueIndent(PropLogic expression) {
+		return Math.max(expression.toString().length() / 2 - 1, 0);
+	}
+
+	//Appends the text of a row to a builder
+	static void appendRow(StringBuilder target, int size, long row, boolean value, int indent) {
+		for (int j = 0; j < size; j++) {
+			if(j > 0) {
+				target.append(' ');
+			}
+			target.append((row >>> (size - 1 - j) & 1L) != 0? '1' : '0');
+		}
+		target.append('\t');
+		for (int i = 0; i < indent; i++) {
+			target.append(' ');
+		}
+		target.append(value? '1' : '0');
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder res = new StringBuilder();
+		forEachLine(line->res.append(line).append(System.lineSeparator()));
+		return res.toString();
+	}
+}
@@ -0,0 +1,276 @@
+package es.etomas.logiccalc.functions;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import es.etomas.logiccalc.logicparsers.PropLogic;
+
+/**
+ * Writes truth tables row by row to a stream, without keeping the table or
+ * its lines in memory.
+ * <p>
+ * The table is evaluated a few words at a time and encoded into a fixed size
+ * buffer that is flushed whenever it fills up, so memory use does not depend
+ * on the number of variables. The available formats are:
+ * <ul>
+ * <li>{@link Format#TEXT}: The same lines as {@link TruthTable#forEachLine}.</li>
+ * <li>{@link Format#CSV}: A column per variable and a last column with the
+ * value of the expression.</li>
+ * <li>{@link Format#BINARY}: The magic number {@code LCTT}, a version byte, the
+ * number of variables and their names in UTF-8 preceded by their length, the
+ * number of rows, and the truth vector as little endian longs, where bit i of
+ * word i/64 is the value of row i.</li>
+ * </ul>
+ * Writers never close the target they write to.
+ */
+public final class TruthTableWriter {
+
+	public enum Format {TEXT, CSV, BINARY}
+
+	private static final byte[] MAGIC = {'L', 'C', 'T', 'T'};
+	private static final byte VERSION = 1;
+
+	private static final int BUFFER_SIZE = 1 << 16;
+	//Number of words evaluated before encoding them
+	private static final int CHUNK_WORDS = 64;
+
+	private final Format format;
+	private final boolean direct;
+
+	/**
+	 * Creates a writer that encodes into a heap buffer.
+	 * @param format The format of the output
+	 */
+	public TruthTableWriter(Format format) {
+		this(format, false);
+	}
+
+	/**
+	 * Creates a writer.
+	 * @param format The format of the output
+	 * @param direct Whether to encode into a direct buffer when writing to a channel
+	 */
+	public TruthTableWriter(Format format, boolean direct) {
+		this.format = format;
+		this.direct = direct;
+	}
+
+	public Format getFormat() {
+		return this.format;
+	}
+
+	/**
+	 * Writes the truth table of an expression to a channel.
+	 * @param input The expression
+	 * @param channel The channel to write to
+	 * @throws IOException If the channel cannot be written
+	 */
+	public void write(PropLogic input, WritableByteChannel channel) throws IOException {
+		write(CompiledPropLogic.compile(input), channel);
+	}
+
+	/**
+	 * Writes the truth table of a compiled expression to a channel.
+	 * @param compiled The compiled expression
+	 * @param channel The channel to write to
+	 * @throws IOException If the channel cannot be written
+	 */
+	public void write(CompiledPropLogic compiled, WritableByteChannel channel) throws IOException {
+		ByteBuffer buffer = direct?
+				ByteBuffer.allocateDirect(BUFFER_SIZE):
+				ByteBuffer.allocate(BUFFER_SIZE);
+		encode(compiled, new Output(buffer) {
+			@Override
+			void drain() throws IOException {
+				buffer.flip();
+				while(buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+				buffer.clear();
+			}
+		});
+	}
+
+	/**
+	 * Writes the truth table of an expression to an output stream.
+	 * @param input The expression
+	 * @param out The stream to write to
+	 * @throws IOException If the stream cannot be written
+	 */
+	public void write(PropLogic input, OutputStream out) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		encode(CompiledPropLogic.compile(input), new Output(buffer) {
+			@Override
+			void drain() throws IOException {
+				out.write(buffer.array(), 0, buffer.position());
+				buffer.clear();
+			}
+		});
+		out.flush();
+	}
+
+	/**
+	 * Writes the truth table of an expression to a character stream.
+	 * @param input The expression
+	 * @param writer The writer to write to
+	 * @throws IOException If the writer cannot be written
+	 * @throws UnsupportedOperationException If the format is binary
+	 */
+	public void write(PropLogic input, Writer writer) throws IOException {
+		if(format == Format.BINARY) {
+			throw new UnsupportedOperationException("Binary tables cannot be written as characters");
+		}
+
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		char[] chars = new char[BUFFER_SIZE];
+		encode(CompiledPropLogic.compile(input), new Output(buffer) {
+			@Override
+			void drain() throws IOException {
+				//Header text is written directly, so the buffer only has ASCII
+				byte[] bytes = buffer.array();
+				for (int i = 0; i < buffer.position(); i++) {
+					chars[i] = (char) bytes[i];
+				}
+				writer.write(chars, 0, buffer.position());
+				buffer.clear();
+			}
+
+			@Override
+			void putText(String text) throws IOException {
+				drain();
+				writer.write(text);
+			}
+		});
+		writer.flush();
+	}
+
+	//Encodes the whole table into the output
+	private void encode(CompiledPropLogic compiled, Output output) throws IOException {
+		List<String> variables = compiled.getVariables();
+		int size = variables.size();
+		int words = TruthTable.wordCount(compiled);
+		long rows = 1L << size;
+		int indent = TruthTable.valueIndent(compiled.getExpression());
+
+		writeHeader(compiled, output);
+
+		CompiledPropLogic.Evaluator evaluator = compiled.evaluator();
+		long[] chunk = new long[CHUNK_WORDS];
+
+		for (long from = 0; from < words; from += CHUNK_WORDS) {
+			int length = (int) Math.min(CHUNK_WORDS, words - from);
+			TruthTable.evalWords(evaluator, size, from, from + length, chunk, 0);
+
+			if(format == Format.BINARY) {
+				for (int i = 0; i < length; i++) {
+					output.putLong(chunk[i]);
+				}
+			} else {
+				long last = Math.min(rows, (from + length) * Long.SIZE);
+				for (long row = from * Long.SIZE; row < last; row++) {
+					boolean value = (chunk[(int) ((row >>> 6) - from)] >>> row & 1L) != 0;
+					writeRow(output, size, row, value, indent);
+				}
+			}
+		}
+		output.drain();
+	}
+
+	private void writeHeader(CompiledPropLogic compiled, Output output) throws IOException {
+		List<String> variables = compiled.getVariables();
+
+		switch (format) {
+		case TEXT:
+			output.putText(String.join(" ", variables) + "\t" + compiled.getExpression() + "\n");
+			break;
+		case CSV:
+			output.putText(String.join(",", variables) + ",\"" +
+					compiled.getExpression().toString().replace("\"", "\"\"") + "\"\n");
+			break;
+		case BINARY:
+			for (byte b : MAGIC) {
+				output.put(b);
+			}
+			output.put(VERSION);
+			output.putInt(variables.size());
+			for (String variable : variables) {
+				byte[] name = variable.getBytes(StandardCharsets.UTF_8);
+				output.putInt(name.length);
+				for (byte b : name) {
+					output.put(b);
+				}
+			}
+			output.putLong(1L << variables.size());
+			break;
+		}
+	}
+
+	//Writes a row of a text format: the digits of the row number and the value
+	private void writeRow(Output output, int size, long row, boolean value, int indent) throws IOException {
+		byte separator = (byte) (format == Format.CSV? ',' : ' ');
+
+		for (int j = 0; j < size; j++) {
+			if(j > 0) {
+				output.put(separator);
+			}
+			output.put((byte) ((row >>> (size - 1 - j) & 1L) != 0? '1' : '0'));
+		}
+
+		if(format == Format.CSV) {
+			output.put((byte) ',');
+		} else {
+			output.put((byte) '\t');
+			for (int i = 0; i < indent; i++) {
+				output.put((byte) ' ');
+			}
+		}
+		output.put((byte) (value? '1' : '0'));
+		output.put((byte) '\n');
+	}
+
+	//Fixed size buffer that is drained to the target whenever it fills up
+	private abstract static class Output {
+
+		protected final ByteBuffer buffer;
+
+		private Output(ByteBuffer buffer) {
+			this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+		}
+
+		//Writes the contents of the buffer to the target and clears it
+		abstract void drain() throws IOException;
+
+		void put(byte b) throws IOException {
+			if(!buffer.hasRemaining()) {
+				drain();
+			}
+			buffer.put(b);
+		}
+
+		void putInt(int value) throws IOException {
+			if(buffer.remaining() < Integer.BYTES) {
+				drain();
+			}
+			buffer.putInt(value);
+		}
+
+		void putLong(long value) throws IOException {
+			if(buffer.remaining() < Long.BYTES) {
+				drain();
+			}
+			buffer.putLong(value);
+		}
+
+		void putText(String text) throws IOException {
+			for (byte b : text.getBytes(StandardCharsets.UTF_8)) {
+				put(b);
+			}
+		}
+	}
+}
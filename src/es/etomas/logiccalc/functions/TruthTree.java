@@ -0,0 +1,363 @@
+package es.etomas.logiccalc.functions;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import es.etomas.logiccalc.logicparsers.PropLogic;
+
+/**
+ * Truth tree explored depth-first, one branch at a time.
+ * <p>
+ * The current branch is its atoms, kept in a map with a trail of the order in
+ * which they were set, and the expressions still to operate on, kept in
+ * immutable lists that branches share. Alpha expressions are always operated
+ * on before splitting on a beta one. Each split remembers the trail size and
+ * the lists, so the tree backtracks by undoing the trail and restoring them.
+ * A branch is closed as soon as an atom meets its complementary, without
+ * operating on the rest of it.
+ * <p>
+ * With a pool, the second branch of a split is forked as a task with its own
+ * copy of the atoms while the pool runs out of queued work, and is explored
+ * by whichever thread steals it. When looking for a single open branch, every
+ * task stops once one is found.
+ * <p>
+ * Each closed or open branch is a step of the context of the tree, and the
+ * exploration throws {@link CancellationException} once a limit is reached.
+ * <p>
+ * The open branches are the same as the ones of
+ * {@link PropLogicUtils#truthTree(Set)} that do not contain complementary atoms.
+ */
+public final class TruthTree {
+
+	//Queued tasks of a thread below which splits are forked
+	private static final int SURPLUS_TASKS = 2;
+	//Values of the atoms of a branch, 0 meaning unset
+	private static final int TRUE = 1;
+	private static final int FALSE = 2;
+
+	private final List<PropLogic> input;
+	private final ForkJoinPool pool;
+	private final SolverContext context;
+
+	//State of the current exploration
+	private Consumer<Set<PropLogic>> action;
+	private boolean first;
+	private volatile boolean stopped;
+
+	//Statistics of the last exploration
+	private final LongAdder closedBranches = new LongAdder();
+	private final LongAdder openBranches = new LongAdder();
+
+	/**
+	 * Creates the truth tree of a collection of expressions.
+	 * @param input The expressions at the root of the tree
+	 */
+	public TruthTree(Collection<PropLogic> input) {
+		this(input, null);
+	}
+
+	/**
+	 * Creates the truth tree of a collection of expressions, explored in a pool.
+	 * @param input The expressions at the root of the tree
+	 * @param pool The pool, null to explore it in the calling thread
+	 */
+	public TruthTree(Collection<PropLogic> input, ForkJoinPool pool) {
+		this(input, pool, SolverContext.untraced());
+	}
+
+	/**
+	 * Creates the truth tree of a collection of expressions, explored in a pool
+	 * within the limits of a context.
+	 * @param input The expressions at the root of the tree
+	 * @param pool The pool, null to explore it in the calling thread
+	 * @param context The context of the exploration, with a step per branch
+	 */
+	public TruthTree(Collection<PropLogic> input, ForkJoinPool pool, SolverContext context) {
+		this.input = List.copyOf(input);
+		this.pool = pool;
+		this.context = context;
+	}
+
+	/**
+	 * Creates the truth tree of an expression.
+	 * @param input The expression at the root of the tree
+	 */
+	public TruthTree(PropLogic input) {
+		this(List.of(input));
+	}
+
+	/**
+	 * Checks whether an expression has an open branch in its truth tree.
+	 * @param input The expression
+	 * @return True if the expression is consistent
+	 */
+	public static boolean isSatisfiable(PropLogic input) {
+		return new TruthTree(input).findOpenBranch() != null;
+	}
+
+	/**
+	 * Checks whether an expression has an open branch in its truth tree,
+	 * exploring it in a pool.
+	 * @param input The expression
+	 * @param pool The pool
+	 * @return True if the expression is consistent
+	 */
+	public static boolean isSatisfiable(PropLogic input, ForkJoinPool pool) {
+		return new TruthTree(List.of(input), pool).findOpenBranch() != null;
+	}
+
+	/**
+	 * Explores the tree until the first open branch.
+	 * @return The atoms of the branch, null if every branch is closed. With a
+	 * pool, it may not be the first one in depth-first order
+	 */
+	public Set<PropLogic> findOpenBranch() {
+		AtomicReference<Set<PropLogic>> res = new AtomicReference<>();
+		explore(branch->res.compareAndSet(null, branch), true);
+		return res.get();
+	}
+
+	/**
+	 * Explores the whole tree.
+	 * @return The atoms of every open branch
+	 */
+	public Set<Set<PropLogic>> openBranches() {
+		Set<Set<PropLogic>> res = ConcurrentHashMap.newKeySet();
+		explore(res::add, false);
+		return new HashSet<>(res);
+	}
+
+	/**
+	 * Explores the whole tree, giving the atoms of each open branch to a
+	 * consumer as it is found, without keeping them.
+	 * @param action The consumer of the branches. With a pool, it may be called
+	 * from several threads at once
+	 */
+	public void forEachOpenBranch(Consumer<Set<PropLogic>> action) {
+		explore(action, false);
+	}
+
+	public long getClosedBranchCount() {
+		return this.closedBranches.sum();
+	}
+
+	public long getOpenBranchCount() {
+		return this.openBranches.sum();
+	}
+
+	//Explores the tree, throwing CancellationException if a limit of the context is reached
+	private void explore(Consumer<Set<PropLogic>> action, boolean first) {
+		this.action = action;
+		this.first = first;
+		this.stopped = false;
+		closedBranches.reset();
+		openBranches.reset();
+
+		Explorer explorer = new Explorer();
+		boolean closed = false;
+		for (int i = 0; i < input.size() && !closed; i++) {
+			closed = !explorer.add(input.get(i));
+		}
+
+		if(closed || pool == null) {
+			explorer.run(null, closed);
+		} else {
+			pool.invoke(new ExploreTask(explorer, null));
+		}
+	}
+
+	//State of the branch explored by a thread
+	private final class Explorer {
+
+		//Value of the atoms of the branch by their symbol id, and the literals
+		//of the branch in the order they were set in
+		private final SymbolMap values;
+		private final List<PropLogic> trail;
+		//Expressions to operate on
+		private Pending alpha = null;
+		private Pending beta = null;
+		private final Deque<Split> splits = new ArrayDeque<>();
+
+		private long closed = 0;
+		private long open = 0;
+
+		private Explorer() {
+			this.values = new SymbolMap();
+			this.trail = new ArrayList<>();
+		}
+
+		//Copy of the atoms of another explorer, and its pending beta expressions
+		private Explorer(Explorer other) {
+			this.values = new SymbolMap(other.values);
+			this.trail = new ArrayList<>(other.trail);
+			this.beta = other.beta;
+		}
+
+		/**
+		 * Explores every branch below the current one.
+		 * @param task The task of the explorer, null to fork no tasks
+		 * @param alreadyClosed Whether the current branch is already closed
+		 */
+		private void run(ExploreTask task, boolean alreadyClosed) {
+			try {
+				search(task, alreadyClosed);
+			} catch (CancellationException e) {
+				//Stops the other tasks too
+				stopped = true;
+				throw e;
+			} finally {
+				closedBranches.add(closed);
+				openBranches.add(open);
+			}
+		}
+
+		private void search(ExploreTask task, boolean alreadyClosed) {
+			boolean backtrack = alreadyClosed;
+			boolean finished = stopped;
+			if(alreadyClosed) {
+				closeBranch();
+			}
+
+			while(!finished) {
+				if(!backtrack) {
+					//Alpha operations first
+					while(alpha != null && !backtrack) {
+						List<PropLogic> components = PropLogicUtils.components(alpha.expression);
+						alpha = alpha.next;
+						backtrack = !add(components.get(0)) || !add(components.get(1));
+					}
+
+					if(backtrack) {
+						closeBranch();
+					} else if(beta == null) {
+						openBranch();
+						action.accept(branch());
+						stopped |= first;
+						backtrack = true;
+					} else {
+						List<PropLogic> components = PropLogicUtils.components(beta.expression);
+						beta = beta.next;
+						if(task != null && ForkJoinTask.getSurplusQueuedTaskCount() < SURPLUS_TASKS) {
+							task.fork(new Explorer(this), components.get(1));
+						} else {
+							splits.push(new Split(components.get(1), beta, trail.size()));
+						}
+						backtrack = !add(components.get(0));
+						if(backtrack) {
+							closeBranch();
+						}
+					}
+				}
+
+				if(stopped) {
+					finished = true;
+				} else if(backtrack) {
+					//Continue on the second component of the last split
+					Split split = splits.poll();
+					if(split == null) {
+						finished = true;
+					} else {
+						while(trail.size() > split.trailSize) {
+							values.remove(trail.remove(trail.size() - 1).getId());
+						}
+						alpha = null;
+						beta = split.beta;
+						backtrack = !add(split.second);
+						if(backtrack) {
+							closeBranch();
+						}
+					}
+				}
+			}
+		}
+
+		private void closeBranch() {
+			context.step();
+			closed++;
+		}
+
+		private void openBranch() {
+			context.step();
+			open++;
+		}
+
+		/**
+		 * Adds an expression to the current branch.
+		 * @return False if it closes the branch
+		 */
+		private boolean add(PropLogic expression) {
+			boolean res = true;
+			if(expression.isAtom()) {
+				int value = expression.isNegated()? FALSE : TRUE;
+				int current = values.get(expression.getId());
+				if(current == 0) {
+					values.put(expression.getId(), value);
+					trail.add(expression);
+				} else {
+					res = current == value;
+				}
+			} else if(PropLogicUtils.isAlpha(expression)) {
+				alpha = new Pending(expression, alpha);
+			} else {
+				beta = new Pending(expression, beta);
+			}
+			return res;
+		}
+
+		private Set<PropLogic> branch() {
+			return new HashSet<>(trail);
+		}
+	}
+
+	//Explores the branches below a split, forking some of their own splits
+	private final class ExploreTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Explorer explorer;
+		//Expression added to the branch before exploring it, null for the root
+		private final PropLogic start;
+		private final List<ExploreTask> forked = new ArrayList<>();
+
+		private ExploreTask(Explorer explorer, PropLogic start) {
+			this.explorer = explorer;
+			this.start = start;
+		}
+
+		private void fork(Explorer explorer, PropLogic start) {
+			ExploreTask task = new ExploreTask(explorer, start);
+			forked.add(task);
+			task.fork();
+		}
+
+		@Override
+		protected void compute() {
+			if(!stopped) {
+				explorer.run(this, start != null && !explorer.add(start));
+			}
+
+			for (int i = forked.size() - 1; i >= 0; i--) {
+				forked.get(i).join();
+			}
+		}
+	}
+
+	//Immutable list of expressions, shared by the branches that contain them
+	private record Pending(PropLogic expression, Pending next) {}
+
+	//Second branch of a beta operation, with the state to restore before it
+	private record Split(PropLogic second, Pending beta, int trailSize) {}
+}
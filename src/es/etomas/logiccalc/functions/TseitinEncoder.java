@@ -0,0 +1,278 @@
+package es.etomas.logiccalc.functions;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import es.etomas.logiccalc.logicparsers.PropLogic;
+
+/**
+ * Converts logic expressions into equisatisfiable clauses by giving a fresh
+ * auxiliary variable to every operation and defining it with a few clauses,
+ * so the result grows linearly with the expression instead of exponentially
+ * like {@link PropLogicUtils#toCNF}.
+ * <p>
+ * In {@link Mode#TSEITIN} mode both implications of every definition are added.
+ * In {@link Mode#PLAISTED_GREENBAUM} mode only the ones needed by the polarity
+ * in which each operation appears are added, which gives about half the clauses.
+ * Shared subexpressions are defined once. Auxiliary variables are labelled
+ * {@code _t} followed by a number, and the subexpression each one stands for
+ * can be looked up.
+ */
+public final class TseitinEncoder {
+
+	public enum Mode {TSEITIN, PLAISTED_GREENBAUM}
+
+	private static final String AUXILIARY_PREFIX = "_t";
+
+	//Polarities in which an operation appears, as a bit mask
+	private static final int POSITIVE = 1;
+	private static final int NEGATIVE = 2;
+	private static final int BOTH = POSITIVE | NEGATIVE;
+
+	private final ClauseDatabase database;
+	private final Mode mode;
+
+	//Auxiliary variable of each operation without negation
+	private final Map<PropLogic, Integer> variables = new HashMap<>();
+	//Polarities whose clauses were already added for each operation
+	private final Map<PropLogic, Integer> defined = new HashMap<>();
+	private final Map<Integer, PropLogic> definitions = new HashMap<>();
+	private int auxiliaryCount = 0;
+
+	/**
+	 * Creates an encoder that adds its clauses to a new database.
+	 * @param mode The kind of definitions to add
+	 */
+	public TseitinEncoder(Mode mode) {
+		this(new ClauseDatabase(), mode);
+	}
+
+	/**
+	 * Creates an encoder that adds its clauses to a database.
+	 * @param database The database where clauses are added
+	 * @param mode The kind of definitions to add
+	 */
+	public TseitinEncoder(ClauseDatabase database, Mode mode) {
+		this.database = database;
+		this.mode = mode;
+	}
+
+	/**
+	 * Gets the equisatisfiable clauses of an expression.
+	 * @param input The expression
+	 * @param mode The kind of definitions to add
+	 * @return A database with the clauses
+	 */
+	public static ClauseDatabase encode(PropLogic input, Mode mode) {
+		TseitinEncoder encoder = new TseitinEncoder(mode);
+		encoder.assertExpression(input);
+		return encoder.getDatabase();
+	}
+
+	/**
+	 * Gets the equisatisfiable clauses of an expression as sets of atoms.
+	 * @param input The expression
+	 * @param mode The kind of definitions to add
+	 * @return The set of clauses
+	 */
+	public static Set<Set<PropLogic>> clauses(PropLogic input, Mode mode) {
+		return encode(input, mode).toPropLogic();
+	}
+
+	/**
+	 * Adds the clauses that make an expression true.
+	 * @param input The expression
+	 */
+	public void assertExpression(PropLogic input) {
+		addAtoms(input);
+		assertParts(input);
+	}
+
+	/**
+	 * Gets a literal that is equivalent to an expression in every model of the
+	 * added clauses, adding definitions for both polarities.
+	 * @param input The expression
+	 * @return The literal
+	 */
+	public int literal(PropLogic input) {
+		addAtoms(input);
+		return encode(input, BOTH);
+	}
+
+	public ClauseDatabase getDatabase() {
+		return this.database;
+	}
+
+	public Mode getMode() {
+		return this.mode;
+	}
+
+	/**
+	 * Gets the subexpression an auxiliary variable stands for.
+	 * @param variable The variable
+	 * @return The subexpression, null if the variable is not auxiliary
+	 */
+	public PropLogic getDefinition(int variable) {
+		return definitions.get(variable);
+	}
+
+	/**
+	 * Gets the subexpression each auxiliary variable stands for.
+	 * @return A Map from auxiliary variables to subexpressions
+	 */
+	public Map<Integer, PropLogic> getDefinitions() {
+		return Collections.unmodifiableMap(definitions);
+	}
+
+	public int getAuxiliaryCount() {
+		return this.auxiliaryCount;
+	}
+
+	//Conjunctions at the top can be asserted separately without definitions
+	private void assertParts(PropLogic input) {
+		if(input.getType() == PropLogic.LogicType.CONJUNCTION && !input.isNegated()) {
+			assertParts(input.getLeft());
+			assertParts(input.getRight());
+		} else if(input.getType() == PropLogic.LogicType.DISJUNCTION && input.isNegated()) {
+			assertParts(input.getLeft().getComplementary());
+			assertParts(input.getRight().getComplementary());
+		} else {
+			database.addClause(encode(input, POSITIVE));
+		}
+	}
+
+	/**
+	 * Gives a variable to every atom of an expression before any auxiliary
+	 * variable is created, as an operation gets its variable before its
+	 * operands are encoded, and its label must not be the one of an atom found
+	 * later. Operations that already have a variable had their atoms added.
+	 */
+	private void addAtoms(PropLogic input) {
+		Set<PropLogic> visited = new HashSet<>();
+		Deque<PropLogic> pending = new ArrayDeque<>();
+		pending.push(input);
+		while(!pending.isEmpty()) {
+			PropLogic expr = pending.pop();
+			if(expr.isAtom()) {
+				database.literal(expr);
+			} else if(!variables.containsKey(expr.getPositive()) && visited.add(expr.getPositive())) {
+				pending.push(expr.getRight());
+				pending.push(expr.getLeft());
+			}
+		}
+	}
+
+	/**
+	 * Gets the literal of an expression, adding the definitions needed for the
+	 * polarities in which it appears.
+	 */
+	private int encode(PropLogic input, int polarity) {
+		int res;
+
+		if(input.isAtom()) {
+			res = database.literal(input);
+		} else {
+			PropLogic positive = input.getPositive();
+			int needed = mode == Mode.TSEITIN? BOTH :
+				input.isNegated()? flip(polarity) : polarity;
+
+			Integer variable = variables.get(positive);
+			if(variable == null) {
+				variable = newAuxiliary(positive);
+			}
+
+			int missing = needed & ~defined.getOrDefault(positive, 0);
+			if(missing != 0) {
+				defined.merge(positive, missing, (a, b) -> a | b);
+				define(positive, variable, missing);
+			}
+			res = input.isNegated()? -variable : variable;
+		}
+		return res;
+	}
+
+	//Adds the clauses of an operation for the given polarities
+	private void define(PropLogic operation, int x, int polarity) {
+		boolean positive = (polarity & POSITIVE) != 0;
+		boolean negative = (polarity & NEGATIVE) != 0;
+
+		switch (operation.getType()) {
+		case CONJUNCTION: {
+			int l = encode(operation.getLeft(), polarity);
+			int r = encode(operation.getRight(), polarity);
+			if(positive) {
+				database.addClause(-x, l);
+				database.addClause(-x, r);
+			}
+			if(negative) {
+				database.addClause(x, -l, -r);
+			}
+			break;
+		}
+		case DISJUNCTION: {
+			int l = encode(operation.getLeft(), polarity);
+			int r = encode(operation.getRight(), polarity);
+			if(positive) {
+				database.addClause(-x, l, r);
+			}
+			if(negative) {
+				database.addClause(x, -l);
+				database.addClause(x, -r);
+			}
+			break;
+		}
+		case IMPLICATION: {
+			//The premise appears with the opposite polarity
+			int l = encode(operation.getLeft(), flip(polarity));
+			int r = encode(operation.getRight(), polarity);
+			if(positive) {
+				database.addClause(-x, -l, r);
+			}
+			if(negative) {
+				database.addClause(x, l);
+				database.addClause(x, -r);
+			}
+			break;
+		}
+		case BICONDITIONAL: {
+			//Both sides appear with both polarities
+			int l = encode(operation.getLeft(), BOTH);
+			int r = encode(operation.getRight(), BOTH);
+			if(positive) {
+				database.addClause(-x, -l, r);
+				database.addClause(-x, l, -r);
+			}
+			if(negative) {
+				database.addClause(x, l, r);
+				database.addClause(x, -l, -r);
+			}
+			break;
+		}
+		case ATOM:
+			throw new IllegalArgumentException("Atoms do not need definitions");
+		}
+	}
+
+	private int newAuxiliary(PropLogic operation) {
+		int res;
+		String label;
+		do {
+			auxiliaryCount++;
+			label = AUXILIARY_PREFIX + auxiliaryCount;
+		} while(database.containsLabel(label));
+
+		res = database.addVariable(label);
+		variables.put(operation, res);
+		definitions.put(res, operation);
+		return res;
+	}
+
+	private static int flip(int polarity) {
+		return ((polarity & POSITIVE) << 1) | ((polarity & NEGATIVE) >> 1);
+	}
+}
@@ -13,8 +13,8 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.text.ParseException;
-import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
@@ -32,6 +32,7 @@ import javax.swing.UIManager;
 import javax.swing.UnsupportedLookAndFeelException;
 import javax.swing.plaf.synth.SynthLookAndFeel;
 
+import es.etomas.logiccalc.logicparsers.PrecedenceParser;
 import es.etomas.logiccalc.logicparsers.PropLogic;
 
 
@@ -222,8 +223,8 @@ public class CalcFrame extends JFrame implements ActionListener{
 			
 			input = ((JTextField) e.getSource()).getText();
 			
-			parsingSegments = input
-					.replace(" ", "").split(":");
+			//Spaces separate names from operators, so they are kept for the parser
+			parsingSegments = input.split(":");
 			
 			PropLogic logicExpression;
 			
@@ -236,7 +237,7 @@ public class CalcFrame extends JFrame implements ActionListener{
 				break;
 			case 2:
 				//Logic expression being named
-				varName = parsingSegments[0];
+				varName = parsingSegments[0].trim();
 				logicExpression = PropLogic.parse(parsingSegments[1]);
 				break;
 			default:
@@ -258,8 +259,7 @@ public class CalcFrame extends JFrame implements ActionListener{
 		case "addExpressionSet":
 			System.out.println("Adding expression set: " + ((JTextField) e.getSource()).getText());
 			input = ((JTextField) e.getSource()).getText();
-			parsingSegments = input
-					.replace(" ", "").split(":");
+			parsingSegments = input.split(":");
 			
 			
 			Set<PropLogic> expressions;
@@ -267,16 +267,12 @@ public class CalcFrame extends JFrame implements ActionListener{
 			switch(parsingSegments.length) {
 			case 1:
 				varName = generateMapKey();
-				expressions = Arrays.stream(parsingSegments[0].split(","))
-						.map(s->PropLogic.parse(s))
-						.collect(Collectors.toSet());
+				expressions = parseExpressionSet(parsingSegments[0]);
 				
 				break;
 			case 2:
-				varName = parsingSegments[0];
-				expressions = Arrays.stream(parsingSegments[1].split(","))
-						.map(s->PropLogic.parse(s))
-						.collect(Collectors.toSet());
+				varName = parsingSegments[0].trim();
+				expressions = parseExpressionSet(parsingSegments[1]);
 				break;
 			default:
 				throw new IllegalArgumentException("Invalid format");
@@ -299,6 +295,25 @@ public class CalcFrame extends JFrame implements ActionListener{
 		}
 	}
 	
+	//A set only has a few expressions, so they are parsed here one after the other,
+	//and the first empty or wrong one is reported
+	private Set<PropLogic> parseExpressionSet(String input) {
+		Set<PropLogic> res = new HashSet<>();
+		PrecedenceParser parser = new PrecedenceParser();
+		String[] pieces = input.split(",", -1);
+		for (int i = 0; i < pieces.length; i++) {
+			if(pieces[i].isBlank()) {
+				throw new IllegalArgumentException("Expression " + (i + 1) + " is empty");
+			}
+			try {
+				res.add(parser.parse(pieces[i]));
+			} catch (IllegalArgumentException e) {
+				throw new IllegalArgumentException("Expression " + (i + 1) + ": " + e.getMessage(), e);
+			}
+		}
+		return res;
+	}
+	
 	public static String nextString(String string) {
 		Boolean finished = false;
 		String res = string;
@@ -0,0 +1,154 @@
+package es.etomas.logiccalc.logicparsers;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Stream;
+
+/**
+ * Parses many expressions in parallel, one per line of a file or element of
+ * a stream, with a {@link PrecedenceParser} per task on a {@link ForkJoinPool}.
+ * <p>
+ * Lines are read in blocks by the calling thread and each block is parsed by
+ * a task, while the results of earlier blocks are collected in order, so only
+ * a few blocks of text are held at a time. Every line gets its own result,
+ * with the expression or the error found in it, and blank lines are skipped.
+ * Atoms of all the expressions get their ids from the same
+ * {@link SymbolTable#shared()} table, which is safe to use from every task.
+ */
+public final class BatchParser implements AutoCloseable {
+
+	private static final int BLOCK_SIZE = 1024;
+	//Blocks parsed or waiting per thread before the calling thread stops reading
+	private static final int BLOCKS_PER_THREAD = 4;
+
+	private final ForkJoinPool pool;
+	private final boolean ownsPool;
+
+	/**
+	 * Result of parsing a line.
+	 * @param line The number of the line, starting at 1
+	 * @param expression The expression, null if the line has errors
+	 * @param error The message of the error, null if the line is valid
+	 */
+	public record Result(int line, PropLogic expression, String error) {
+
+		public boolean isValid() {
+			return error == null;
+		}
+	}
+
+	/**
+	 * Creates a parser that uses the common pool.
+	 */
+	public BatchParser() {
+		this(ForkJoinPool.commonPool(), false);
+	}
+
+	/**
+	 * Creates a parser with its own pool, which is shut down when the parser is closed.
+	 * @param parallelism The number of threads to use
+	 */
+	public BatchParser(int parallelism) {
+		this(new ForkJoinPool(parallelism), true);
+	}
+
+	/**
+	 * Creates a parser that uses the given pool.
+	 * @param pool The pool where expressions are parsed
+	 */
+	public BatchParser(ForkJoinPool pool) {
+		this(pool, false);
+	}
+
+	private BatchParser(ForkJoinPool pool, boolean ownsPool) {
+		this.pool = pool;
+		this.ownsPool = ownsPool;
+	}
+
+	public int getParallelism() {
+		return pool.getParallelism();
+	}
+
+	/**
+	 * Parses every line of a UTF-8 file.
+	 * @param file The path of the file
+	 * @return The result of each line that is not blank, in the order of the file
+	 * @throws IOException If the file cannot be read
+	 */
+	public List<Result> parse(Path file) throws IOException {
+		try(Stream<String> lines = Files.lines(file)) {
+			return parse(lines);
+		}
+	}
+
+	/**
+	 * Parses every element of a stream, each one as a line.
+	 * @param lines The texts of the expressions
+	 * @return The result of each text that is not blank, in the order of the stream
+	 */
+	public List<Result> parse(Stream<String> lines) {
+		List<Result> res = new ArrayList<>();
+		Deque<ForkJoinTask<Result[]>> pending = new ArrayDeque<>();
+		int window = BLOCKS_PER_THREAD * pool.getParallelism();
+
+		Iterator<String> iterator = lines.iterator();
+		int line = 0;
+		while(iterator.hasNext()) {
+			String[] block = new String[BLOCK_SIZE];
+			int size = 0;
+			int first = line + 1;
+			while(size < BLOCK_SIZE && iterator.hasNext()) {
+				block[size++] = iterator.next();
+				line++;
+			}
+			int blockSize = size;
+			pending.add(pool.submit(()->parseBlock(block, blockSize, first)));
+			if(pending.size() >= window) {
+				collect(pending.poll(), res);
+			}
+		}
+		while(!pending.isEmpty()) {
+			collect(pending.poll(), res);
+		}
+		return res;
+	}
+
+	@Override
+	public void close() {
+		if(ownsPool) {
+			pool.shutdown();
+		}
+	}
+
+	//Parses the lines of a block, leaving null the results of blank lines
+	private static Result[] parseBlock(String[] block, int size, int first) {
+		PrecedenceParser parser = new PrecedenceParser();
+		Result[] res = new Result[size];
+		for (int i = 0; i < size; i++) {
+			if(!block[i].isBlank()) {
+				try {
+					res[i] = new Result(first + i, parser.parse(block[i]), null);
+				} catch (IllegalArgumentException e) {
+					res[i] = new Result(first + i, null, e.getMessage());
+				}
+			}
+		}
+		return res;
+	}
+
+	private static void collect(ForkJoinTask<Result[]> task, List<Result> results) {
+		for (Result result : task.join()) {
+			if(result != null) {
+				results.add(result);
+			}
+		}
+	}
+}
@@ -0,0 +1,198 @@
+package es.etomas.logiccalc.logicparsers;
+
+import java.util.Arrays;
+
+import es.etomas.logiccalc.logicparsers.PropLogic.LogicType;
+
+/**
+ * Operator and operand stacks shared by {@link PrecedenceParser} and
+ * {@link StreamingParser}, with the operators of the grammar and their
+ * precedence. The parsers only read the characters and push what they find,
+ * and the operations are given to a {@link StreamingParser.Builder} as soon as
+ * they are complete. The stacks grow as needed and are reused after
+ * {@link #clear()}.
+ * @param <T> The type of the values of the builder
+ */
+final class OperatorStack<T> {
+
+	//Entries of the operator stack
+	static final int OPEN = 0;
+	static final int NOT = 1;
+	static final int AND = 2;
+	static final int OR = 3;
+	static final int IMPLICATION = 4;
+	static final int BICONDITIONAL = 5;
+
+	private final StreamingParser.Builder<T> builder;
+
+	private Object[] operands = new Object[16];
+	private int operandCount = 0;
+	private int[] operators = new int[16];
+	private int operatorCount = 0;
+
+	OperatorStack(StreamingParser.Builder<T> builder) {
+		this.builder = builder;
+	}
+
+	/**
+	 * Pushes an operand.
+	 * @param operand The value of the operand
+	 */
+	void pushOperand(T operand) {
+		if(operandCount == operands.length) {
+			operands = Arrays.copyOf(operands, 2 * operands.length);
+		}
+		operands[operandCount++] = operand;
+	}
+
+	/**
+	 * Pushes a negation or an opening parenthesis, which wait for their operand.
+	 * @param operator {@link #NOT} or {@link #OPEN}
+	 */
+	void pushOperator(int operator) {
+		if(operatorCount == operators.length) {
+			operators = Arrays.copyOf(operators, 2 * operators.length);
+		}
+		operators[operatorCount++] = operator;
+	}
+
+	/**
+	 * Pushes a binary operator, first applying the operators before it that
+	 * bind tighter.
+	 * @param operator The operator
+	 */
+	void pushBinary(int operator) {
+		//Operators of the same level group to the right, so only operators
+		//of a higher level are applied before, unless the builder regroups
+		int level = level(operator);
+		while(operatorCount > 0 && (level(operators[operatorCount - 1]) > level ||
+				(operators[operatorCount - 1] == operator && operator != IMPLICATION && builder.regroups()))) {
+			reduce();
+		}
+		pushOperator(operator);
+	}
+
+	/**
+	 * Applies the operators inside the last opening parenthesis and removes it.
+	 * @return False if there is no opening parenthesis
+	 */
+	boolean closeParenthesis() {
+		reduceUntil(OPEN);
+		boolean res = operatorCount > 0;
+		if(res) {
+			operatorCount--;
+		}
+		return res;
+	}
+
+	/**
+	 * Applies every remaining operator.
+	 * @return False if a parenthesis is still open
+	 */
+	boolean finish() {
+		reduceUntil(OPEN);
+		return operatorCount == 0;
+	}
+
+	/**
+	 * Gets the value of the whole expression once it is finished.
+	 * @return The value
+	 */
+	@SuppressWarnings("unchecked")
+	T result() {
+		return (T) operands[0];
+	}
+
+	/**
+	 * Empties the stacks, so the values of the builder are not kept alive.
+	 */
+	void clear() {
+		Arrays.fill(operands, 0, operandCount, null);
+		operandCount = 0;
+		operatorCount = 0;
+	}
+
+	//Applies every operator above the last one of the given kind
+	private void reduceUntil(int operator) {
+		while(operatorCount > 0 && operators[operatorCount - 1] != operator) {
+			reduce();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void reduce() {
+		int operator = operators[--operatorCount];
+		T right = (T) operands[--operandCount];
+		//The slot is cleared so the builder values are not kept alive
+		operands[operandCount] = null;
+		if(operator == NOT) {
+			operands[operandCount++] = builder.negation(right);
+		} else {
+			T left = (T) operands[--operandCount];
+			operands[operandCount++] = builder.operation(left, type(operator), right);
+		}
+	}
+
+	/**
+	 * Gets the operator of a word.
+	 * @param text The text with the word
+	 * @param start The index of the first character of the word
+	 * @param end The index after the last character of the word
+	 * @return {@link #AND} or {@link #OR}, -1 if it is a name
+	 */
+	static int keyword(CharSequence text, int start, int end) {
+		int res = -1;
+		int length = end - start;
+		if(length == 3 && text.charAt(start) == 'a' && text.charAt(start + 1) == 'n' &&
+				text.charAt(start + 2) == 'd') {
+			res = AND;
+		} else if(length == 2 && text.charAt(start) == 'o' && text.charAt(start + 1) == 'r') {
+			res = OR;
+		}
+		return res;
+	}
+
+	static boolean isNameStart(int c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+	}
+
+	static boolean isNamePart(int c) {
+		return isNameStart(c) || (c >= '0' && c <= '9') || c == '_';
+	}
+
+	static boolean isWhitespace(int c) {
+		return c == ' ' || c == '\r' || c == '\n' || c == '\t';
+	}
+
+	//Level of each operator in the grammar, higher binding tighter
+	private static int level(int operator) {
+		int res;
+		switch (operator) {
+		case NOT: res = 3;
+			break;
+		case AND, OR: res = 2;
+			break;
+		case IMPLICATION, BICONDITIONAL: res = 1;
+			break;
+		default: res = 0;
+			break;
+		}
+		return res;
+	}
+
+	private static LogicType type(int operator) {
+		LogicType res;
+		switch (operator) {
+		case AND: res = LogicType.CONJUNCTION;
+			break;
+		case OR: res = LogicType.DISJUNCTION;
+			break;
+		case IMPLICATION: res = LogicType.IMPLICATION;
+			break;
+		case BICONDITIONAL: res = LogicType.BICONDITIONAL;
+			break;
+		default: throw new IllegalArgumentException("Invalid operation type");
+		}
+		return res;
+	}
+}
@@ -0,0 +1,169 @@
+package es.etomas.logiccalc.logicparsers;
+
+/**
+ * Hand-written parser of the language of {@code PropLogic.g4}, which builds
+ * the expression directly while reading the text, without tokens or a parse
+ * tree.
+ * <p>
+ * It follows the precedence of the grammar: negation binds tightest, then
+ * conjunctions and disjunctions, then implications and biconditionals, and
+ * operators of the same level group to the right. Operators and operands are
+ * kept in explicit stacks instead of recursion, so the length of a chain of
+ * operators is only limited by memory, and the stacks are reused between calls,
+ * so parsing only allocates the names of new atoms and the expressions.
+ * <p>
+ * Unlike {@link PropLogic#parse(String)}, which is kept as the reference, the
+ * whole text must be an expression, and errors throw an exception instead of
+ * being recovered from. A parser must not be shared between threads.
+ */
+public final class PrecedenceParser {
+
+	private final OperatorStack<PropLogic> stack = new OperatorStack<>(StreamingParser.EXPRESSIONS);
+
+	private CharSequence text;
+	private int position;
+
+	/**
+	 * Parses an expression with a new parser.
+	 * @param text The text of the expression
+	 * @return The expression
+	 * @throws IllegalArgumentException If the text is not a valid expression
+	 */
+	public static PropLogic parseExpression(CharSequence text) {
+		return new PrecedenceParser().parse(text);
+	}
+
+	/**
+	 * Parses an expression.
+	 * @param text The text of the expression
+	 * @return The expression
+	 * @throws IllegalArgumentException If the text is not a valid expression
+	 */
+	public PropLogic parse(CharSequence text) {
+		return parse(text, 0, text.length());
+	}
+
+	/**
+	 * Parses an expression from part of a text.
+	 * @param text The text
+	 * @param start The index of the first character of the expression
+	 * @param end The index after the last character of the expression
+	 * @return The expression
+	 * @throws IllegalArgumentException If that part of the text is not a valid expression
+	 */
+	public PropLogic parse(CharSequence text, int start, int end) {
+		this.text = text;
+		this.position = start;
+
+		try {
+			boolean operand = true;
+			boolean finished = false;
+			while(!finished) {
+				skipWhitespace(end);
+				if(operand) {
+					operand = readOperand(end);
+				} else if(position == end) {
+					if(!stack.finish()) {
+						throw error("Missing ')'", end);
+					}
+					finished = true;
+				} else {
+					operand = readOperator(end);
+				}
+			}
+			return stack.result();
+		} finally {
+			//Expressions are not kept alive by the parser
+			stack.clear();
+			this.text = null;
+		}
+	}
+
+	/**
+	 * Reads a name, a negation or an opening parenthesis.
+	 * @return True if an operand is still expected
+	 */
+	private boolean readOperand(int end) {
+		boolean res = true;
+		char c = position < end? text.charAt(position) : 0;
+		if(c == '!') {
+			stack.pushOperator(OperatorStack.NOT);
+			position++;
+		} else if(c == '(') {
+			stack.pushOperator(OperatorStack.OPEN);
+			position++;
+		} else if(OperatorStack.isNameStart(c)) {
+			int start = position;
+			while(position < end && OperatorStack.isNamePart(text.charAt(position))) {
+				position++;
+			}
+			if(OperatorStack.keyword(text, start, position) >= 0) {
+				throw error("Expected a name, '!' or '(' but found '" +
+						text.subSequence(start, position) + "'", start);
+			}
+			stack.pushOperand(PropLogic.ofAtom(text.subSequence(start, position).toString(), false));
+			res = false;
+		} else {
+			throw error("Expected a name, '!' or '('", position);
+		}
+		return res;
+	}
+
+	/**
+	 * Reads a binary operator or a closing parenthesis.
+	 * @return True if an operand is expected next
+	 */
+	private boolean readOperator(int end) {
+		boolean res = true;
+		int start = position;
+		int operator = -1;
+		char c = text.charAt(position);
+		if(c == ')') {
+			position++;
+			if(!stack.closeParenthesis()) {
+				throw error("Unexpected ')'", start);
+			}
+			res = false;
+		} else if(c == '-' && matches("->", end)) {
+			operator = OperatorStack.IMPLICATION;
+		} else if(c == '<' && matches("<->", end)) {
+			operator = OperatorStack.BICONDITIONAL;
+		} else if(OperatorStack.isNameStart(c)) {
+			while(position < end && OperatorStack.isNamePart(text.charAt(position))) {
+				position++;
+			}
+			operator = OperatorStack.keyword(text, start, position);
+			if(operator < 0) {
+				throw error("Expected an operator but found '" + text.subSequence(start, position) + "'", start);
+			}
+		} else {
+			throw error("Expected an operator or ')'", start);
+		}
+
+		if(operator >= 0) {
+			stack.pushBinary(operator);
+		}
+		return res;
+	}
+
+	private boolean matches(String symbol, int end) {
+		boolean res = position + symbol.length() <= end;
+		for (int i = 0; res && i < symbol.length(); i++) {
+			res = text.charAt(position + i) == symbol.charAt(i);
+		}
+		if(res) {
+			position += symbol.length();
+		}
+		return res;
+	}
+
+	private void skipWhitespace(int end) {
+		while(position < end && OperatorStack.isWhitespace(text.charAt(position))) {
+			position++;
+		}
+	}
+
+	private IllegalArgumentException error(String message, int index) {
+		return new IllegalArgumentException(message + " at position " + index);
+	}
+}
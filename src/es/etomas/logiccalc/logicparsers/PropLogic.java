@@ -1,12 +1,15 @@
 package es.etomas.logiccalc.logicparsers;
 
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Stack;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
 
 import org.antlr.v4.runtime.CharStream;
@@ -15,103 +18,72 @@ import org.antlr.v4.runtime.CommonTokenStream;
 import org.antlr.v4.runtime.TokenStream;
 import org.antlr.v4.runtime.tree.ParseTree;
 
-public class PropLogic implements Iterable<PropLogic> {
+/**
+ * Immutable expression in propositional logic.
+ * <p>
+ * Expressions are hash-consed: every structurally equal expression is the
+ * same instance, so subexpressions are shared between formulas and equality
+ * is an identity check. New expressions can only be obtained through
+ * {@link #ofAtom}, {@link #ofOp} and {@link #parse}.
+ */
+public final class PropLogic implements Iterable<PropLogic> {
 
 	public enum LogicType {CONJUNCTION, DISJUNCTION, IMPLICATION, BICONDITIONAL, ATOM}
 
-
-	protected String label;
-	private LogicType type;
-	protected List<PropLogic> children;
-	protected boolean negated;
-	protected PropLogic parent;
-
-
-	//Atom constructor
-	private PropLogic(String label, Boolean negated) {
-		this.label = label;
-		this.children = List.of();
-		this.type = LogicType.ATOM;
-		this.parent = null;
-		this.negated = negated;
-	}
-
-	//Operation constructor
-	private PropLogic(PropLogic left, String label, PropLogic right) {
-
-		switch (label) {
-		case "->":
-			this.type = LogicType.IMPLICATION;
-			children = List.of(left,right);
-			break;
-
-		case "<->":
-			this.type = LogicType.BICONDITIONAL;
-			children = List.of(left,right);
-			break;
-
-		case "and":
-			if(!left.equals(right)) {
-				this.type = LogicType.CONJUNCTION;
-				children = List.of(left,right);
-			} else {
-				//a and a = a
-				this.type = left.getType();
-				this.children = left.getChildren();
-			}
-			break;
-
-		case "or":
-			if(!left.equals(right)) {
-				this.type = LogicType.DISJUNCTION;
-				children = List.of(left,right);
-			} else {
-				//a or a = a
-				this.type = left.getType();
-				this.children = left.getChildren();
-			}
-			break;
-
-		default:
-			throw new IllegalArgumentException("Invalid operation type");
-		}
-
-		this.parent = null;
-		this.negated = false;
-
-		if(this.type!=LogicType.ATOM) {
-			this.getLeft().setParent(this);
-			this.getRight().setParent(this);
-			this.label = label;
-		} else {
-			this.label = left.getLabel();
-		}
-	}
-
-	//Deep copying constructor
-	private PropLogic(PropLogic logicaProp) {
-		this.label = logicaProp.getLabel();
-		this.type = logicaProp.getType();
-		//To avoid endless recursion, the parent is set to null
-		//The children get their parent set after being copied
-		this.parent = null;
-		this.children = logicaProp.getChildren()
-				.stream()
-				.map(expr->expr.getCopy().setParent(logicaProp))
-				.toList();
-
-		this.negated = logicaProp.isNegated();
-
+	//Table with every expression currently alive. Entries are weakly referenced
+	//so that expressions nobody uses anymore can still be garbage collected
+	private static final ConcurrentHashMap<NodeKey, NodeRef> interned = new ConcurrentHashMap<>();
+	private static final ReferenceQueue<PropLogic> collected = new ReferenceQueue<>();
+
+	private final String label;
+	//Id of the label of atoms in the shared symbol table, -1 for operations
+	private final int id;
+	private final LogicType type;
+	private final List<PropLogic> children;
+	private final boolean negated;
+	private final int hash;
+	//Shape of the expression, calculated from the shape of its children
+	private final boolean clause;
+	private final boolean cnf;
+
+
+	private PropLogic(NodeKey key) {
+		this.label = key.label();
+		this.type = key.type();
+		this.id = type == LogicType.ATOM? SymbolTable.shared().intern(label) : -1;
+		this.negated = key.negated();
+		this.children = key.type() == LogicType.ATOM?
+				List.of():
+				List.of(key.left(), key.right());
+		this.hash = key.hashCode();
+		this.clause = isAtom() || (type == LogicType.DISJUNCTION && !negated &&
+				key.left().isClause() && key.right().isClause());
+		this.cnf = clause || (type == LogicType.CONJUNCTION && !negated &&
+				key.left().isCNF() && key.right().isCNF());
 	}
 
 	/**
 	 * Creates an atom to be used in propositional logic operations.
 	 *
 	 * @param label The string that represents the variable
+	 * @param negated Whether the atom is negated or not
 	 * @return The new expression in propositional logic
 	 */
 	public static PropLogic ofAtom(String label, Boolean negated) {
-		return new PropLogic(label, negated);
+		return intern(new NodeKey(LogicType.ATOM, label, negated, null, null));
+	}
+
+	/**
+	 * Creates an atom from the id of its label in the shared symbol table.
+	 *
+	 * @param id The id of the variable
+	 * @param negated Whether the atom is negated or not
+	 * @return The new expression in propositional logic
+	 * @throws IllegalArgumentException If no label has that id
+	 * @see SymbolTable#shared()
+	 */
+	public static PropLogic ofAtom(int id, boolean negated) {
+		return ofAtom(SymbolTable.shared().name(id), negated);
 	}
 
 	/**
@@ -123,10 +95,37 @@ public class PropLogic implements Iterable<PropLogic> {
 	 * @param rightChild The second expression
 	 * @return The new expression in propositional logic
 	 */
+	public static PropLogic ofOp(PropLogic leftChild, LogicType op, PropLogic rightChild) {
+		PropLogic res;
+
+		switch (op) {
+		case CONJUNCTION, DISJUNCTION:
+			//a and a = a, a or a = a
+			res = leftChild == rightChild?
+					leftChild:
+					intern(new NodeKey(op, opLabel(op), false, leftChild, rightChild));
+			break;
+		case IMPLICATION, BICONDITIONAL:
+			res = intern(new NodeKey(op, opLabel(op), false, leftChild, rightChild));
+			break;
+		default:
+			throw new IllegalArgumentException("Invalid operation type");
+		}
+
+		return res;
+	}
 
-	//TODO: Change from taking String to the LogicType enumerate
+	/**
+	 * Creates an expression in propositional logic from the symbol of an
+	 * operation and its children.
+	 *
+	 * @param leftChild The first expression
+	 * @param op The symbol of the operation to represent
+	 * @param rightChild The second expression
+	 * @return The new expression in propositional logic
+	 */
 	public static PropLogic ofOp(PropLogic leftChild, String op, PropLogic rightChild) {
-		return new PropLogic(leftChild, op, rightChild);
+		return ofOp(leftChild, opType(op), rightChild);
 	}
 
 	/**
@@ -146,35 +145,84 @@ public class PropLogic implements Iterable<PropLogic> {
 	}
 
 	/**
-	 * Creates a deep copy of the given logic expression.
-	 * @return The copied logic expression
+	 * Gets the type of operation represented by a symbol.
+	 * @param op The symbol of the operation
+	 * @return The type of the operation
+	 */
+	public static LogicType opType(String op) {
+		LogicType res;
+		switch (op) {
+		case "->": res = LogicType.IMPLICATION;
+			break;
+		case "<->": res = LogicType.BICONDITIONAL;
+			break;
+		case "and": res = LogicType.CONJUNCTION;
+			break;
+		case "or": res = LogicType.DISJUNCTION;
+			break;
+		default: throw new IllegalArgumentException("Invalid operation type");
+		}
+		return res;
+	}
+
+	/**
+	 * Gets the symbol that represents a type of operation.
+	 * @param type The type of the operation
+	 * @return The symbol of the operation
 	 */
-	public PropLogic getCopy() {
-		return new PropLogic(this);
+	public static String opLabel(LogicType type) {
+		String res;
+		switch (type) {
+		case DISJUNCTION: res = "or";
+			break;
+		case CONJUNCTION: res = "and";
+			break;
+		case BICONDITIONAL: res = "<->";
+			break;
+		case IMPLICATION: res = "->";
+			break;
+		default: throw new IllegalArgumentException("Atoms do not have an operation");
+		}
+		return res;
 	}
 
 	/**
-	 * Creates a copy of the expression and negates it
+	 * Gets the negation of the expression. As expressions are immutable, this
+	 * does not modify the current one.
 	 * @return The negated expression
 	 */
 	public PropLogic getComplementary() {
-		PropLogic res = this.getCopy();
-		res.setNegated(!this.negated);
-		return res;
+		return intern(new NodeKey(type, label, !negated,
+				isAtom()? null : getLeft(),
+				isAtom()? null : getRight()));
 	}
 
-	public List<PropLogic> getChildren() {
-		return this.children;
+	/**
+	 * Gets the same expression without its negation, if it has any.
+	 * @return The expression without negation
+	 */
+	public PropLogic getPositive() {
+		return negated? getComplementary() : this;
 	}
 
-	public PropLogic getFather() {
-		return this.parent;
+	public List<PropLogic> getChildren() {
+		return this.children;
 	}
 
 	public String getLabel() {
 		return this.label;
 	}
 
+	/**
+	 * Gets the id of the variable of an atom in the shared symbol table, the
+	 * same for the atom and its negation.
+	 * @return The id, or -1 if the expression is not an atom
+	 * @see SymbolTable#shared()
+	 */
+	public int getId() {
+		return this.id;
+	}
+
 	public PropLogic getLeft() {
 		return this.children.get(0);
 	}
@@ -187,65 +235,28 @@ public class PropLogic implements Iterable<PropLogic> {
 		return this.type;
 	}
 
-	public boolean hasFather() {
-		return this.parent != null;
-	}
-
 	public boolean isNegated() {
 		return this.negated;
 	}
 
-	public boolean isLeft() {
-		return this.hasFather() && this.parent.getLeft() == this;
-	}
-
-	public boolean isRight() {
-		return this.hasFather() && this.parent.getRight() == this;
-	}
-
 	public boolean isAtom() {
 		return this.type == LogicType.ATOM;
 	}
 
-	public PropLogic negate() {
-		negated = !negated;
-		return this;
-	}
-
-	public void setChildren(PropLogic leftChild, PropLogic rightChild) {
-		this.children = List.of(leftChild, rightChild);
-		leftChild.setParent(this);
-		rightChild.setParent(this);
-	}
-
-	public void setNegated(Boolean neg) {
-		this.negated = neg;
-	}
-
-	public PropLogic setParent(PropLogic father) {
-		this.parent = father;
-		return this;
+	/**
+	 * Checks if the expression is a clause: a literal or a disjunction of literals.
+	 * @return Whether the expression is a clause or not
+	 */
+	public boolean isClause() {
+		return this.clause;
 	}
 
-	public void setType(LogicType type) {
-	
-		//The target type and current type must both either be atoms or operators
-		if(this.type==LogicType.ATOM || type==LogicType.ATOM) {
-			throw new IllegalArgumentException("Cannot modify or "
-					+ "convert atoms");
-		}
-		this.type = type;
-		switch (type) {
-		case DISJUNCTION: this.label = "or";
-			break;
-		case CONJUNCTION: this.label = "and";
-			break;
-		case BICONDITIONAL: this.label = "<->";
-			break;
-		case IMPLICATION: this.label = "->";
-			break;
-		default: throw new IllegalArgumentException("Invalid conversion");
-		}
+	/**
+	 * Checks if the expression is in CNF: a clause or a conjunction of clauses.
+	 * @return Whether the expression is in CNF or not
+	 */
+	public boolean isCNF() {
+		return this.cnf;
 	}
 
 	/**
@@ -290,6 +301,40 @@ public class PropLogic implements Iterable<PropLogic> {
 		return res;
 	}
 
+	/**
+	 * Returns the truth value of the expression given the variables that are
+	 * true, by their id in the shared symbol table. Every other variable is
+	 * false.
+	 *
+	 * @param values The set with the ids of the true variables
+	 * @return The truth value
+	 * @see #getId()
+	 */
+	public boolean eval(BitSet values) {
+		boolean res = false;
+
+		switch (this.getType()) {
+		case ATOM:
+			res = values.get(this.id);
+			break;
+		case CONJUNCTION:
+			res = this.getLeft().eval(values) && this.getRight().eval(values);
+			break;
+		case DISJUNCTION:
+			res = this.getLeft().eval(values) || this.getRight().eval(values);
+			break;
+		case BICONDITIONAL:
+			res = this.getLeft().eval(values) == this.getRight().eval(values);
+			break;
+		case IMPLICATION:
+			res = !this.getLeft().eval(values) || this.getRight().eval(values);
+			break;
+		default:
+			break;
+		}
+		return res ^ this.negated;
+	}
+
 	@Override
 	public String toString() {
 
@@ -354,20 +399,78 @@ public class PropLogic implements Iterable<PropLogic> {
 
 	}
 
+	//The hash is calculated once from the structure of the expression
 	@Override
 	public int hashCode() {
-		return Objects.hash(children, label, negated, type);
+		return hash;
 	}
 
+	//Structurally equal expressions are always the same instance
 	@Override
 	public boolean equals(Object obj) {
-		if (this == obj)
-			return true;
-		if ((obj == null) || (getClass() != obj.getClass()))
-			return false;
-		PropLogic other = (PropLogic) obj;
-		return Objects.equals(children, other.children) && Objects.equals(label, other.label)
-				&& Objects.equals(negated, other.negated) && type == other.type;
+		return this == obj;
+	}
+
+	/**
+	 * Gets the only instance of the expression described by the key, creating
+	 * it if there is none.
+	 */
+	private static PropLogic intern(NodeKey key) {
+		expungeCollected();
+
+		PropLogic res = null;
+		while(res == null) {
+			NodeRef ref = interned.get(key);
+			res = ref == null? null : ref.get();
+
+			if(res == null) {
+				PropLogic created = new PropLogic(key);
+				NodeRef createdRef = new NodeRef(created, key);
+				//Another thread may have stored the same expression meanwhile,
+				//in which case its instance is the one used
+				boolean stored = ref == null?
+						interned.putIfAbsent(key, createdRef) == null:
+						interned.replace(key, ref, createdRef);
+				res = stored? created : null;
+			}
+		}
+		return res;
+	}
+
+	//Removes the entries of the expressions that have been garbage collected
+	private static void expungeCollected() {
+		Reference<? extends PropLogic> ref;
+		while((ref = collected.poll()) != null) {
+			NodeRef nodeRef = (NodeRef) ref;
+			interned.remove(nodeRef.key, nodeRef);
+		}
+	}
+
+	//Structure of an expression. As children are interned, comparing them
+	//by identity is enough to compare the whole structure
+	private record NodeKey(LogicType type, String label, boolean negated,
+			PropLogic left, PropLogic right) {
+
+		@Override
+		public int hashCode() {
+			int res = type.ordinal();
+			res = 31 * res + label.hashCode();
+			res = 31 * res + Boolean.hashCode(negated);
+			if(left != null) {
+				res = 31 * res + left.hashCode();
+				res = 31 * res + right.hashCode();
+			}
+			return res;
+		}
+	}
+
+	private static final class NodeRef extends WeakReference<PropLogic> {
+		private final NodeKey key;
+
+		private NodeRef(PropLogic expr, NodeKey key) {
+			super(expr, collected);
+			this.key = key;
+		}
 	}
 
 }
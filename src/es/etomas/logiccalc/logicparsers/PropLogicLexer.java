@@ -17,8 +17,8 @@ public class PropLogicLexer extends Lexer {
 	protected static final PredictionContextCache _sharedContextCache =
 		new PredictionContextCache();
 	public static final int
-		T__0=1, T__1=2, ELEMENT=3, BICONDITIONAL=4, IMPLICATION=5, AND=6, OR=7, 
-		NOT=8, WS=9;
+		T__0=1, T__1=2, BICONDITIONAL=3, IMPLICATION=4, AND=5, OR=6, NOT=7, ELEMENT=8, 
+		WS=9;
 	public static String[] channelNames = {
 		"DEFAULT_TOKEN_CHANNEL", "HIDDEN"
 	};
@@ -29,22 +29,22 @@ public class PropLogicLexer extends Lexer {
 
 	private static String[] makeRuleNames() {
 		return new String[] {
-			"T__0", "T__1", "ELEMENT", "BICONDITIONAL", "IMPLICATION", "AND", "OR", 
-			"NOT", "WS"
+			"T__0", "T__1", "BICONDITIONAL", "IMPLICATION", "AND", "OR", "NOT", "ELEMENT", 
+			"WS"
 		};
 	}
 	public static final String[] ruleNames = makeRuleNames();
 
 	private static String[] makeLiteralNames() {
 		return new String[] {
-			null, "'('", "')'", null, "'<->'", "'->'", "'and'", "'or'", "'!'"
+			null, "'('", "')'", "'<->'", "'->'", "'and'", "'or'", "'!'"
 		};
 	}
 	private static final String[] _LITERAL_NAMES = makeLiteralNames();
 	private static String[] makeSymbolicNames() {
 		return new String[] {
-			null, null, null, "ELEMENT", "BICONDITIONAL", "IMPLICATION", "AND", "OR", 
-			"NOT", "WS"
+			null, null, null, "BICONDITIONAL", "IMPLICATION", "AND", "OR", "NOT", 
+			"ELEMENT", "WS"
 		};
 	}
 	private static final String[] _SYMBOLIC_NAMES = makeSymbolicNames();
@@ -106,20 +106,22 @@ public class PropLogicLexer extends Lexer {
 	public ATN getATN() { return _ATN; }
 
 	public static final String _serializedATN =
-		"\3\u608b\ua72a\u8133\ub9ed\u417c\u3be7\u7786\u5964\2\13\62\b\1\4\2\t\2"+
+		"\3\u608b\ua72a\u8133\ub9ed\u417c\u3be7\u7786\u5964\2\13\67\b\1\4\2\t\2"+
 		"\4\3\t\3\4\4\t\4\4\5\t\5\4\6\t\6\4\7\t\7\4\b\t\b\4\t\t\t\4\n\t\n\3\2\3"+
-		"\2\3\3\3\3\3\4\3\4\3\5\3\5\3\5\3\5\3\6\3\6\3\6\3\7\3\7\3\7\3\7\3\b\3\b"+
-		"\3\b\3\t\3\t\3\n\6\n-\n\n\r\n\16\n.\3\n\3\n\2\2\13\3\3\5\4\7\5\t\6\13"+
-		"\7\r\b\17\t\21\n\23\13\3\2\4\4\2C\\c|\5\2\13\f\17\17\"\"\2\62\2\3\3\2"+
-		"\2\2\2\5\3\2\2\2\2\7\3\2\2\2\2\t\3\2\2\2\2\13\3\2\2\2\2\r\3\2\2\2\2\17"+
-		"\3\2\2\2\2\21\3\2\2\2\2\23\3\2\2\2\3\25\3\2\2\2\5\27\3\2\2\2\7\31\3\2"+
-		"\2\2\t\33\3\2\2\2\13\37\3\2\2\2\r\"\3\2\2\2\17&\3\2\2\2\21)\3\2\2\2\23"+
-		",\3\2\2\2\25\26\7*\2\2\26\4\3\2\2\2\27\30\7+\2\2\30\6\3\2\2\2\31\32\t"+
-		"\2\2\2\32\b\3\2\2\2\33\34\7>\2\2\34\35\7/\2\2\35\36\7@\2\2\36\n\3\2\2"+
-		"\2\37 \7/\2\2 !\7@\2\2!\f\3\2\2\2\"#\7c\2\2#$\7p\2\2$%\7f\2\2%\16\3\2"+
-		"\2\2&\'\7q\2\2\'(\7t\2\2(\20\3\2\2\2)*\7#\2\2*\22\3\2\2\2+-\t\3\2\2,+"+
-		"\3\2\2\2-.\3\2\2\2.,\3\2\2\2./\3\2\2\2/\60\3\2\2\2\60\61\b\n\2\2\61\24"+
-		"\3\2\2\2\4\2.\3\b\2\2";
+		"\2\3\3\3\3\3\4\3\4\3\4\3\4\3\5\3\5\3\5\3\6\3\6\3\6\3\6\3\7\3\7\3\7\3\b"+
+		"\3\b\3\t\3\t\7\t,\n\t\f\t\16\t/\13\t\3\n\6\n\62\n\n\r\n\16\n\63\3\n\3"+
+		"\n\2\2\13\3\3\5\4\7\5\t\6\13\7\r\b\17\t\21\n\23\13\3\2\5\4\2C\\c|\6\2"+
+		"\62;C\\aac|\5\2\13\f\17\17\"\"\28\2\3\3\2\2\2\2\5\3\2\2\2\2\7\3\2\2\2"+
+		"\2\t\3\2\2\2\2\13\3\2\2\2\2\r\3\2\2\2\2\17\3\2\2\2\2\21\3\2\2\2\2\23\3"+
+		"\2\2\2\3\25\3\2\2\2\5\27\3\2\2\2\7\31\3\2\2\2\t\35\3\2\2\2\13 \3\2\2\2"+
+		"\r$\3\2\2\2\17\'\3\2\2\2\21)\3\2\2\2\23\61\3\2\2\2\25\26\7*\2\2\26\4\3"+
+		"\2\2\2\27\30\7+\2\2\30\6\3\2\2\2\31\32\7>\2\2\32\33\7/\2\2\33\34\7@\2"+
+		"\2\34\b\3\2\2\2\35\36\7/\2\2\36\37\7@\2\2\37\n\3\2\2\2 !\7c\2\2!\"\7p"+
+		"\2\2\"#\7f\2\2#\f\3\2\2\2$%\7q\2\2%&\7t\2\2&\16\3\2\2\2\'(\7#\2\2(\20"+
+		"\3\2\2\2)-\t\2\2\2*,\t\3\2\2+*\3\2\2\2,/\3\2\2\2-+\3\2\2\2-.\3\2\2\2."+
+		"\22\3\2\2\2/-\3\2\2\2\60\62\t\4\2\2\61\60\3\2\2\2\62\63\3\2\2\2\63\61"+
+		"\3\2\2\2\63\64\3\2\2\2\64\65\3\2\2\2\65\66\b\n\2\2\66\24\3\2\2\2\5\2-"+
+		"\63\3\b\2\2";
 	public static final ATN _ATN =
 		new ATNDeserializer().deserialize(_serializedATN.toCharArray());
 	static {
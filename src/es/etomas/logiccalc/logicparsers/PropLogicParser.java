@@ -17,8 +17,8 @@ public class PropLogicParser extends Parser {
 	protected static final PredictionContextCache _sharedContextCache =
 		new PredictionContextCache();
 	public static final int
-		T__0=1, T__1=2, ELEMENT=3, BICONDITIONAL=4, IMPLICATION=5, AND=6, OR=7, 
-		NOT=8, WS=9;
+		T__0=1, T__1=2, BICONDITIONAL=3, IMPLICATION=4, AND=5, OR=6, NOT=7, ELEMENT=8, 
+		WS=9;
 	public static final int
 		RULE_expr = 0;
 	private static String[] makeRuleNames() {
@@ -30,14 +30,14 @@ public class PropLogicParser extends Parser {
 
 	private static String[] makeLiteralNames() {
 		return new String[] {
-			null, "'('", "')'", null, "'<->'", "'->'", "'and'", "'or'", "'!'"
+			null, "'('", "')'", "'<->'", "'->'", "'and'", "'or'", "'!'"
 		};
 	}
 	private static final String[] _LITERAL_NAMES = makeLiteralNames();
 	private static String[] makeSymbolicNames() {
 		return new String[] {
-			null, null, null, "ELEMENT", "BICONDITIONAL", "IMPLICATION", "AND", "OR", 
-			"NOT", "WS"
+			null, null, null, "BICONDITIONAL", "IMPLICATION", "AND", "OR", "NOT", 
+			"ELEMENT", "WS"
 		};
 	}
 	private static final String[] _SYMBOLIC_NAMES = makeSymbolicNames();
@@ -322,9 +322,9 @@ public class PropLogicParser extends Parser {
 	public static final String _serializedATN =
 		"\3\u608b\ua72a\u8133\ub9ed\u417c\u3be7\u7786\u5964\3\13\32\4\2\t\2\3\2"+
 		"\3\2\3\2\3\2\3\2\3\2\3\2\3\2\5\2\r\n\2\3\2\3\2\3\2\3\2\3\2\3\2\7\2\25"+
-		"\n\2\f\2\16\2\30\13\2\3\2\2\3\2\3\2\2\4\3\2\b\t\3\2\6\7\2\34\2\f\3\2\2"+
-		"\2\4\5\b\2\1\2\5\6\7\n\2\2\6\r\5\2\2\7\7\b\7\3\2\2\b\t\5\2\2\2\t\n\7\4"+
-		"\2\2\n\r\3\2\2\2\13\r\7\5\2\2\f\4\3\2\2\2\f\7\3\2\2\2\f\13\3\2\2\2\r\26"+
+		"\n\2\f\2\16\2\30\13\2\3\2\2\3\2\3\2\2\4\3\2\7\b\3\2\5\6\2\34\2\f\3\2\2"+
+		"\2\4\5\b\2\1\2\5\6\7\t\2\2\6\r\5\2\2\7\7\b\7\3\2\2\b\t\5\2\2\2\t\n\7\4"+
+		"\2\2\n\r\3\2\2\2\13\r\7\n\2\2\f\4\3\2\2\2\f\7\3\2\2\2\f\13\3\2\2\2\r\26"+
 		"\3\2\2\2\16\17\f\5\2\2\17\20\t\2\2\2\20\25\5\2\2\5\21\22\f\4\2\2\22\23"+
 		"\t\3\2\2\23\25\5\2\2\4\24\16\3\2\2\2\24\21\3\2\2\2\25\30\3\2\2\2\26\24"+
 		"\3\2\2\2\26\27\3\2\2\2\27\3\3\2\2\2\30\26\3\2\2\2\5\f\24\26";
@@ -10,7 +10,7 @@ public class PropLogicVisitorC extends PropLogicBaseVisitor<PropLogic>{
 
 	@Override
 	public PropLogic visitNegated(NegatedContext ctx) {
-		return visit(ctx.getChild(1)).negate();
+		return visit(ctx.getChild(1)).getComplementary();
 	}
 
 	@Override
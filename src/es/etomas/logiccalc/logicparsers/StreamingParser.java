@@ -0,0 +1,346 @@
+package es.etomas.logiccalc.logicparsers;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import es.etomas.logiccalc.logicparsers.PropLogic.LogicType;
+
+/**
+ * Parser of the language of {@code PropLogic.g4} that reads the text in blocks
+ * from a Reader, a channel or a memory mapped file, so the text is never held
+ * in memory as a whole.
+ * <p>
+ * It has the precedence and the errors of {@link PrecedenceParser}, but looks
+ * at a single character at a time, and gives each name and operation to a
+ * {@link Builder} as soon as it is read. The default builder makes the
+ * expression. Other builders can write out each part as it is completed and
+ * keep only what they still need, so that parsing a large text only holds the
+ * operands that are waiting for an operator.
+ */
+public final class StreamingParser<T> {
+
+	private static final int END = -1;
+	private static final int BUFFER_SIZE = 1 << 16;
+	//Files are mapped in regions, as a single buffer cannot hold more than 2GB
+	private static final long REGION_SIZE = 1L << 30;
+
+	/**
+	 * Receives the parts of an expression in the order they are completed, and
+	 * builds a value for each one from the values of its operands.
+	 * @param <T> The type of the values
+	 */
+	public interface Builder<T> {
+
+		/**
+		 * Builds the value of an atom.
+		 * @param name The name of the atom
+		 * @return Its value
+		 */
+		T atom(String name);
+
+		/**
+		 * Builds the value of a negation.
+		 * @param operand The value of the negated expression
+		 * @return Its value
+		 */
+		T negation(T operand);
+
+		/**
+		 * Builds the value of a binary operation.
+		 * @param left The value of the left operand
+		 * @param type The type of operation
+		 * @param right The value of the right operand
+		 * @return Its value
+		 */
+		T operation(T left, LogicType type, T right);
+
+		/**
+		 * Checks whether chains of conjunctions, disjunctions or biconditionals
+		 * may be grouped to the left. They are associative, so the result is
+		 * equivalent, and each operation is built as soon as the next operator
+		 * of the chain is read instead of at the end of the chain.
+		 * @return True if they may be grouped to the left, false to keep the
+		 * grouping of the grammar
+		 */
+		default boolean regroups() {
+			return false;
+		}
+
+		/**
+		 * Gets the value returned by the parser once the whole text is read.
+		 * @param expression The value of the whole expression
+		 * @return The result of the parser
+		 */
+		default T finish(T expression) {
+			return expression;
+		}
+	}
+
+	//Builder of the expressions, also used by PrecedenceParser
+	static final Builder<PropLogic> EXPRESSIONS = new Builder<>() {
+
+		@Override
+		public PropLogic atom(String name) {
+			return PropLogic.ofAtom(name, false);
+		}
+
+		@Override
+		public PropLogic negation(PropLogic operand) {
+			return operand.getComplementary();
+		}
+
+		@Override
+		public PropLogic operation(PropLogic left, LogicType type, PropLogic right) {
+			return PropLogic.ofOp(left, type, right);
+		}
+	};
+
+	private final Builder<T> builder;
+	private final OperatorStack<T> stack;
+
+	//Source of the characters: a Reader, or the regions of a mapped file
+	private final Reader reader;
+	private final FileChannel file;
+	private MappedByteBuffer region;
+	private long mapped = 0;
+	private final byte[] bytes;
+
+	private final char[] buffer = new char[BUFFER_SIZE];
+	private int index = 0;
+	private int limit = 0;
+	private int current;
+	private long position = -1;
+	private final StringBuilder word = new StringBuilder();
+
+	private StreamingParser(Builder<T> builder, Reader reader, FileChannel file) {
+		this.stack = new OperatorStack<>(builder);
+		this.builder = builder;
+		this.reader = reader;
+		this.file = file;
+		this.bytes = file == null? null : new byte[BUFFER_SIZE];
+	}
+
+	/**
+	 * Parses an expression from a Reader, which is read until its end but not closed.
+	 * @param in The Reader
+	 * @return The expression
+	 * @throws IOException If the Reader cannot be read
+	 * @throws IllegalArgumentException If the text is not a valid expression
+	 */
+	public static PropLogic parse(Reader in) throws IOException {
+		return parse(in, EXPRESSIONS);
+	}
+
+	/**
+	 * Parses an expression from a Reader, giving its parts to a builder.
+	 * @param in The Reader, which is read until its end but not closed
+	 * @param builder The builder
+	 * @return The result of the builder
+	 * @throws IOException If the Reader cannot be read
+	 * @throws IllegalArgumentException If the text is not a valid expression
+	 */
+	public static <T> T parse(Reader in, Builder<T> builder) throws IOException {
+		return new StreamingParser<>(builder, in, null).run();
+	}
+
+	/**
+	 * Parses an expression from a channel, which is read until its end but not closed.
+	 * @param in The channel
+	 * @param charset The charset of the text
+	 * @return The expression
+	 * @throws IOException If the channel cannot be read or has malformed characters
+	 * @throws IllegalArgumentException If the text is not a valid expression
+	 */
+	public static PropLogic parse(ReadableByteChannel in, Charset charset) throws IOException {
+		return parse(in, charset, EXPRESSIONS);
+	}
+
+	/**
+	 * Parses an expression from a channel, giving its parts to a builder.
+	 * @param in The channel, which is read until its end but not closed
+	 * @param charset The charset of the text
+	 * @param builder The builder
+	 * @return The result of the builder
+	 * @throws IOException If the channel cannot be read or has malformed characters
+	 * @throws IllegalArgumentException If the text is not a valid expression
+	 */
+	public static <T> T parse(ReadableByteChannel in, Charset charset, Builder<T> builder) throws IOException {
+		return parse(Channels.newReader(in, charset.newDecoder(), BUFFER_SIZE), builder);
+	}
+
+	/**
+	 * Parses an expression from a file, which is memory mapped.
+	 * @param file The path of the file
+	 * @return The expression
+	 * @throws IOException If the file cannot be read
+	 * @throws IllegalArgumentException If the text is not a valid expression
+	 */
+	public static PropLogic parse(Path file) throws IOException {
+		return parse(file, EXPRESSIONS);
+	}
+
+	/**
+	 * Parses an expression from a file, which is memory mapped, giving its
+	 * parts to a builder. Each byte is read as a character, as the grammar
+	 * only has ASCII characters.
+	 * @param file The path of the file
+	 * @param builder The builder
+	 * @return The result of the builder
+	 * @throws IOException If the file cannot be read
+	 * @throws IllegalArgumentException If the text is not a valid expression
+	 */
+	public static <T> T parse(Path file, Builder<T> builder) throws IOException {
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			return new StreamingParser<>(builder, null, channel).run();
+		}
+	}
+
+	private T run() throws IOException {
+		advance();
+		boolean operand = true;
+		boolean finished = false;
+		while(!finished) {
+			skipWhitespace();
+			if(operand) {
+				operand = readOperand();
+			} else if(current == END) {
+				if(!stack.finish()) {
+					throw error("Missing ')'", position);
+				}
+				finished = true;
+			} else {
+				operand = readOperator();
+			}
+		}
+		return builder.finish(stack.result());
+	}
+
+	/**
+	 * Reads a name, a negation or an opening parenthesis.
+	 * @return True if an operand is still expected
+	 */
+	private boolean readOperand() throws IOException {
+		boolean res = true;
+		long start = position;
+		if(current == '!') {
+			stack.pushOperator(OperatorStack.NOT);
+			advance();
+		} else if(current == '(') {
+			stack.pushOperator(OperatorStack.OPEN);
+			advance();
+		} else if(OperatorStack.isNameStart(current)) {
+			readWord();
+			if(OperatorStack.keyword(word, 0, word.length()) >= 0) {
+				throw error("Expected a name, '!' or '(' but found '" + word + "'", start);
+			}
+			stack.pushOperand(builder.atom(word.toString()));
+			res = false;
+		} else {
+			throw error("Expected a name, '!' or '('", start);
+		}
+		return res;
+	}
+
+	/**
+	 * Reads a binary operator or a closing parenthesis.
+	 * @return True if an operand is expected next
+	 */
+	private boolean readOperator() throws IOException {
+		boolean res = true;
+		long start = position;
+		int operator = -1;
+		if(current == ')') {
+			advance();
+			if(!stack.closeParenthesis()) {
+				throw error("Unexpected ')'", start);
+			}
+			res = false;
+		} else if(current == '-' || current == '<') {
+			operator = current == '-'? OperatorStack.IMPLICATION : OperatorStack.BICONDITIONAL;
+			if(current == '<') {
+				advance();
+				expect('-', start);
+			}
+			advance();
+			expect('>', start);
+			advance();
+		} else if(OperatorStack.isNameStart(current)) {
+			readWord();
+			operator = OperatorStack.keyword(word, 0, word.length());
+			if(operator < 0) {
+				throw error("Expected an operator but found '" + word + "'", start);
+			}
+		} else {
+			throw error("Expected an operator or ')'", start);
+		}
+
+		if(operator >= 0) {
+			stack.pushBinary(operator);
+		}
+		return res;
+	}
+
+	private void expect(char c, long start) {
+		if(current != c) {
+			throw error("Expected an operator or ')'", start);
+		}
+	}
+
+	//Reads the characters of a name or keyword into the word buffer
+	private void readWord() throws IOException {
+		word.setLength(0);
+		while(OperatorStack.isNamePart(current)) {
+			word.append((char) current);
+			advance();
+		}
+	}
+
+	private void skipWhitespace() throws IOException {
+		while(OperatorStack.isWhitespace(current)) {
+			advance();
+		}
+	}
+
+	//Moves to the next character, reading another block when the buffer is used up
+	private void advance() throws IOException {
+		if(index == limit && current != END) {
+			limit = fill();
+			index = 0;
+		}
+		current = index < limit? buffer[index++] : END;
+		position++;
+	}
+
+	private int fill() throws IOException {
+		int res;
+		if(reader != null) {
+			res = reader.read(buffer, 0, buffer.length);
+		} else {
+			long size = file.size();
+			if((region == null || !region.hasRemaining()) && mapped < size) {
+				region = file.map(FileChannel.MapMode.READ_ONLY, mapped, Math.min(REGION_SIZE, size - mapped));
+				mapped += region.capacity();
+			}
+			res = 0;
+			if(region != null) {
+				res = Math.min(region.remaining(), bytes.length);
+				region.get(bytes, 0, res);
+				for (int i = 0; i < res; i++) {
+					buffer[i] = (char) (bytes[i] & 0xff);
+				}
+			}
+		}
+		return res;
+	}
+
+	private IllegalArgumentException error(String message, long index) {
+		return new IllegalArgumentException(message + " at position " + index);
+	}
+}
@@ -0,0 +1,94 @@
+package es.etomas.logiccalc.logicparsers;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Table that interns the names of variables, giving each one a dense int id
+ * starting at 0.
+ * <p>
+ * Atoms get the id of their label in the {@link #shared()} table when they
+ * are created, so evaluators and solvers can index arrays by
+ * {@link PropLogic#getId()} instead of hashing labels. Ids are never
+ * released, so a name keeps its id even after every atom with it has been
+ * garbage collected. Tables are safe to use from several threads.
+ */
+public final class SymbolTable {
+
+	private static final SymbolTable SHARED = new SymbolTable();
+
+	private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+	//Written under the lock of the table, and published again after each write
+	private volatile String[] names = new String[64];
+	private volatile int size = 0;
+
+	/**
+	 * Gets the table used by every atom.
+	 * @return The shared table
+	 */
+	public static SymbolTable shared() {
+		return SHARED;
+	}
+
+	/**
+	 * Gets the id of a name, adding it to the table if it is not there yet.
+	 * @param name The name
+	 * @return Its id
+	 * @throws IllegalArgumentException If the name is null
+	 */
+	public int intern(String name) {
+		if(name == null) {
+			throw new IllegalArgumentException("Names cannot be null");
+		}
+		Integer res = ids.get(name);
+		if(res == null) {
+			synchronized (this) {
+				res = ids.get(name);
+				if(res == null) {
+					res = size;
+					String[] current = names;
+					if(res == current.length) {
+						current = Arrays.copyOf(current, 2 * current.length);
+					}
+					current[res] = name;
+					names = current;
+					size = res + 1;
+					ids.put(name, res);
+				}
+			}
+		}
+		return res;
+	}
+
+	/**
+	 * Gets the id of a name without adding it.
+	 * @param name The name
+	 * @return Its id, or -1 if it is not in the table
+	 */
+	public int id(String name) {
+		Integer res = ids.get(name);
+		return res == null? -1 : res;
+	}
+
+	/**
+	 * Gets the name of an id.
+	 * @param id The id
+	 * @return Its name
+	 * @throws IllegalArgumentException If no name has that id
+	 */
+	public String name(int id) {
+		//Size is read first, so the array has at least that many names
+		if(id < 0 || id >= size) {
+			throw new IllegalArgumentException("There is no name with id " + id);
+		}
+		return names[id];
+	}
+
+	/**
+	 * Gets the number of names in the table, which is also the next id.
+	 * @return The number of names
+	 */
+	public int size() {
+		return size;
+	}
+}